@@ -0,0 +1,197 @@
+package ee.taltech.inbankbackend.benchmark;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import ee.taltech.inbankbackend.service.DecisionSolver;
+import ee.taltech.inbankbackend.service.DecisionTable;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks the decision hot path: the full engine call for approved customers and for a realistic traffic mix,
+ * the rejection paths, a warm decision cache, the overhead of publishing metrics to Prometheus and of writing the
+ * audit log, and the table lookup against the closed-form solver it is built from.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionEngineBenchmark {
+
+    private static final int SAMPLE_COUNT = 1024;
+    private static final int SAMPLE_MASK = SAMPLE_COUNT - 1;
+
+    private static final CreditPolicy POLICY = CreditPolicyReader.bundled();
+
+    private final DecisionEngine decisionEngine = engine(DecisionCache.disabled(), DecisionMetrics.disabled());
+    private final DecisionEngine cachingDecisionEngine =
+            engine(new DecisionCache(SAMPLE_COUNT * 2, Duration.ofHours(1)), DecisionMetrics.disabled());
+    private final DecisionEngine instrumentedDecisionEngine = engine(DecisionCache.disabled(),
+            new DecisionMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+    private final DecisionTable decisionTable = DecisionTable.fromPolicy(POLICY);
+    private Path auditDirectory;
+    private AuditLog auditLog;
+    private DecisionEngine auditedDecisionEngine;
+
+    private final String[] approvedCodes = new String[SAMPLE_COUNT];
+    private final String[] debtorCodes = new String[SAMPLE_COUNT];
+    private final String[] invalidCodes = new String[SAMPLE_COUNT];
+    private final CreditSegment[] segments = new CreditSegment[SAMPLE_COUNT];
+    private final long[] loanAmounts = new long[SAMPLE_COUNT];
+    private final int[] loanPeriods = new int[SAMPLE_COUNT];
+    private final int[] creditModifiers = new int[SAMPLE_COUNT];
+    private int index;
+
+    /**
+     * Requests as they arrive in production: a share of malformed codes and debtors, the rest spread over the
+     * credit segments.
+     */
+    @State(Scope.Thread)
+    public static class TrafficMix {
+
+        @Param({"10"})
+        public int invalidPercent;
+
+        @Param({"25"})
+        public int debtorPercent;
+
+        final String[] personalCodes = new String[SAMPLE_COUNT];
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                int roll = random.nextInt(100);
+                if (roll < invalidPercent) {
+                    personalCodes[i] = PersonalCodes.invalid(random);
+                } else if (roll < invalidPercent + debtorPercent) {
+                    personalCodes[i] = PersonalCodes.valid(random, CreditSegment.DEBT);
+                } else {
+                    personalCodes[i] = PersonalCodes.valid(random, CreditSegment.values()[1 + random.nextInt(3)]);
+                }
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        auditDirectory = Files.createTempDirectory("audit");
+        auditLog = AuditLog.open(auditDirectory, 64 << 20, 1 << 16);
+        auditedDecisionEngine = new DecisionEngine(CreditPolicyStore.of(DecisionCache.disabled(), POLICY),
+                DecisionCache.disabled(), new LocalCreditModifierProvider(Map.of(), Duration.ZERO),
+                DecisionMetrics.disabled(), auditLog);
+
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            segments[i] = CreditSegment.values()[1 + random.nextInt(3)];
+            approvedCodes[i] = PersonalCodes.valid(random, segments[i]);
+            debtorCodes[i] = PersonalCodes.valid(random, CreditSegment.DEBT);
+            invalidCodes[i] = PersonalCodes.invalid(random);
+            loanAmounts[i] = 2000 + random.nextInt(8001);
+            loanPeriods[i] = 12 + random.nextInt(49);
+            creditModifiers[i] = POLICY.getCreditModifier(segments[i]);
+        }
+    }
+
+    @Benchmark
+    public Decision approvedDecision() {
+        int i = index++ & SAMPLE_MASK;
+        return decisionEngine.calculateApprovedLoan(approvedCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision instrumentedApprovedDecision() {
+        int i = index++ & SAMPLE_MASK;
+        return instrumentedDecisionEngine.calculateApprovedLoan(approvedCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision auditedApprovedDecision() {
+        int i = index++ & SAMPLE_MASK;
+        return auditedDecisionEngine.calculateApprovedLoan(approvedCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision cachedDecision() {
+        int i = index++ & SAMPLE_MASK;
+        return cachingDecisionEngine.calculateApprovedLoan(approvedCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision mixedTraffic(TrafficMix trafficMix) {
+        int i = index++ & SAMPLE_MASK;
+        return decisionEngine.calculateApprovedLoan(trafficMix.personalCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision invalidPersonalCodeRejection() {
+        int i = index++ & SAMPLE_MASK;
+        return decisionEngine.calculateApprovedLoan(invalidCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision noValidLoanRejection() {
+        int i = index++ & SAMPLE_MASK;
+        return decisionEngine.calculateApprovedLoan(debtorCodes[i], loanAmounts[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public Decision decisionTableLookup() {
+        int i = index++ & SAMPLE_MASK;
+        return decisionTable.lookup(segments[i], loanPeriods[i]);
+    }
+
+    @Benchmark
+    public int closedFormSolver() {
+        int i = index++ & SAMPLE_MASK;
+        int approvedLoanPeriod = DecisionSolver.approvedLoanPeriod(POLICY, creditModifiers[i], loanPeriods[i]);
+        return DecisionSolver.approvedLoanAmount(POLICY, creditModifiers[i], approvedLoanPeriod) + approvedLoanPeriod;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        auditLog.close();
+        try (Stream<Path> files = Files.walk(auditDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static DecisionEngine engine(DecisionCache decisionCache, DecisionMetrics decisionMetrics) {
+        return new DecisionEngine(CreditPolicyStore.of(decisionCache, POLICY), decisionCache,
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), decisionMetrics, AuditLog.disabled());
+    }
+}
@@ -0,0 +1,68 @@
+package ee.taltech.inbankbackend.benchmark;
+
+import com.github.vladislavgoltjajev.personalcode.locale.estonia.EstonianPersonalCodeValidator;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.service.PersonalCodeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks personal code validation for valid codes and for codes with a wrong checksum, comparing the
+ * java-personal-code library with the in-house {@link PersonalCodeParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonalCodeValidatorBenchmark {
+
+    private static final int SAMPLE_COUNT = 1024;
+    private static final int SAMPLE_MASK = SAMPLE_COUNT - 1;
+
+    private final EstonianPersonalCodeValidator validator = new EstonianPersonalCodeValidator();
+    private final String[] validCodes = new String[SAMPLE_COUNT];
+    private final String[] invalidCodes = new String[SAMPLE_COUNT];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            validCodes[i] = PersonalCodes.valid(random, CreditSegment.values()[random.nextInt(4)]);
+            invalidCodes[i] = PersonalCodes.invalid(random);
+        }
+    }
+
+    @Benchmark
+    public boolean validCode() {
+        return validator.isValid(validCodes[index++ & SAMPLE_MASK]);
+    }
+
+    @Benchmark
+    public boolean invalidCode() {
+        return validator.isValid(invalidCodes[index++ & SAMPLE_MASK]);
+    }
+
+    @Benchmark
+    public int parserValidCode() {
+        return PersonalCodeParser.parseLastFourDigits(validCodes[index++ & SAMPLE_MASK]);
+    }
+
+    @Benchmark
+    public int parserInvalidCode() {
+        return PersonalCodeParser.parseLastFourDigits(invalidCodes[index++ & SAMPLE_MASK]);
+    }
+}
@@ -0,0 +1,42 @@
+package ee.taltech.inbankbackend.benchmark;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.service.PersonalCodeParser;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Generates Estonian personal codes for benchmark inputs.
+ */
+final class PersonalCodes {
+
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+    private static final int BIRTH_DATE_RANGE_DAYS = 365 * 65;
+
+    private PersonalCodes() {
+    }
+
+    /**
+     * Generates a valid personal code whose last four digits fall into the given credit segment.
+     */
+    static String valid(Random random, CreditSegment segment) {
+        String digits = digitsWithoutChecksum(random, segment.ordinal() * 250 + random.nextInt(250));
+        return digits + PersonalCodeParser.checkDigit(digits);
+    }
+
+    /**
+     * Generates a personal code with a valid format and birth date but a wrong checksum.
+     */
+    static String invalid(Random random) {
+        String digits = digitsWithoutChecksum(random, random.nextInt(1000));
+        return digits + (PersonalCodeParser.checkDigit(digits) + 1 + random.nextInt(9)) % 10;
+    }
+
+    private static String digitsWithoutChecksum(Random random, int serialNumber) {
+        LocalDate birthDate = FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_RANGE_DAYS));
+        int centuryAndGender = (birthDate.getYear() < 2000 ? 3 : 5) + random.nextInt(2);
+        return String.format("%d%02d%02d%02d%03d", centuryAndGender, birthDate.getYear() % 100,
+                birthDate.getMonthValue(), birthDate.getDayOfMonth(), serialNumber);
+    }
+}
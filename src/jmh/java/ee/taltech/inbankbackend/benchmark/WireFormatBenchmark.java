@@ -0,0 +1,80 @@
+package ee.taltech.inbankbackend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import ee.taltech.inbankbackend.endpoint.DecisionRequest;
+import ee.taltech.inbankbackend.endpoint.DecisionResponse;
+import ee.taltech.inbankbackend.endpoint.DecisionWireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and the binary wire format of the decision endpoint: the CPU time to read a request and write
+ * the response for one decision, and separately for each direction. The encoded size of both payloads in each
+ * format is printed when the benchmark starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private final DecisionRequest request = new DecisionRequest("50307172740", 4000L, 24);
+    private final DecisionResponse response = new DecisionResponse(2400, 24, null, "2023-03-01");
+
+    private boolean binary;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] encodedRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(DecisionRequest.class);
+        responseWriter = objectMapper.writerFor(DecisionResponse.class);
+        binary = format.equals("binary");
+
+        encodedRequest = binary ? DecisionWireFormat.encodeRequest(request)
+                : objectMapper.writerFor(DecisionRequest.class).writeValueAsBytes(request);
+        System.out.printf("%n%s: request %d bytes, response %d bytes%n", format, encodedRequest.length,
+                writeResponse().length);
+    }
+
+    @Benchmark
+    public DecisionRequest readRequest() throws IOException {
+        return binary ? DecisionWireFormat.decodeRequest(ByteBuffer.wrap(encodedRequest))
+                : requestReader.readValue(encodedRequest);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return binary ? DecisionWireFormat.encodeResponse(response) : responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] decision(Blackhole blackhole) throws IOException {
+        blackhole.consume(readRequest());
+        return writeResponse();
+    }
+}
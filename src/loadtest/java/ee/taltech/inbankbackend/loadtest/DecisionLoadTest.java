@@ -0,0 +1,286 @@
+package ee.taltech.inbankbackend.loadtest;
+
+import ee.taltech.inbankbackend.InbankBackendApplication;
+import ee.taltech.inbankbackend.config.VirtualThreads;
+import ee.taltech.inbankbackend.service.PersonalCodeParser;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares POST /loan/decision across the execution modes of the application: the servlet stack on the Tomcat
+ * platform-thread pool, the servlet stack on virtual threads and the reactive stack on Netty. For each mode the
+ * application is started on a random port with the decision cache disabled, so every request waits for the credit
+ * registry latency, and with the adaptive concurrency limit disabled, which would otherwise shed the excess
+ * connections with 503 responses that count as errors here. The credit registry bulkhead admits one lookup per
+ * connection and hedging is off, so lookups are neither rejected nor duplicated. The servlet modes use a blocking
+ * registry client, the reactive mode a non-blocking one. Every simulated connection sends requests back to back; after
+ * the warm-up the memory in use is sampled and the requests of the following measurement period are timed.
+ * <p>
+ * Memory per connection is the growth of the heap and of the process resident set size over the idle application,
+ * divided by the number of connections. The load generator runs in the same JVM, so the figures include its share,
+ * which is the same for every mode; the resident set size is only available on Linux.
+ * <p>
+ * Arguments: [connections, default 10000] [duration in seconds, default 30] [registry latency in ms, default 50].
+ * The virtual-thread mode is skipped unless the harness runs on Java 21 or later. Ten thousand connections need a
+ * file descriptor limit well above that, e.g. ulimit -n 65536.
+ */
+public class DecisionLoadTest {
+
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration SAMPLE_SETTLE_TIME = Duration.ofSeconds(1);
+    private static final int PERSONAL_CODE_COUNT = 50_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 30);
+        Duration registryLatency = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 50);
+        String[] personalCodes = personalCodes(PERSONAL_CODE_COUNT);
+
+        List<LoadTestResult> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            if (mode.virtualThreads && !VirtualThreads.isSupported()) {
+                System.out.println("Skipping " + mode.label + ": running on Java " + Runtime.version().feature());
+                continue;
+            }
+            results.add(run(mode, connections, duration, registryLatency, personalCodes));
+        }
+
+        System.out.printf("%n%d connections, %d ms registry latency, %d s measured%n",
+                connections, registryLatency.toMillis(), duration.toSeconds());
+        System.out.printf("%-18s %12s %10s %10s %10s %8s %8s %14s %14s%n", "mode", "requests/s", "p50 ms", "p99 ms",
+                "max ms", "errors", "threads", "heap KiB/conn", "RSS KiB/conn");
+        for (LoadTestResult result : results) {
+            System.out.printf("%-18s %12.0f %10.1f %10.1f %10.1f %8d %8d %14.1f %14.1f%n", result.mode(),
+                    result.throughput(), result.p50Millis(), result.p99Millis(), result.maxMillis(), result.errors(),
+                    result.threads(), result.heapKibPerConnection(), result.rssKibPerConnection());
+        }
+    }
+
+    private static LoadTestResult run(Mode mode, int connections, Duration duration, Duration registryLatency,
+                                      String[] personalCodes) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InbankBackendApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (connections + 1000),
+                        "server.tomcat.accept-count=" + connections,
+                        "logging.level.root=WARN",
+                        "spring.main.web-application-type=" + (mode.reactive ? "reactive" : "servlet"),
+                        "decision-engine.virtual-threads.enabled=" + mode.virtualThreads,
+                        "decision-engine.cache.maximum-size=0",
+                        "decision-engine.concurrency-limit.maximum=0",
+                        "decision-engine.credit-registry.blocking=" + !mode.reactive,
+                        "decision-engine.credit-registry.latency=" + registryLatency.toMillis() + "ms",
+                        "decision-engine.credit-registry.timeout=1m",
+                        "decision-engine.credit-registry.bulkhead.maximum-concurrent-lookups=" + connections,
+                        "decision-engine.credit-registry.hedging.maximum-ratio=0")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/loan/decision");
+
+            System.out.printf("Running %s against %s%n", mode.label, uri);
+            return new LoadGenerator(uri, connections, personalCodes).run(mode.label, WARM_UP, duration);
+        }
+    }
+
+    /**
+     * Generates distinct valid personal codes so that concurrent registry lookups are not coalesced.
+     */
+    private static String[] personalCodes(int count) {
+        String[] personalCodes = new String[count];
+        LocalDate birthDate = LocalDate.of(1960, 1, 1);
+        for (int i = 0; i < count; i++) {
+            String digits = String.format("%d%02d%02d%02d%03d", 3 + i % 2, birthDate.getYear() % 100,
+                    birthDate.getMonthValue(), birthDate.getDayOfMonth(), 500 + i % 500);
+            personalCodes[i] = digits + PersonalCodeParser.checkDigit(digits);
+            if (i % 500 == 499) {
+                birthDate = birthDate.plusDays(1);
+            }
+        }
+        return personalCodes;
+    }
+
+    /**
+     * Keeps a fixed number of requests in flight, each simulated connection sending its next request as soon as the
+     * previous response arrives.
+     */
+    private static final class LoadGenerator {
+
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        private final URI uri;
+        private final int connections;
+        private final String[] personalCodes;
+        private final LongAdder errors = new LongAdder();
+        private volatile long measureFrom = Long.MAX_VALUE;
+        private volatile long measureUntil = Long.MAX_VALUE;
+
+        private LoadGenerator(URI uri, int connections, String[] personalCodes) {
+            this.uri = uri;
+            this.connections = connections;
+            this.personalCodes = personalCodes;
+        }
+
+        private LoadTestResult run(String mode, Duration warmUp, Duration duration) throws InterruptedException {
+            MemorySample idle = MemorySample.take();
+            CountDownLatch finished = new CountDownLatch(connections);
+
+            List<Connection> simulated = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Connection connection = new Connection(i, finished);
+                simulated.add(connection);
+                connection.send();
+            }
+
+            Thread.sleep(warmUp.toMillis());
+            MemorySample loaded = MemorySample.take();
+            // Give the application a moment to recover from the full GC of the sample before measuring.
+            measureFrom = System.nanoTime() + SAMPLE_SETTLE_TIME.toNanos();
+            measureUntil = measureFrom + duration.toNanos();
+            finished.await();
+
+            long[] latencies = simulated.stream().flatMapToLong(Connection::latencies).sorted().toArray();
+            double seconds = duration.toNanos() / 1e9;
+            return new LoadTestResult(mode, latencies.length / seconds, percentileMillis(latencies, 0.50),
+                    percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0), errors.sum(),
+                    loaded.threads(), (loaded.heapBytes() - idle.heapBytes()) / 1024.0 / connections,
+                    (loaded.rssBytes() - idle.rssBytes()) / 1024.0 / connections);
+        }
+
+        private static double percentileMillis(long[] sortedLatencies, double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        /**
+         * A sequence of requests of which only one is in flight at a time, so the latencies need no synchronization.
+         */
+        private final class Connection {
+
+            private final CountDownLatch finished;
+            private long[] latencies = new long[256];
+            private int latencyCount;
+            private int nextPersonalCode;
+
+            private Connection(int index, CountDownLatch finished) {
+                this.finished = finished;
+                this.nextPersonalCode = index % personalCodes.length;
+            }
+
+            private void send() {
+                String personalCode = personalCodes[nextPersonalCode];
+                nextPersonalCode = (nextPersonalCode + connections) % personalCodes.length;
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofMinutes(1))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"personalCode\":\"" + personalCode
+                                + "\",\"loanAmount\":4000,\"loanPeriod\":24}"))
+                        .build();
+
+                long started = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            long completed = System.nanoTime();
+                            long until = measureUntil;
+                            if (failure != null || response.statusCode() >= 500) {
+                                errors.increment();
+                            } else if (started >= measureFrom && completed <= until) {
+                                record(completed - started);
+                            }
+
+                            if (completed < until) {
+                                send();
+                            } else {
+                                finished.countDown();
+                            }
+                        });
+            }
+
+            private void record(long latency) {
+                if (latencyCount == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                }
+                latencies[latencyCount++] = latency;
+            }
+
+            private LongStream latencies() {
+                return Arrays.stream(latencies, 0, latencyCount);
+            }
+        }
+    }
+
+    private enum Mode {
+        PLATFORM_THREADS("platform threads", false, false),
+        VIRTUAL_THREADS("virtual threads", true, false),
+        REACTIVE("reactive", false, true);
+
+        private final String label;
+        private final boolean virtualThreads;
+        private final boolean reactive;
+
+        Mode(String label, boolean virtualThreads, boolean reactive) {
+            this.label = label;
+            this.virtualThreads = virtualThreads;
+            this.reactive = reactive;
+        }
+    }
+
+    /**
+     * Heap in use after a full GC, resident set size of the process and number of live threads.
+     */
+    private record MemorySample(long heapBytes, long rssBytes, int threads) {
+
+        private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+        static MemorySample take() {
+            System.gc();
+            long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            return new MemorySample(heapBytes, residentSetSize(), ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+
+        private static long residentSetSize() {
+            if (!Files.isReadable(PROC_STATUS)) {
+                return 0;
+            }
+            try (Stream<String> lines = Files.lines(PROC_STATUS)) {
+                return lines.filter(line -> line.startsWith("VmRSS:"))
+                        .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                        .findFirst()
+                        .orElse(0);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+
+    private record LoadTestResult(String mode, double throughput, double p50Millis, double p99Millis,
+                                  double maxMillis, long errors, int threads, double heapKibPerConnection,
+                                  double rssKibPerConnection) {
+    }
+}
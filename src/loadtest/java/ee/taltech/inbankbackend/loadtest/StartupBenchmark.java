@@ -0,0 +1,168 @@
+package ee.taltech.inbankbackend.loadtest;
+
+import ee.taltech.inbankbackend.InbankBackendApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares how quickly the application starts and how much memory it holds in three builds: the plain JVM (which
+ * only shares the JDK's own classes), the JVM with the application class data sharing archive recorded by the
+ * cdsArchive task, and the native image built with -Pnative nativeCompile.
+ * <p>
+ * Every run starts the build as a separate process on a free port and sends POST /loan/decision every few
+ * milliseconds until one is answered with 200 OK. The time to that first response is the startup time, which
+ * includes everything up to a served request rather than just what the application logs as started. The resident
+ * set size and its peak are then read from /proc, so the harness needs Linux. Each build gets one unmeasured run to
+ * warm up the file system cache, and the table shows the median of the measured runs.
+ * <p>
+ * Arguments: runs, application classpath of plain jars, CDS archive, native executable. The CDS build is skipped
+ * when the archive does not exist and the native build when the executable does not exist.
+ */
+public class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String REQUEST = "{\"personalCode\":\"38411266610\",\"loanAmount\":4000,\"loanPeriod\":12}";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 4) {
+            System.err.println("Usage: StartupBenchmark <runs> <classpath> <CDS archive> <native executable>");
+            System.exit(2);
+        }
+        int runs = Integer.parseInt(args[0]);
+        if (runs < 1) {
+            throw new IllegalArgumentException("At least one run is needed, got " + runs);
+        }
+        String classpath = args[1];
+        Path archive = Path.of(args[2]);
+        Path executable = Path.of(args[3]);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String mainClass = InbankBackendApplication.class.getName();
+
+        List<Build> builds = new ArrayList<>();
+        builds.add(new Build("jvm", List.of(java, "-cp", classpath, mainClass)));
+        if (Files.exists(archive)) {
+            builds.add(new Build("jvm + cds", List.of(java, "-XX:SharedArchiveFile=" + archive,
+                    "-cp", classpath, mainClass)));
+        } else {
+            System.out.println("Skipping jvm + cds: no archive at " + archive + ", run the cdsArchive task first");
+        }
+        if (Files.isExecutable(executable)) {
+            builds.add(new Build("native", List.of(executable.toString())));
+        } else {
+            System.out.println("Skipping native: no executable at " + executable + ", build it with -Pnative "
+                    + "nativeCompile");
+        }
+
+        List<StartupResult> results = new ArrayList<>();
+        for (Build build : builds) {
+            System.out.printf("Starting %s %d times%n", build.label(), runs);
+            start(build);
+            StartupSample[] samples = new StartupSample[runs];
+            for (int i = 0; i < runs; i++) {
+                samples[i] = start(build);
+            }
+            results.add(StartupResult.of(build.label(), samples));
+        }
+
+        System.out.printf("%n%d runs per build, medians%n", runs);
+        System.out.printf("%-12s %18s %12s %14s%n", "build", "first response ms", "RSS MiB", "peak RSS MiB");
+        for (StartupResult result : results) {
+            System.out.printf("%-12s %18.0f %12.1f %14.1f%n", result.build(), result.firstResponseMillis(),
+                    result.rssMib(), result.peakRssMib());
+        }
+    }
+
+    private static StartupSample start(Build build) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(build.command());
+        command.addAll(List.of("--server.port=" + port, "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/loan/decision"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(REQUEST))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            long deadline = started + STARTUP_TIMEOUT.toNanos();
+            while (!answered(client, request)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(build.label() + " exited with " + process.exitValue());
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(build.label() + " did not answer within " + STARTUP_TIMEOUT);
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            long firstResponse = System.nanoTime() - started;
+            Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+            return new StartupSample(firstResponse, statusKib(status, "VmRSS:"), statusKib(status, "VmHWM:"));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean answered(HttpClient client, HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long statusKib(Path status, String field) throws IOException {
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith(field))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(status + " has no " + field));
+        }
+    }
+
+    private record Build(String label, List<String> command) {
+    }
+
+    private record StartupSample(long firstResponseNanos, long rssKib, long peakRssKib) {
+    }
+
+    private record StartupResult(String build, double firstResponseMillis, double rssMib, double peakRssMib) {
+
+        static StartupResult of(String build, StartupSample[] samples) {
+            return new StartupResult(build,
+                    median(Arrays.stream(samples).mapToLong(StartupSample::firstResponseNanos).toArray()) / 1e6,
+                    median(Arrays.stream(samples).mapToLong(StartupSample::rssKib).toArray()) / 1024.0,
+                    median(Arrays.stream(samples).mapToLong(StartupSample::peakRssKib).toArray()) / 1024.0);
+        }
+
+        private static double median(long[] values) {
+            Arrays.sort(values);
+            int middle = values.length / 2;
+            return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ee.taltech.inbankbackend;
+
+import ee.taltech.inbankbackend.audit.AuditReplayer;
+import ee.taltech.inbankbackend.audit.AuditReplaySummary;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point that re-runs the requests of a decision audit log through the DecisionEngine and prints
+ * every decision that differs from the logged one. The application context is started without a web server and
+ * with auditing disabled, so the replayed decisions are not added to any audit log.
+ */
+public class AuditReplayApplication {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuditReplayApplication <audit log directory>");
+            System.exit(2);
+        }
+
+        AuditReplaySummary summary;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InbankBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--decision-engine.audit.directory=")) {
+            AuditReplayer replayer = new AuditReplayer(context.getBean(DecisionEngine.class));
+            summary = replayer.replay(Path.of(args[0]), System.out);
+        }
+
+        System.out.printf("Replayed %d records, %d divergent decisions%n", summary.records(), summary.divergences());
+        if (summary.divergences() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ee.taltech.inbankbackend;
+
+import ee.taltech.inbankbackend.bulk.BulkDecisionRunner;
+import ee.taltech.inbankbackend.bulk.BulkDecisionSummary;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point that evaluates a JSONL or CSV file of decision requests offline.
+ * The application context is started without a web server, so the same DecisionEngine configuration is used as
+ * by the REST endpoints.
+ */
+public class BulkDecisionApplication {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BulkDecisionApplication <requests.jsonl|requests.csv> <output file>");
+            System.exit(2);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InbankBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run()) {
+            BulkDecisionRunner runner =
+                    new BulkDecisionRunner(context.getBean(DecisionEngine.class), ForkJoinPool.commonPool());
+            BulkDecisionSummary summary = runner.run(Path.of(args[0]), Path.of(args[1]));
+
+            System.out.printf("Evaluated %d records in %.3f s (%.0f records/sec)%n",
+                    summary.records(), summary.elapsedNanos() / 1e9, summary.recordsPerSecond());
+        }
+    }
+}
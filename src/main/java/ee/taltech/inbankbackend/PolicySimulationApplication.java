@@ -0,0 +1,109 @@
+package ee.taltech.inbankbackend;
+
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.simulation.PolicyOutcome;
+import ee.taltech.inbankbackend.simulation.PolicySimulator;
+import ee.taltech.inbankbackend.simulation.RequestPopulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point that re-evaluates historical decision requests under candidate credit policies and
+ * prints how approvals and the approved amounts and periods would shift. The requests are read from an audit log
+ * directory or from a JSONL or CSV file in the format of the offline bulk evaluation. The first policy is the
+ * baseline, typically the policy in effect, that gained and lost approvals are counted against.
+ * No application context is started; the simulation only needs the credit policies.
+ */
+public class PolicySimulationApplication {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PolicySimulationApplication <audit log directory|requests.jsonl|requests.csv> "
+                    + "<baseline policy.json> [candidate policy.json...]");
+            System.exit(2);
+        }
+
+        long loadStarted = System.nanoTime();
+        RequestPopulation population = RequestPopulation.read(Path.of(args[0]));
+        List<CreditPolicy> policies = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            policies.add(CreditPolicyReader.read(Path.of(args[i])));
+        }
+        long simulationStarted = System.nanoTime();
+        List<PolicyOutcome> outcomes = new PolicySimulator(ForkJoinPool.commonPool()).simulate(population, policies);
+        long finished = System.nanoTime();
+
+        System.out.printf("Loaded %d requests (%d lines skipped) in %.3f s, simulated %d policies in %.3f s%n%n",
+                population.size(), population.getSkippedCount(), (simulationStarted - loadStarted) / 1e9,
+                policies.size(), (finished - simulationStarted) / 1e9);
+        printSummary(outcomes);
+        printLoanAmounts(outcomes);
+        printLoanPeriods(outcomes);
+    }
+
+    private static void printSummary(List<PolicyOutcome> outcomes) {
+        System.out.printf("%-16s %10s %10s %10s %10s %11s %11s %10s %10s %10s %10s %10s%n", "policy", "approved",
+                "rate", "gained", "lost", "avg amount", "avg period", "adjusted", "bad code", "bad amount",
+                "bad period", "no loan");
+        for (PolicyOutcome outcome : outcomes) {
+            System.out.printf("%-16s %10d %9.2f%% %10d %10d %11.0f %11.1f %10d %10d %10d %10d %10d%n",
+                    outcome.policyVersion(), outcome.approvals(), outcome.approvalRate() * 100,
+                    outcome.gainedApprovals(), outcome.lostApprovals(), outcome.averageApprovedLoanAmount(),
+                    outcome.averageApprovedLoanPeriod(), outcome.adjustedPeriods(),
+                    outcome.count(DecisionStatus.INVALID_PERSONAL_CODE),
+                    outcome.count(DecisionStatus.INVALID_LOAN_AMOUNT),
+                    outcome.count(DecisionStatus.INVALID_LOAN_PERIOD), outcome.count(DecisionStatus.NO_VALID_LOAN));
+        }
+    }
+
+    private static void printLoanAmounts(List<PolicyOutcome> outcomes) {
+        System.out.printf("%nApproved loan amounts%n%-16s", "amount");
+        outcomes.forEach(outcome -> System.out.printf(" %16s", outcome.policyVersion()));
+        System.out.println();
+        int buckets = outcomes.get(0).approvedLoanAmounts().length;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (isEmpty(outcomes, bucket, true)) {
+                continue;
+            }
+            System.out.printf("%-16s", bucket * PolicyOutcome.AMOUNT_BUCKET_WIDTH + "-"
+                    + ((bucket + 1) * PolicyOutcome.AMOUNT_BUCKET_WIDTH - 1));
+            for (PolicyOutcome outcome : outcomes) {
+                System.out.printf(" %16d", outcome.approvedLoanAmounts()[bucket]);
+            }
+            System.out.println();
+        }
+    }
+
+    private static void printLoanPeriods(List<PolicyOutcome> outcomes) {
+        System.out.printf("%nApproved loan periods%n%-16s", "months");
+        outcomes.forEach(outcome -> System.out.printf(" %16s", outcome.policyVersion()));
+        System.out.println();
+        int periods = outcomes.get(0).approvedLoanPeriods().length;
+        for (int period = 0; period < periods; period++) {
+            if (isEmpty(outcomes, period, false)) {
+                continue;
+            }
+            System.out.printf("%-16d", period);
+            for (PolicyOutcome outcome : outcomes) {
+                System.out.printf(" %16d", outcome.approvedLoanPeriods()[period]);
+            }
+            System.out.println();
+        }
+    }
+
+    private static boolean isEmpty(List<PolicyOutcome> outcomes, int index, boolean amounts) {
+        for (PolicyOutcome outcome : outcomes) {
+            long[] distribution = amounts ? outcome.approvedLoanAmounts() : outcome.approvedLoanPeriods();
+            if (distribution[index] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
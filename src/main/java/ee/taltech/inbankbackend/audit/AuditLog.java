@@ -0,0 +1,212 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every decision and offer query in an append-only audit log without making the request wait for the disk.
+ * Request threads only put the record into a lock-free ring buffer. A single writer thread drains everything that
+ * has accumulated, appends it to the current memory-mapped segment and then forces it to disk once for the whole
+ * batch, so the cost of an fsync is shared by all records that arrived while the previous one was running.
+ * If the ring buffer is full, or the log can no longer be written, records are dropped and counted instead of
+ * blocking the request. Every record is either written or counted as dropped: once the log is closed or has failed,
+ * the writer waits for the offers already in progress before it drains the buffer for the last time.
+ */
+public class AuditLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpscRingBuffer<AuditRecord> buffer;
+    private final AuditSegmentWriter writer;
+    private final Thread writerThread;
+    private final AtomicLong written = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger offering = new AtomicInteger();
+    private volatile boolean writerIdle;
+    private volatile boolean failed;
+    private volatile boolean closed;
+
+    private AuditLog(MpscRingBuffer<AuditRecord> buffer, AuditSegmentWriter writer) {
+        this.buffer = buffer;
+        this.writer = writer;
+        if (writer != null) {
+            this.writerThread = new Thread(this::writeRecords, "audit-log-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    /**
+     * Creates an audit log that records nothing.
+     *
+     * @return A disabled AuditLog
+     */
+    public static AuditLog disabled() {
+        return new AuditLog(null, null);
+    }
+
+    /**
+     * Opens an audit log that appends to a new segment in the given directory.
+     *
+     * @param directory Directory of the segment files; it is created if it does not exist
+     * @param segmentSize Size of a segment file in bytes
+     * @param bufferCapacity Number of records that can wait for the writer, a power of two
+     * @return A new AuditLog
+     * @throws IOException If the first segment cannot be created
+     */
+    public static AuditLog open(Path directory, int segmentSize, int bufferCapacity) throws IOException {
+        return new AuditLog(new MpscRingBuffer<>(bufferCapacity), new AuditSegmentWriter(directory, segmentSize));
+    }
+
+    /**
+     * Records a decision. Never blocks.
+     *
+     * @param personalCode Requested personal code
+     * @param loanAmount Requested loan amount
+     * @param loanPeriod Requested loan period
+     * @param decision The decision returned for the request
+     */
+    public void record(String personalCode, Long loanAmount, int loanPeriod, Decision decision) {
+        if (buffer != null) {
+            offer(AuditRecord.of(System.currentTimeMillis(), personalCode, loanAmount, loanPeriod, decision));
+        }
+    }
+
+    /**
+     * Records the offers returned for a customer. Never blocks.
+     *
+     * @param personalCode Requested personal code
+     * @param offerCurve The offers returned for the request
+     */
+    public void recordOfferCurve(String personalCode, OfferCurve offerCurve) {
+        if (buffer != null) {
+            offer(AuditRecord.ofOfferCurve(System.currentTimeMillis(), personalCode, offerCurve));
+        }
+    }
+
+    /**
+     * Records the offers of every credit product returned for a customer. Never blocks.
+     *
+     * @param personalCode Requested personal code
+     * @param productOffers The offers returned for the request
+     */
+    public void recordProductOffers(String personalCode, ProductOffers productOffers) {
+        if (buffer != null) {
+            offer(AuditRecord.ofProductOffers(System.currentTimeMillis(), personalCode, productOffers));
+        }
+    }
+
+    /**
+     * @return Number of records forced to disk
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return Number of records dropped because the buffer was full or the log could not be written
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops accepting records, writes the records still in the buffer and closes the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    private void offer(AuditRecord record) {
+        offering.incrementAndGet();
+        try {
+            if (failed || closed || !buffer.offer(record)) {
+                dropped.increment();
+                return;
+            }
+        } finally {
+            offering.decrementAndGet();
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void writeRecords() {
+        int batch = 0;
+        try {
+            while (true) {
+                // An offer that saw the log open has announced itself before closed was set, so once none are in
+                // progress, this drain is the last one that can find a record
+                boolean stopping = closed && offering.get() == 0;
+                batch = 0;
+                for (AuditRecord record = buffer.poll(); record != null; record = buffer.poll()) {
+                    batch++;
+                    writer.append(record);
+                }
+                if (batch > 0) {
+                    writer.commit();
+                    written.addAndGet(batch);
+                    batch = 0;
+                } else if (stopping) {
+                    return;
+                } else {
+                    writerIdle = true;
+                    if (buffer.isEmpty() && !closed) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            log.error("Audit log can no longer be written, further decisions are not audited", e);
+            dropped.add(batch + discardBuffered());
+        }
+    }
+
+    /**
+     * Empties the buffer after a failure, including records of offers that were in progress when it happened.
+     *
+     * @return Number of records discarded
+     */
+    private long discardBuffered() {
+        long discarded = 0;
+        while (true) {
+            boolean quiescent = offering.get() == 0;
+            while (buffer.poll() != null) {
+                discarded++;
+            }
+            if (quiescent) {
+                return discarded;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ee.taltech.inbankbackend.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads the records of an audit log in the order they were written.
+ * Each segment is read up to its first incomplete record, which is either the zero-filled end of the segment or
+ * a record that was torn by a crash before it was forced to disk.
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    /**
+     * @param directory Directory of the segment files
+     * @param consumer Receives every record, oldest first
+     * @return Number of records read
+     * @throws IOException If a segment cannot be read
+     */
+    public static long read(Path directory, Consumer<AuditRecord> consumer) throws IOException {
+        long records = 0;
+        for (Path file : AuditSegmentWriter.segments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (AuditRecord record = AuditRecordCodec.decode(segment); record != null;
+                     record = AuditRecordCodec.decode(segment)) {
+                    consumer.accept(record);
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,85 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * One decision as recorded in the audit log: the request, its outcome and the credit policy that decided it.
+ * Offer queries carry no requested loan amount or period; their approved loan amount and period are the largest
+ * amount and the longest period offered. Product offer queries list the policy version of every product as
+ * {@code product=version}, separated by commas.
+ *
+ * @param timestamp When the decision was made, in milliseconds since the epoch
+ * @param type The kind of request
+ * @param personalCode Requested personal code, truncated to 255 characters
+ * @param loanAmount Requested loan amount
+ * @param loanPeriod Requested loan period
+ * @param status Outcome of the decision
+ * @param approvedLoanAmount Approved loan amount, if the loan was approved
+ * @param approvedLoanPeriod Approved loan period, if the loan was approved
+ * @param policyVersion Version of the credit policy that made the decision
+ */
+public record AuditRecord(long timestamp, AuditRecordType type, String personalCode, Long loanAmount, int loanPeriod,
+                          DecisionStatus status, Integer approvedLoanAmount, Integer approvedLoanPeriod,
+                          String policyVersion) {
+
+    /**
+     * @param timestamp When the decision was made, in milliseconds since the epoch
+     * @param personalCode Requested personal code
+     * @param loanAmount Requested loan amount
+     * @param loanPeriod Requested loan period
+     * @param decision The decision returned for the request
+     * @return A new AuditRecord
+     */
+    public static AuditRecord of(long timestamp, String personalCode, Long loanAmount, int loanPeriod,
+                                 Decision decision) {
+        return new AuditRecord(timestamp, AuditRecordType.LOAN_DECISION, personalCode, loanAmount, loanPeriod,
+                decision.getStatus(), decision.getLoanAmount(), decision.getLoanPeriod(), decision.getPolicyVersion());
+    }
+
+    /**
+     * @param timestamp When the offers were computed, in milliseconds since the epoch
+     * @param personalCode Requested personal code
+     * @param offerCurve The offers returned for the request
+     * @return A new AuditRecord of type {@link AuditRecordType#OFFER_CURVE}
+     */
+    public static AuditRecord ofOfferCurve(long timestamp, String personalCode, OfferCurve offerCurve) {
+        List<Integer> loanAmounts = offerCurve.getLoanAmounts();
+        return new AuditRecord(timestamp, AuditRecordType.OFFER_CURVE, personalCode, null, 0, offerCurve.getStatus(),
+                loanAmounts.isEmpty() ? null : loanAmounts.get(loanAmounts.size() - 1),
+                offerCurve.getMaximumLoanPeriod(), offerCurve.getPolicyVersion());
+    }
+
+    /**
+     * @param timestamp When the offers were computed, in milliseconds since the epoch
+     * @param personalCode Requested personal code
+     * @param productOffers The offers returned for the request
+     * @return A new AuditRecord of type {@link AuditRecordType#PRODUCT_OFFERS}
+     */
+    public static AuditRecord ofProductOffers(long timestamp, String personalCode, ProductOffers productOffers) {
+        Integer largestLoanAmount = null;
+        Integer longestLoanPeriod = null;
+        StringJoiner policyVersions = new StringJoiner(",");
+        for (Map.Entry<String, OfferCurve> product : productOffers.getOfferCurves().entrySet()) {
+            OfferCurve offerCurve = product.getValue();
+            List<Integer> loanAmounts = offerCurve.getLoanAmounts();
+            if (!loanAmounts.isEmpty()) {
+                largestLoanAmount = max(largestLoanAmount, loanAmounts.get(loanAmounts.size() - 1));
+                longestLoanPeriod = max(longestLoanPeriod, offerCurve.getMaximumLoanPeriod());
+            }
+            policyVersions.add(product.getKey() + "=" + offerCurve.getPolicyVersion());
+        }
+        return new AuditRecord(timestamp, AuditRecordType.PRODUCT_OFFERS, personalCode, null, 0,
+                productOffers.getStatus(), largestLoanAmount, longestLoanPeriod, policyVersions.toString());
+    }
+
+    private static Integer max(Integer current, int candidate) {
+        return current == null || candidate > current ? candidate : current;
+    }
+}
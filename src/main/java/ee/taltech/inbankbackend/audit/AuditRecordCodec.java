@@ -0,0 +1,150 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.DecisionStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Encodes audit records in their on-disk layout.
+ * Every record is framed by the length of its payload and a CRC32C checksum of the payload, so a reader can tell
+ * the zero-filled end of a segment and a record torn by a crash apart from complete records.
+ * The payload holds the timestamp, the status ordinal, a flags byte for the optional fields and the record type, the
+ * requested loan amount and period, the approved loan amount and period, the personal code in ISO-8859-1 with a
+ * one-byte length and the policy version in UTF-8 with a two-byte length. All numbers are big-endian. The record type
+ * takes the top bits of the flags byte, which are zero for loan decisions, so segments written before offer queries
+ * were audited read back unchanged.
+ */
+final class AuditRecordCodec {
+
+    static final int HEADER_SIZE = 4 + 4;
+    static final int MAX_RECORD_SIZE = HEADER_SIZE + 8 + 1 + 1 + 8 + 4 + 4 + 4 + 1 + 255 + 2 + 0xFFFF;
+
+    private static final int MAX_PERSONAL_CODE_LENGTH = 255;
+    private static final int HAS_PERSONAL_CODE = 1;
+    private static final int HAS_LOAN_AMOUNT = 2;
+    private static final int HAS_APPROVED_LOAN_AMOUNT = 4;
+    private static final int HAS_APPROVED_LOAN_PERIOD = 8;
+    private static final int HAS_POLICY_VERSION = 16;
+    private static final int TYPE_SHIFT = 5;
+    private static final DecisionStatus[] STATUSES = DecisionStatus.values();
+    private static final AuditRecordType[] TYPES = AuditRecordType.values();
+
+    private AuditRecordCodec() {
+    }
+
+    /**
+     * Appends a record at the position of the buffer.
+     *
+     * @param record The record to append
+     * @param buffer The buffer to append to, with at least {@link #MAX_RECORD_SIZE} bytes remaining
+     * @return The number of bytes written
+     */
+    static int encode(AuditRecord record, ByteBuffer buffer) {
+        byte[] personalCode = personalCodeBytes(record.personalCode());
+        byte[] policyVersion = policyVersionBytes(record.policyVersion());
+        int flags = (personalCode != null ? HAS_PERSONAL_CODE : 0)
+                | (record.loanAmount() != null ? HAS_LOAN_AMOUNT : 0)
+                | (record.approvedLoanAmount() != null ? HAS_APPROVED_LOAN_AMOUNT : 0)
+                | (record.approvedLoanPeriod() != null ? HAS_APPROVED_LOAN_PERIOD : 0)
+                | (policyVersion != null ? HAS_POLICY_VERSION : 0)
+                | record.type().ordinal() << TYPE_SHIFT;
+        int payloadLength = 8 + 1 + 1 + 8 + 4 + 4 + 4 + 1 + (personalCode != null ? personalCode.length : 0)
+                + 2 + (policyVersion != null ? policyVersion.length : 0);
+
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(record.timestamp());
+        buffer.put((byte) record.status().ordinal());
+        buffer.put((byte) flags);
+        buffer.putLong(record.loanAmount() != null ? record.loanAmount() : 0);
+        buffer.putInt(record.loanPeriod());
+        buffer.putInt(record.approvedLoanAmount() != null ? record.approvedLoanAmount() : 0);
+        buffer.putInt(record.approvedLoanPeriod() != null ? record.approvedLoanPeriod() : 0);
+        buffer.put((byte) (personalCode != null ? personalCode.length : 0));
+        if (personalCode != null) {
+            buffer.put(personalCode);
+        }
+        buffer.putShort((short) (policyVersion != null ? policyVersion.length : 0));
+        if (policyVersion != null) {
+            buffer.put(policyVersion);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_SIZE, payloadLength));
+        buffer.putInt(start, payloadLength);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return HEADER_SIZE + payloadLength;
+    }
+
+    /**
+     * Reads the record at the position of the buffer and advances the position past it.
+     *
+     * @param buffer The buffer to read from
+     * @return The record, or null if the buffer holds no complete record at its position, in which case the position
+     * is not changed
+     */
+    static AuditRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int payloadLength = buffer.getInt(start);
+        if (payloadLength <= 0 || payloadLength > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_SIZE, payloadLength));
+        if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+            return null;
+        }
+
+        ByteBuffer payload = buffer.slice(start + HEADER_SIZE, payloadLength);
+        long timestamp = payload.getLong();
+        DecisionStatus status = STATUSES[payload.get()];
+        int flags = Byte.toUnsignedInt(payload.get());
+        long loanAmount = payload.getLong();
+        int loanPeriod = payload.getInt();
+        int approvedLoanAmount = payload.getInt();
+        int approvedLoanPeriod = payload.getInt();
+        String personalCode = readString(payload, Byte.toUnsignedInt(payload.get()), StandardCharsets.ISO_8859_1);
+        String policyVersion = readString(payload, Short.toUnsignedInt(payload.getShort()), StandardCharsets.UTF_8);
+        buffer.position(start + HEADER_SIZE + payloadLength);
+
+        return new AuditRecord(timestamp, TYPES[flags >>> TYPE_SHIFT],
+                (flags & HAS_PERSONAL_CODE) != 0 ? personalCode : null,
+                (flags & HAS_LOAN_AMOUNT) != 0 ? loanAmount : null,
+                loanPeriod, status,
+                (flags & HAS_APPROVED_LOAN_AMOUNT) != 0 ? approvedLoanAmount : null,
+                (flags & HAS_APPROVED_LOAN_PERIOD) != 0 ? approvedLoanPeriod : null,
+                (flags & HAS_POLICY_VERSION) != 0 ? policyVersion : null);
+    }
+
+    private static byte[] personalCodeBytes(String personalCode) {
+        if (personalCode == null) {
+            return null;
+        }
+        String truncated = personalCode.length() > MAX_PERSONAL_CODE_LENGTH
+                ? personalCode.substring(0, MAX_PERSONAL_CODE_LENGTH) : personalCode;
+        return truncated.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] policyVersionBytes(String policyVersion) {
+        if (policyVersion == null) {
+            return null;
+        }
+        byte[] bytes = policyVersion.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Policy version longer than 65535 bytes");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, charset);
+    }
+}
@@ -0,0 +1,21 @@
+package ee.taltech.inbankbackend.audit;
+
+/**
+ * The kind of request an audit record was made for.
+ */
+public enum AuditRecordType {
+    /**
+     * A loan decision for a requested loan amount and period.
+     */
+    LOAN_DECISION,
+    /**
+     * A query for every loan the customer can get; the record holds the largest loan amount and the longest loan
+     * period offered.
+     */
+    OFFER_CURVE,
+    /**
+     * A query for every loan the customer can get from every credit product; the record holds the largest loan
+     * amount and the longest loan period offered by any product, and the policy version of every product.
+     */
+    PRODUCT_OFFERS
+}
@@ -0,0 +1,10 @@
+package ee.taltech.inbankbackend.audit;
+
+/**
+ * The outcome of replaying an audit log.
+ *
+ * @param records Number of loan decisions replayed
+ * @param divergences Number of records whose replayed decision differs from the logged one
+ */
+public record AuditReplaySummary(long records, long divergences) {
+}
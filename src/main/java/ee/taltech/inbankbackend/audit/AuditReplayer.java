@@ -0,0 +1,84 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-runs the loan decisions of an audit log through a DecisionEngine and reports every request whose decision now
+ * differs from the logged one in its status, loan amount or loan period. Offer queries are skipped.
+ * Replays are usually run against a different credit policy or engine version than the one that made the logged
+ * decisions, so the policy versions of both decisions are part of the report.
+ */
+public class AuditReplayer {
+
+    private final DecisionEngine decisionEngine;
+
+    public AuditReplayer(DecisionEngine decisionEngine) {
+        this.decisionEngine = decisionEngine;
+    }
+
+    /**
+     * @param directory Directory of the audit log segments
+     * @param report Receives one line per divergent decision
+     * @return Number of loan decisions replayed and of divergent decisions
+     * @throws IOException If the audit log cannot be read
+     */
+    public AuditReplaySummary replay(Path directory, PrintStream report) throws IOException {
+        AtomicLong records = new AtomicLong();
+        AtomicLong divergences = new AtomicLong();
+        AuditLogReader.read(directory, record -> {
+            if (record.type() != AuditRecordType.LOAN_DECISION) {
+                return;
+            }
+            records.incrementAndGet();
+            String replayed = replay(record);
+            if (replayed != null) {
+                divergences.incrementAndGet();
+                report.printf("%s %s %s %d: logged %s, replayed %s%n", Instant.ofEpochMilli(record.timestamp()),
+                        record.personalCode(), record.loanAmount(), record.loanPeriod(), describe(record), replayed);
+            }
+        });
+        return new AuditReplaySummary(records.get(), divergences.get());
+    }
+
+    /**
+     * @param record A logged decision
+     * @return A description of the replayed decision if it diverges, otherwise null
+     */
+    private String replay(AuditRecord record) {
+        Decision decision;
+        try {
+            decision = decisionEngine.calculateApprovedLoan(record.personalCode(), record.loanAmount(),
+                    record.loanPeriod());
+        } catch (CompletionException e) {
+            return "failure (" + e.getCause() + ")";
+        }
+
+        if (decision.getStatus() == record.status()
+                && Objects.equals(decision.getLoanAmount(), record.approvedLoanAmount())
+                && Objects.equals(decision.getLoanPeriod(), record.approvedLoanPeriod())) {
+            return null;
+        }
+        return describe(decision.getStatus().name(), decision.getLoanAmount(), decision.getLoanPeriod(),
+                decision.getPolicyVersion());
+    }
+
+    private static String describe(AuditRecord record) {
+        return describe(record.status().name(), record.approvedLoanAmount(), record.approvedLoanPeriod(),
+                record.policyVersion());
+    }
+
+    private static String describe(String status, Integer loanAmount, Integer loanPeriod, String policyVersion) {
+        return loanAmount != null
+                ? status + " " + loanAmount + "/" + loanPeriod + " (policy " + policyVersion + ")"
+                : status + " (policy " + policyVersion + ")";
+    }
+}
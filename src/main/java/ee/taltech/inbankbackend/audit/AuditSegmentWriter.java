@@ -0,0 +1,111 @@
+package ee.taltech.inbankbackend.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Appends audit records to memory-mapped segment files of a fixed size.
+ * Segments are named audit-NNNNNNNNNN.log with increasing numbers and are never modified once a newer segment
+ * exists; every writer starts a new segment after the newest one in the directory. A segment is created at its full
+ * size, so its unused end reads as zeros. Appended records only become durable on {@link #commit()}, which forces
+ * the bytes written since the previous commit to disk.
+ */
+final class AuditSegmentWriter implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-\\d{10}\\.log");
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int committedPosition;
+
+    /**
+     * @param directory Directory of the segment files; it is created if it does not exist
+     * @param segmentSize Size of a segment file in bytes
+     * @throws IOException If the first segment cannot be created
+     */
+    AuditSegmentWriter(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < AuditRecordCodec.MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + AuditRecordCodec.MAX_RECORD_SIZE
+                    + " bytes: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        this.segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+    }
+
+    /**
+     * Appends a record, starting a new segment if the current one might not have room for it.
+     *
+     * @param record The record to append
+     * @throws IOException If a new segment cannot be created
+     */
+    void append(AuditRecord record) throws IOException {
+        if (segment.remaining() < AuditRecordCodec.MAX_RECORD_SIZE) {
+            commit();
+            channel.close();
+            segmentNumber++;
+            openSegment();
+        }
+        AuditRecordCodec.encode(record, segment);
+    }
+
+    /**
+     * Forces the records appended since the previous commit to disk.
+     */
+    void commit() {
+        int position = segment.position();
+        if (position > committedPosition) {
+            segment.force(committedPosition, position - committedPosition);
+            committedPosition = position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit();
+        channel.close();
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        committedPosition = 0;
+    }
+
+    /**
+     * @param directory Directory of the segment files
+     * @return The segment files in the directory, oldest first
+     * @throws IOException If the directory cannot be listed
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
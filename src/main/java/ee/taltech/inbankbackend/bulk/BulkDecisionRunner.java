@@ -0,0 +1,338 @@
+package ee.taltech.inbankbackend.bulk;
+
+import ee.taltech.inbankbackend.request.DecisionRequestScanner;
+import ee.taltech.inbankbackend.request.MappedLines;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates a file of decision requests without going through HTTP.
+ * The input file is memory-mapped in chunks that end on line boundaries. Chunks are evaluated in parallel on a
+ * fork-join pool, and their results are written to the output file with a FileChannel in input order. Records are
+ * read straight from the mapped bytes, so no String is built per line apart from the personal code itself.
+ * Files ending in ".csv" are read as "personalCode,loanAmount,loanPeriod" lines (an optional header line is copied
+ * as "loanAmount,loanPeriod,errorMessage,policyVersion") and produce CSV output; any other file is read as JSONL and
+ * produces JSONL output with the same fields as the decision endpoint. Blank lines are skipped, every other line
+ * produces exactly one output line.
+ */
+public class BulkDecisionRunner {
+
+    private static final int CHUNK_SIZE = 32 << 20;
+    private static final int MAX_LINE_LENGTH = 64 << 10;
+    private static final String MALFORMED_REQUEST = "Malformed request!";
+    private static final byte[] CSV_HEADER =
+            "loanAmount,loanPeriod,errorMessage,policyVersion\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final DecisionEngine decisionEngine;
+    private final ForkJoinPool pool;
+
+    public BulkDecisionRunner(DecisionEngine decisionEngine, ForkJoinPool pool) {
+        this.decisionEngine = decisionEngine;
+        this.pool = pool;
+    }
+
+    /**
+     * Evaluates every request in the input file and writes the decisions to the output file.
+     *
+     * @param input JSONL or CSV file with one request per line
+     * @param output File to write the decisions to; it is created or truncated
+     * @return Number of records evaluated and the time it took
+     * @throws IOException If reading or writing fails, or if a line is longer than 64 KiB
+     */
+    public BulkDecisionSummary run(Path input, Path output) throws IOException {
+        boolean csv = input.getFileName().toString().toLowerCase().endsWith(".csv");
+        long started = System.nanoTime();
+        long records = 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            int maxInFlight = pool.getParallelism() * 2;
+            Deque<CompletableFuture<ChunkResult>> inFlight = new ArrayDeque<>(maxInFlight);
+            long chunkStart = 0;
+
+            try {
+                while (chunkStart < size) {
+                    long chunkEnd = MappedLines.chunkEnd(in, chunkStart, size, CHUNK_SIZE, MAX_LINE_LENGTH);
+                    if (inFlight.size() >= maxInFlight) {
+                        records += write(out, inFlight.removeFirst());
+                    }
+
+                    final long start = chunkStart;
+                    inFlight.addLast(CompletableFuture.supplyAsync(
+                            () -> evaluateChunk(in, start, chunkEnd, csv, start == 0), pool));
+                    chunkStart = chunkEnd;
+                }
+                while (!inFlight.isEmpty()) {
+                    records += write(out, inFlight.removeFirst());
+                }
+            } finally {
+                inFlight.forEach(future -> future.cancel(false));
+            }
+        }
+
+        return new BulkDecisionSummary(records, System.nanoTime() - started);
+    }
+
+    private ChunkResult evaluateChunk(FileChannel in, long start, long end, boolean csv, boolean firstChunk) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = MappedLines.map(in, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        DecisionRequestScanner scanner = new DecisionRequestScanner();
+        ByteSink sink = new ByteSink((int) Math.min(end - start, CHUNK_SIZE) / 2 + 64);
+        long records = 0;
+        int limit = buffer.limit();
+
+        for (int lineStart = 0; lineStart < limit; ) {
+            int lineEnd = MappedLines.lineEnd(buffer, lineStart);
+            if (!isBlank(buffer, lineStart, lineEnd)) {
+                if (csv && firstChunk && records == 0 && isCsvHeader(buffer, lineStart, lineEnd)) {
+                    sink.write(CSV_HEADER);
+                } else {
+                    evaluateLine(scanner, buffer, lineStart, lineEnd, csv, sink);
+                    records++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return new ChunkResult(sink.toByteBuffer(), records);
+    }
+
+    private void evaluateLine(DecisionRequestScanner scanner, ByteBuffer buffer, int start, int end, boolean csv,
+                              ByteSink sink) {
+        boolean scanned = csv ? scanner.scanCsv(buffer, start, end) : scanner.scanJson(buffer, start, end);
+        if (!scanned) {
+            writeDecision(sink, null, null, MALFORMED_REQUEST, null, csv);
+            return;
+        }
+
+        Decision decision;
+        try {
+            decision = decisionEngine.calculateApprovedLoan(scanner.getPersonalCode(),
+                    scanner.hasLoanAmount() ? scanner.getLoanAmount() : null, scanner.getLoanPeriod());
+        } catch (RuntimeException e) {
+            writeDecision(sink, null, null, "An unexpected error occurred", null, csv);
+            return;
+        }
+        writeDecision(sink, decision.getLoanAmount(), decision.getLoanPeriod(), decision.getErrorMessage(),
+                decision.getPolicyVersion(), csv);
+    }
+
+    private static void writeDecision(ByteSink sink, Integer loanAmount, Integer loanPeriod, String errorMessage,
+                                      String policyVersion, boolean csv) {
+        if (csv) {
+            sink.writeNumberOrEmpty(loanAmount);
+            sink.write(',');
+            sink.writeNumberOrEmpty(loanPeriod);
+            sink.write(',');
+            sink.writeCsvFieldOrEmpty(errorMessage);
+            sink.write(',');
+            sink.writeCsvFieldOrEmpty(policyVersion);
+        } else {
+            sink.writeAscii("{\"loanAmount\":");
+            sink.writeNumberOrNull(loanAmount);
+            sink.writeAscii(",\"loanPeriod\":");
+            sink.writeNumberOrNull(loanPeriod);
+            sink.writeAscii(",\"errorMessage\":");
+            sink.writeStringOrNull(errorMessage);
+            sink.writeAscii(",\"policyVersion\":");
+            sink.writeStringOrNull(policyVersion);
+            sink.write('}');
+        }
+        sink.write('\n');
+    }
+
+    private static long write(FileChannel out, CompletableFuture<ChunkResult> future) throws IOException {
+        ChunkResult result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw e;
+        }
+
+        ByteBuffer bytes = result.output();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        return result.records();
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCsvHeader(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != '"') {
+                return !(b >= '0' && b <= '9');
+            }
+        }
+        return false;
+    }
+
+    private record ChunkResult(ByteBuffer output, long records) {
+    }
+
+    /**
+     * A growable byte array that encodes decisions without intermediate Strings.
+     */
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int initialCapacity) {
+            bytes = new byte[initialCapacity];
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, size, source.length);
+            size += source.length;
+        }
+
+        void writeAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        void writeNumberOrNull(Integer value) {
+            if (value == null) {
+                writeAscii("null");
+            } else {
+                writeNumber(value);
+            }
+        }
+
+        void writeNumberOrEmpty(Integer value) {
+            if (value != null) {
+                writeNumber(value);
+            }
+        }
+
+        /**
+         * Writes a JSON string, or null. Policy versions come from configuration, so quotes, backslashes, control
+         * characters and non-ASCII characters are encoded.
+         */
+        void writeStringOrNull(String value) {
+            if (value == null) {
+                writeAscii("null");
+                return;
+            }
+            write('"');
+            if (isPlainAscii(value)) {
+                writeAscii(value);
+            } else {
+                for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                    if (b == '"' || b == '\\') {
+                        write('\\');
+                        write(b);
+                    } else if (b >= 0 && b < ' ') {
+                        writeAscii(String.format("\\u%04x", b));
+                    } else {
+                        write(b);
+                    }
+                }
+            }
+            write('"');
+        }
+
+        /**
+         * Writes a CSV field, quoted if it contains a separator, quote or line break, or nothing for null.
+         */
+        void writeCsvFieldOrEmpty(String value) {
+            if (value == null) {
+                return;
+            }
+            if (isPlainAscii(value) && value.indexOf(',') < 0) {
+                writeAscii(value);
+                return;
+            }
+            write('"');
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                if (b == '"') {
+                    write('"');
+                }
+                write(b);
+            }
+            write('"');
+        }
+
+        private void writeNumber(int value) {
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int digits = 1;
+            for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+
+        /**
+         * @return Whether the value consists of printable ASCII characters other than quotes and backslashes
+         */
+        private static boolean isPlainAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < ' ' || c > '~' || c == '"' || c == '\\') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ee.taltech.inbankbackend.bulk;
+
+/**
+ * Holds the outcome of an offline bulk decision run.
+ *
+ * @param records Number of records evaluated
+ * @param elapsedNanos Wall-clock time of the run in nanoseconds
+ */
+public record BulkDecisionSummary(long records, long elapsedNanos) {
+
+    /**
+     * @return Throughput of the run in records per second
+     */
+    public double recordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : records * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens the decision audit log. Auditing is enabled by setting decision-engine.audit.directory.
+ */
+@Configuration
+public class AuditConfiguration {
+
+    /**
+     * @param directory Directory of the audit log segments; empty to disable auditing
+     * @param segmentSize Size of a segment file
+     * @param bufferCapacity Number of records that can wait for the writer, a power of two
+     * @return The audit log
+     * @throws IOException If the first segment cannot be created
+     */
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(@Value("${decision-engine.audit.directory:}") String directory,
+                             @Value("${decision-engine.audit.segment-size:64MB}") DataSize segmentSize,
+                             @Value("${decision-engine.audit.buffer-capacity:65536}") int bufferCapacity)
+            throws IOException {
+        return directory.isBlank()
+                ? AuditLog.disabled()
+                : AuditLog.open(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), bufferCapacity);
+    }
+}
@@ -0,0 +1,153 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.credit.BulkheadCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.CircuitBreakingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.CoalescingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.CreditModifierProvider;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.credit.FaultInjectingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.HedgingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.StaleFallbackCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.TimeLimitedCreditModifierProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Assembles the credit modifier provider used by the decision engine.
+ * Lookups go through the local credit registry stand-in behind a bulkhead, are hedged once they take longer than
+ * usual, are limited by a per-call timeout and a circuit breaker, fall back to the last known segment of the
+ * customer and are coalesced per personal code. The stages are beans of their own so that their state can be
+ * published as metrics.
+ */
+@Configuration
+public class CreditModifierConfiguration {
+
+    /**
+     * The executor that runs blocking credit registry lookups: a virtual thread per lookup when virtual threads are
+     * enabled, otherwise a fixed pool of platform threads.
+     *
+     * @param virtualThreads Whether virtual threads are enabled
+     * @param threads Number of platform threads when virtual threads are disabled
+     * @return The credit registry executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService creditRegistryExecutor(
+            @Value("${decision-engine.virtual-threads.enabled:false}") boolean virtualThreads,
+            @Value("${decision-engine.credit-registry.threads:200}") int threads) {
+        return virtualThreads
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * The credit registry behind a bulkhead. The registry is the local stand-in, with faults injected into it when a
+     * failure or slow rate is configured.
+     *
+     * @param registryFile Optional properties file with segment overrides for the local registry stand-in
+     * @param latency Artificial latency of the local registry stand-in
+     * @param blocking Whether the stand-in blocks a registry executor thread for the latency
+     * @param failureRate Fraction of lookups the stand-in fails
+     * @param slowRate Fraction of lookups the stand-in slows down
+     * @param slowLatency Latency added to slow lookups
+     * @param faultSeed Seed of the injected fault sequence
+     * @param maximumConcurrentLookups Maximum number of registry lookups in flight
+     * @param creditRegistryExecutor Executor that runs blocking lookups
+     * @return The isolated credit registry
+     * @throws IOException If the registry file cannot be read
+     */
+    @Bean
+    public BulkheadCreditModifierProvider creditRegistryBulkhead(
+            @Value("${decision-engine.credit-registry.file:}") String registryFile,
+            @Value("${decision-engine.credit-registry.latency:0ms}") Duration latency,
+            @Value("${decision-engine.credit-registry.blocking:false}") boolean blocking,
+            @Value("${decision-engine.credit-registry.faults.failure-rate:0}") double failureRate,
+            @Value("${decision-engine.credit-registry.faults.slow-rate:0}") double slowRate,
+            @Value("${decision-engine.credit-registry.faults.slow-latency:1s}") Duration slowLatency,
+            @Value("${decision-engine.credit-registry.faults.seed:0}") long faultSeed,
+            @Value("${decision-engine.credit-registry.bulkhead.maximum-concurrent-lookups:500}")
+            int maximumConcurrentLookups,
+            @Qualifier("creditRegistryExecutor") ExecutorService creditRegistryExecutor) throws IOException {
+        Map<String, CreditSegment> overrides = registryFile.isBlank()
+                ? Map.of() : LocalCreditModifierProvider.readOverrides(Path.of(registryFile));
+        CreditModifierProvider registry = blocking
+                ? new LocalCreditModifierProvider(overrides, latency, creditRegistryExecutor)
+                : new LocalCreditModifierProvider(overrides, latency);
+        if (failureRate > 0 || slowRate > 0) {
+            registry = new FaultInjectingCreditModifierProvider(registry, failureRate, slowRate, slowLatency,
+                    faultSeed);
+        }
+        return new BulkheadCreditModifierProvider(registry, maximumConcurrentLookups);
+    }
+
+    /**
+     * @param bulkhead The isolated credit registry
+     * @param percentile Latency percentile after which a lookup is hedged
+     * @param maximumHedgeRatio Maximum number of hedged lookups per lookup; 0 disables hedging
+     * @return The hedged credit registry
+     */
+    @Bean
+    public HedgingCreditModifierProvider creditRegistryHedging(
+            BulkheadCreditModifierProvider bulkhead,
+            @Value("${decision-engine.credit-registry.hedging.percentile:0.95}") double percentile,
+            @Value("${decision-engine.credit-registry.hedging.maximum-ratio:0.1}") double maximumHedgeRatio) {
+        return new HedgingCreditModifierProvider(bulkhead, percentile, maximumHedgeRatio);
+    }
+
+    /**
+     * @param hedging The hedged credit registry
+     * @param timeout Maximum duration of a lookup, including its hedge
+     * @param failureRateThreshold Fraction of failed lookups that opens the circuit
+     * @param minimumLookups Minimum number of lookups in a window before the circuit can open
+     * @param window Duration of a counting window
+     * @param openDuration Time the circuit stays open before a trial lookup
+     * @return The time-limited credit registry behind a circuit breaker
+     */
+    @Bean
+    public CircuitBreakingCreditModifierProvider creditRegistryCircuitBreaker(
+            HedgingCreditModifierProvider hedging,
+            @Value("${decision-engine.credit-registry.timeout:1s}") Duration timeout,
+            @Value("${decision-engine.credit-registry.circuit-breaker.failure-rate:0.5}") double failureRateThreshold,
+            @Value("${decision-engine.credit-registry.circuit-breaker.minimum-lookups:20}") int minimumLookups,
+            @Value("${decision-engine.credit-registry.circuit-breaker.window:10s}") Duration window,
+            @Value("${decision-engine.credit-registry.circuit-breaker.open-duration:5s}") Duration openDuration) {
+        return new CircuitBreakingCreditModifierProvider(new TimeLimitedCreditModifierProvider(hedging, timeout),
+                failureRateThreshold, minimumLookups, window, openDuration);
+    }
+
+    /**
+     * @param circuitBreaker The credit registry behind its circuit breaker
+     * @param fallbackSegment Segment used when a lookup fails and no segment is remembered for the customer; empty to
+     *                        fail the decision instead
+     * @param maximumSize Maximum number of remembered segments
+     * @return The credit registry with a fallback to the last known segments
+     */
+    @Bean
+    public StaleFallbackCreditModifierProvider creditRegistryStaleFallback(
+            CircuitBreakingCreditModifierProvider circuitBreaker,
+            @Value("${decision-engine.credit-registry.fallback-segment:}") String fallbackSegment,
+            @Value("${decision-engine.credit-registry.stale.maximum-size:100000}") int maximumSize) {
+        CreditSegment fallback = fallbackSegment.isBlank() ? null : CreditSegment.valueOf(fallbackSegment.trim());
+        return new StaleFallbackCreditModifierProvider(circuitBreaker, fallback, maximumSize);
+    }
+
+    /**
+     * @param staleFallback The resilient credit registry
+     * @return The credit modifier provider used by the decision engine
+     */
+    @Bean
+    @Primary
+    public CreditModifierProvider creditModifierProvider(StaleFallbackCreditModifierProvider staleFallback) {
+        return new CoalescingCreditModifierProvider(staleFallback);
+    }
+}
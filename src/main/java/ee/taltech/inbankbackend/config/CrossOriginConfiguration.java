@@ -0,0 +1,66 @@
+package ee.taltech.inbankbackend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.filter.CorsFilter;
+
+/**
+ * Applies the cross-origin policy of the loan endpoints in a filter, ahead of load shedding and prevalidation.
+ * {@code @CrossOrigin} on the controllers is only evaluated by the handler mapping, so responses that those filters
+ * write themselves, such as a rejected personal code or a shed request, would otherwise lack the CORS headers and be
+ * unreadable to a browser frontend on another origin. The policy is the one {@code @CrossOrigin} applies by default.
+ */
+@Configuration
+public class CrossOriginConfiguration {
+
+    private static final String PATH_PREFIX = "/loan/";
+
+    /**
+     * CORS runs right after the HTTP observation filter and before every filter that may answer a request itself.
+     */
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+
+    private static CorsConfiguration corsConfiguration() {
+        return new CorsConfiguration().applyPermitDefaultValues();
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        /**
+         * @return The registration of the CORS filter for the loan endpoints
+         */
+        @Bean
+        public FilterRegistrationBean<CorsFilter> corsFilter() {
+            CorsConfiguration configuration = corsConfiguration();
+            FilterRegistrationBean<CorsFilter> registration =
+                    new FilterRegistrationBean<>(new CorsFilter(request -> configuration));
+            registration.addUrlPatterns(PATH_PREFIX + "*");
+            registration.setOrder(ORDER);
+            return registration;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        /**
+         * @return The CORS filter for the loan endpoints, picked up by the WebFlux handler chain
+         */
+        @Bean
+        @Order(ORDER)
+        public CorsWebFilter corsWebFilter() {
+            CorsConfiguration configuration = corsConfiguration();
+            return new CorsWebFilter(exchange ->
+                    exchange.getRequest().getPath().value().startsWith(PATH_PREFIX) ? configuration : null);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Creates the store that deduplicates decision requests retried with the same idempotency key.
+ */
+@Configuration
+public class IdempotencyConfiguration {
+
+    /**
+     * @param maximumSize Maximum number of idempotency keys remembered; 0 disables deduplication
+     * @param window Time for which an idempotency key is remembered after its first request
+     * @return The idempotency store
+     */
+    @Bean
+    public IdempotencyStore idempotencyStore(
+            @Value("${decision-engine.idempotency.maximum-size:100000}") int maximumSize,
+            @Value("${decision-engine.idempotency.window:10m}") Duration window) {
+        return new IdempotencyStore(maximumSize, window);
+    }
+}
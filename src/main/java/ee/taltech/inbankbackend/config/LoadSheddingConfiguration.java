@@ -0,0 +1,98 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.limit.AdaptiveConcurrencyLimiter;
+import ee.taltech.inbankbackend.limit.ClientRateLimiter;
+import ee.taltech.inbankbackend.limit.LoadSheddingFilter;
+import ee.taltech.inbankbackend.limit.ReactiveLoadSheddingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import java.util.Set;
+
+/**
+ * Sheds load in front of the single-decision, offer curve and product offers endpoints with a per-client rate limit
+ * and an adaptive concurrency limit. The batch endpoint is left out: a batch is one long request whose pace is
+ * already bounded by decision-engine.batch.max-in-flight.
+ */
+@Configuration
+public class LoadSheddingConfiguration {
+
+    private static final Set<String> PATHS = Set.of("/loan/decision", "/loan/offers", "/loan/products/offers");
+
+    /**
+     * Shedding runs right after the HTTP observation and CORS filters, so rejected requests still appear in the
+     * http.server.requests metrics and carry the CORS headers.
+     */
+    static final int ORDER = CrossOriginConfiguration.ORDER + 1;
+
+    /**
+     * @param requestsPerSecond Sustained rate per client; 0 disables rate limiting
+     * @param burst Number of requests a client may send at once after being idle
+     * @param maximumClients Maximum number of clients with their own rate limit
+     * @return The per-client rate limiter
+     */
+    @Bean
+    public ClientRateLimiter clientRateLimiter(
+            @Value("${decision-engine.rate-limit.requests-per-second:0}") double requestsPerSecond,
+            @Value("${decision-engine.rate-limit.burst:50}") int burst,
+            @Value("${decision-engine.rate-limit.maximum-clients:10000}") int maximumClients) {
+        return new ClientRateLimiter(requestsPerSecond, burst, maximumClients);
+    }
+
+    /**
+     * @param initialLimit Concurrency limit to start with
+     * @param minimumLimit Lowest concurrency limit
+     * @param maximumLimit Highest concurrency limit; 0 disables concurrency limiting
+     * @param latencyTolerance Factor by which latency may grow before the limit is lowered
+     * @return The adaptive concurrency limiter
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(
+            @Value("${decision-engine.concurrency-limit.initial:200}") int initialLimit,
+            @Value("${decision-engine.concurrency-limit.minimum:50}") int minimumLimit,
+            @Value("${decision-engine.concurrency-limit.maximum:2000}") int maximumLimit,
+            @Value("${decision-engine.concurrency-limit.latency-tolerance:2.0}") double latencyTolerance) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minimumLimit, maximumLimit, latencyTolerance);
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        /**
+         * @param rateLimiter The per-client rate limiter
+         * @param concurrencyLimiter The adaptive concurrency limiter
+         * @return The registration of the load shedding filter for the limited endpoints
+         */
+        @Bean
+        public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+                ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            FilterRegistrationBean<LoadSheddingFilter> registration =
+                    new FilterRegistrationBean<>(new LoadSheddingFilter(rateLimiter, concurrencyLimiter));
+            registration.setUrlPatterns(PATHS);
+            registration.setOrder(ORDER);
+            return registration;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        /**
+         * @param rateLimiter The per-client rate limiter
+         * @param concurrencyLimiter The adaptive concurrency limiter
+         * @return The load shedding filter, picked up by the WebFlux handler chain
+         */
+        @Bean
+        @Order(ORDER)
+        public ReactiveLoadSheddingFilter reactiveLoadSheddingFilter(
+                ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            return new ReactiveLoadSheddingFilter(rateLimiter, concurrencyLimiter, PATHS);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.BulkheadCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.CircuitBreakingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.HedgingCreditModifierProvider;
+import ee.taltech.inbankbackend.credit.StaleFallbackCreditModifierProvider;
+import ee.taltech.inbankbackend.idempotency.IdempotencyStore;
+import ee.taltech.inbankbackend.limit.AdaptiveConcurrencyLimiter;
+import ee.taltech.inbankbackend.limit.ClientRateLimiter;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the statistics of the decision cache, the audit log, the load shedding limiters, the credit registry
+ * resilience stages and the idempotency store as metrics.
+ * The counters are read from the components when the metrics are scraped, so the components stay unaware of them.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * @param decisionCache The decision cache
+     * @return A binder that registers the cache hit, miss and eviction counts and the cache size
+     */
+    @Bean
+    public MeterBinder decisionCacheMetrics(DecisionCache decisionCache) {
+        return registry -> {
+            FunctionCounter.builder("decision.cache.requests", decisionCache, DecisionCache::getHitCount)
+                    .description("Decision cache lookups")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("decision.cache.requests", decisionCache, DecisionCache::getMissCount)
+                    .description("Decision cache lookups")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("decision.cache.evictions", decisionCache, DecisionCache::getEvictionCount)
+                    .description("Decisions evicted from the cache because it was full")
+                    .register(registry);
+            Gauge.builder("decision.cache.size", decisionCache, DecisionCache::size)
+                    .description("Number of decisions in the cache")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param auditLog The audit log
+     * @return A binder that registers the number of audit records written and dropped
+     */
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            FunctionCounter.builder("decision.audit.records", auditLog, AuditLog::getWrittenCount)
+                    .description("Decisions recorded in the audit log")
+                    .tag("result", "written")
+                    .register(registry);
+            FunctionCounter.builder("decision.audit.records", auditLog, AuditLog::getDroppedCount)
+                    .description("Decisions recorded in the audit log")
+                    .tag("result", "dropped")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param idempotencyStore The idempotency store
+     * @return A binder that registers the number of requests with an idempotency key by whether they were decided,
+     * replayed or rejected as a conflict, the keys evicted early and the number of keys held
+     */
+    @Bean
+    public MeterBinder idempotencyMetrics(IdempotencyStore idempotencyStore) {
+        return registry -> {
+            FunctionCounter.builder("decision.idempotency.requests", idempotencyStore,
+                            IdempotencyStore::getFirstRequestCount)
+                    .description("Decision requests with an idempotency key")
+                    .tag("result", "decided")
+                    .register(registry);
+            FunctionCounter.builder("decision.idempotency.requests", idempotencyStore,
+                            IdempotencyStore::getReplayCount)
+                    .description("Decision requests with an idempotency key")
+                    .tag("result", "replayed")
+                    .register(registry);
+            FunctionCounter.builder("decision.idempotency.requests", idempotencyStore,
+                            IdempotencyStore::getConflictCount)
+                    .description("Decision requests with an idempotency key")
+                    .tag("result", "conflict")
+                    .register(registry);
+            FunctionCounter.builder("decision.idempotency.evictions", idempotencyStore,
+                            IdempotencyStore::getEvictionCount)
+                    .description("Idempotency keys evicted before their window ended because the store was full")
+                    .register(registry);
+            Gauge.builder("decision.idempotency.keys", idempotencyStore, IdempotencyStore::size)
+                    .description("Number of idempotency keys in the store")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param rateLimiter The per-client rate limiter
+     * @param concurrencyLimiter The adaptive concurrency limiter
+     * @return A binder that registers the number of requests admitted and shed, the current concurrency limit,
+     * the requests in flight and the number of rate-limited clients
+     */
+    @Bean
+    public MeterBinder loadSheddingMetrics(ClientRateLimiter rateLimiter,
+                                           AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return registry -> {
+            FunctionCounter.builder("decision.admission.requests", concurrencyLimiter,
+                            AdaptiveConcurrencyLimiter::getAdmittedCount)
+                    .description("Requests to the decision endpoints by admission result")
+                    .tag("result", "admitted")
+                    .register(registry);
+            FunctionCounter.builder("decision.admission.requests", rateLimiter, ClientRateLimiter::getRejectedCount)
+                    .description("Requests to the decision endpoints by admission result")
+                    .tag("result", "rate_limited")
+                    .register(registry);
+            FunctionCounter.builder("decision.admission.requests", concurrencyLimiter,
+                            AdaptiveConcurrencyLimiter::getRejectedCount)
+                    .description("Requests to the decision endpoints by admission result")
+                    .tag("result", "overloaded")
+                    .register(registry);
+            Gauge.builder("decision.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit of the decision endpoints")
+                    .register(registry);
+            Gauge.builder("decision.concurrency.in.flight", concurrencyLimiter,
+                            AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests to the decision endpoints in flight")
+                    .register(registry);
+            Gauge.builder("decision.rate.limit.clients", rateLimiter, ClientRateLimiter::getClientCount)
+                    .description("Clients with their own rate limit bucket")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param bulkhead The credit registry bulkhead
+     * @param hedging The credit registry hedging stage
+     * @param circuitBreaker The credit registry circuit breaker
+     * @param staleFallback The credit registry fallback stage
+     * @return A binder that registers the hedged lookups, the hedging delay, rejected lookups, the state of the
+     * circuit breaker and the failed lookups answered by a fallback
+     */
+    @Bean
+    public MeterBinder creditRegistryMetrics(BulkheadCreditModifierProvider bulkhead,
+                                             HedgingCreditModifierProvider hedging,
+                                             CircuitBreakingCreditModifierProvider circuitBreaker,
+                                             StaleFallbackCreditModifierProvider staleFallback) {
+        return registry -> {
+            FunctionCounter.builder("decision.credit.registry.hedges", hedging,
+                            HedgingCreditModifierProvider::getHedgeCount)
+                    .description("Hedged credit registry lookups")
+                    .tag("result", "sent")
+                    .register(registry);
+            FunctionCounter.builder("decision.credit.registry.hedges", hedging,
+                            HedgingCreditModifierProvider::getHedgeWinCount)
+                    .description("Hedged credit registry lookups")
+                    .tag("result", "won")
+                    .register(registry);
+            TimeGauge.builder("decision.credit.registry.hedge.delay", hedging, TimeUnit.NANOSECONDS,
+                            HedgingCreditModifierProvider::getHedgeDelayNanos)
+                    .description("Latency after which a credit registry lookup is hedged, negative while not hedging")
+                    .register(registry);
+            FunctionCounter.builder("decision.credit.registry.rejected", bulkhead,
+                            BulkheadCreditModifierProvider::getRejectedCount)
+                    .description("Credit registry lookups rejected without being sent")
+                    .tag("reason", "bulkhead")
+                    .register(registry);
+            FunctionCounter.builder("decision.credit.registry.rejected", circuitBreaker,
+                            CircuitBreakingCreditModifierProvider::getRejectedCount)
+                    .description("Credit registry lookups rejected without being sent")
+                    .tag("reason", "circuit_open")
+                    .register(registry);
+            Gauge.builder("decision.credit.registry.in.flight", bulkhead,
+                            BulkheadCreditModifierProvider::getInFlightCount)
+                    .description("Credit registry lookups in flight")
+                    .register(registry);
+            Gauge.builder("decision.credit.registry.circuit.state", circuitBreaker,
+                            breaker -> breaker.getState().ordinal())
+                    .description("State of the credit registry circuit breaker: 0 closed, 1 open, 2 half open")
+                    .register(registry);
+            FunctionCounter.builder("decision.credit.registry.fallbacks", staleFallback,
+                            StaleFallbackCreditModifierProvider::getStaleCount)
+                    .description("Failed credit registry lookups answered by a fallback")
+                    .tag("source", "stale")
+                    .register(registry);
+            FunctionCounter.builder("decision.credit.registry.fallbacks", staleFallback,
+                            StaleFallbackCreditModifierProvider::getFallbackCount)
+                    .description("Failed credit registry lookups answered by a fallback")
+                    .tag("source", "fallback_segment")
+                    .register(registry);
+        };
+    }
+}
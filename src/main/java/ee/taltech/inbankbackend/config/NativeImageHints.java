@@ -0,0 +1,45 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.endpoint.BatchDecisionResponse;
+import ee.taltech.inbankbackend.endpoint.DecisionRequest;
+import ee.taltech.inbankbackend.endpoint.DecisionResponse;
+import ee.taltech.inbankbackend.endpoint.OfferCurveRequest;
+import ee.taltech.inbankbackend.endpoint.OfferCurveResponse;
+import ee.taltech.inbankbackend.endpoint.ProductOffersResponse;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.BindingReflectionHintsRegistrar;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Reachability metadata for the parts of the application that Spring AOT cannot find on its own when building a
+ * native image: the JSON types that are bound outside of a controller method signature, the Lombok-generated
+ * constructor and getters of {@link DecisionRequest}, the bundled credit policy and product catalog and the
+ * reflective lookup of the virtual thread executor factory.
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // The batch endpoint also reads and writes these through its own ObjectReader and ObjectWriter
+        bindingRegistrar.registerReflectionHints(hints.reflection(), DecisionRequest.class, DecisionResponse.class,
+                BatchDecisionResponse.class, OfferCurveRequest.class, OfferCurveResponse.class,
+                ProductOffersResponse.class, CreditSegment.class);
+        // The policy documents are private records read by the reader's own ObjectMapper
+        bindingRegistrar.registerReflectionHints(hints.reflection(), CreditPolicyReader.class.getDeclaredClasses());
+
+        hints.resources().registerPattern(CreditPolicyReader.BUNDLED_POLICY.substring(1));
+        hints.resources().registerPattern(CreditPolicyReader.BUNDLED_PRODUCTS.substring(1));
+
+        // Only present when the image is built with Java 21 or later; the hint is ignored otherwise
+        hints.reflection().registerType(Executors.class, type -> type.withMethod("newVirtualThreadPerTaskExecutor",
+                List.of(), ExecutableMode.INVOKE));
+    }
+}
@@ -0,0 +1,42 @@
+package ee.taltech.inbankbackend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.endpoint.DecisionPrevalidationFilter;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Validates single-decision requests on the servlet stack before their body is bound, enabled unless
+ * decision-engine.prevalidation.enabled is false. The reactive stack decodes the body without blocking and binds it
+ * as before.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "decision-engine.prevalidation", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class PrevalidationConfiguration {
+
+    /**
+     * Prevalidation runs right after load shedding, so a shed request is not read at all.
+     */
+    private static final int ORDER = LoadSheddingConfiguration.ORDER + 1;
+
+    /**
+     * @param decisionEngine The decision engine that validates the requests
+     * @param objectMapper The object mapper of the message converters
+     * @return The registration of the prevalidation filter for the single-decision endpoint
+     */
+    @Bean
+    public FilterRegistrationBean<DecisionPrevalidationFilter> decisionPrevalidationFilter(
+            DecisionEngine decisionEngine, ObjectMapper objectMapper) {
+        FilterRegistrationBean<DecisionPrevalidationFilter> registration =
+                new FilterRegistrationBean<>(new DecisionPrevalidationFilter(decisionEngine, objectMapper));
+        registration.addUrlPatterns("/loan/decision");
+        registration.setOrder(ORDER);
+        return registration;
+    }
+}
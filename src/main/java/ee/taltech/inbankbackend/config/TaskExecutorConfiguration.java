@@ -0,0 +1,30 @@
+package ee.taltech.inbankbackend.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Defines the application task executor that Spring MVC runs asynchronous requests on, such as the streamed batch
+ * decisions. Spring Boot only creates it when the context holds no other Executor, and the credit registry and
+ * virtual thread request executors are Executors; without it Spring MVC would start a new thread per asynchronous
+ * request. The pool is configured with the usual spring.task.execution properties.
+ */
+@Configuration
+public class TaskExecutorConfiguration {
+
+    /**
+     * @param builder The task executor builder configured from the spring.task.execution properties
+     * @return The application task executor
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,26 @@
+package ee.taltech.inbankbackend.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Stops the application as soon as it is ready to serve requests. Enabled with decision-engine.training-run=true,
+ * which the cdsArchive build task uses to record the classes loaded during startup into a class data sharing archive
+ * when the JVM exits. Only available on the JVM: a native image fixes its beans at build time.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "decision-engine", name = "training-run", havingValue = "true")
+public class TrainingRunConfiguration {
+
+    /**
+     * @return A listener that closes the application context and exits once the application is ready
+     */
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> trainingRunExit() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,44 @@
+package ee.taltech.inbankbackend.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs request handling on virtual threads instead of the Tomcat platform-thread pool.
+ * Enabled with decision-engine.virtual-threads.enabled=true, which requires Java 21 or later. A request thread that
+ * blocks on a credit registry lookup then only parks a virtual thread, so concurrency is no longer capped by
+ * server.tomcat.threads.max.
+ */
+@Configuration
+@ConditionalOnClass(ProtocolHandler.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "decision-engine.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * @return The executor Tomcat dispatches requests to
+     * @throws IllegalStateException If the running JVM does not support virtual threads
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * @param requestExecutor The virtual thread executor
+     * @return A customizer that makes Tomcat use the virtual thread executor
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            @Qualifier("requestExecutor") ExecutorService requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+}
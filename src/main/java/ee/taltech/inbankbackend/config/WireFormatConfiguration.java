@@ -0,0 +1,48 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.endpoint.DecisionWireFormat;
+import ee.taltech.inbankbackend.endpoint.DecisionWireFormatDecoder;
+import ee.taltech.inbankbackend.endpoint.DecisionWireFormatEncoder;
+import ee.taltech.inbankbackend.endpoint.DecisionWireFormatHttpMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link DecisionWireFormat} with the servlet or the reactive stack, whichever the application runs on.
+ * The decision endpoints list JSON first among the formats they produce, so JSON stays the default for clients
+ * that do not ask for the binary format.
+ */
+@Configuration
+public class WireFormatConfiguration {
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        /**
+         * @return The message converter, picked up by the HTTP message converter auto-configuration
+         */
+        @Bean
+        public DecisionWireFormatHttpMessageConverter decisionWireFormatHttpMessageConverter() {
+            return new DecisionWireFormatHttpMessageConverter();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        /**
+         * @return A customizer that registers the decoder and encoder with the WebFlux codecs
+         */
+        @Bean
+        public CodecCustomizer decisionWireFormatCodecCustomizer() {
+            return configurer -> {
+                configurer.customCodecs().register(new DecisionWireFormatDecoder());
+                configurer.customCodecs().register(new DecisionWireFormatEncoder());
+            };
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of lookups in flight to the wrapped provider.
+ * A lookup beyond the cap fails immediately with a RejectedExecutionException instead of queueing, so a stalled
+ * registry can tie up at most that many lookups and never the threads or memory of the rest of the service.
+ */
+public class BulkheadCreditModifierProvider implements CreditModifierProvider {
+
+    private final CreditModifierProvider delegate;
+    private final int maximumConcurrentLookups;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param delegate The provider to isolate
+     * @param maximumConcurrentLookups Maximum number of lookups in flight
+     */
+    public BulkheadCreditModifierProvider(CreditModifierProvider delegate, int maximumConcurrentLookups) {
+        if (maximumConcurrentLookups < 1) {
+            throw new IllegalArgumentException("Bulkhead must allow at least one lookup: " + maximumConcurrentLookups);
+        }
+        this.delegate = delegate;
+        this.maximumConcurrentLookups = maximumConcurrentLookups;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maximumConcurrentLookups) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Too many credit registry lookups in flight"));
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        CompletableFuture<CreditSegment> lookup;
+        try {
+            lookup = delegate.getCreditSegment(personalCode);
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        lookup.whenComplete((segment, error) -> inFlight.decrementAndGet());
+        return lookup;
+    }
+
+    /**
+     * @return The number of lookups in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The number of lookups rejected because the bulkhead was full
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
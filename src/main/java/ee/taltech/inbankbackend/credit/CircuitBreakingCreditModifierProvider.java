@@ -0,0 +1,145 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops sending lookups to the wrapped provider while most of them fail.
+ * While the circuit is closed, lookups and failures are counted in fixed windows; once at least minimumLookups
+ * lookups in a window have completed and the failure rate reaches the threshold, the circuit opens. An open circuit
+ * fails every lookup immediately with a RejectedExecutionException. After the open duration a single trial lookup
+ * is let through: if it succeeds the circuit closes, otherwise it opens again.
+ */
+public class CircuitBreakingCreditModifierProvider implements CreditModifierProvider {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final State[] STATES = State.values();
+
+    private final CreditModifierProvider delegate;
+    private final double failureRateThreshold;
+    private final int minimumLookups;
+    private final long windowNanos;
+    private final long openNanos;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder windowLookups = new LongAdder();
+    private final LongAdder windowFailures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long openedAt;
+
+    /**
+     * @param delegate The provider to protect
+     * @param failureRateThreshold Fraction of failed lookups in a window that opens the circuit
+     * @param minimumLookups Minimum number of lookups in a window before the failure rate is evaluated
+     * @param window Duration of a counting window
+     * @param openDuration Time the circuit stays open before a trial lookup
+     */
+    public CircuitBreakingCreditModifierProvider(CreditModifierProvider delegate, double failureRateThreshold,
+                                                 int minimumLookups, Duration window, Duration openDuration) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || minimumLookups < 1) {
+            throw new IllegalArgumentException("Invalid failure rate threshold " + failureRateThreshold
+                    + " or minimum lookups " + minimumLookups);
+        }
+        this.delegate = delegate;
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumLookups = minimumLookups;
+        this.windowNanos = window.toNanos();
+        this.openNanos = openDuration.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        boolean trial = false;
+        int current = state.get();
+        if (current != State.CLOSED.ordinal()) {
+            trial = current == State.OPEN.ordinal() && System.nanoTime() - openedAt >= openNanos
+                    && state.compareAndSet(current, State.HALF_OPEN.ordinal());
+            if (!trial) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Credit registry circuit breaker is open"));
+            }
+        }
+
+        CompletableFuture<CreditSegment> lookup;
+        try {
+            lookup = delegate.getCreditSegment(personalCode);
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        boolean trialLookup = trial;
+        lookup.whenComplete((segment, error) -> {
+            if (trialLookup) {
+                completeTrial(error == null);
+            } else {
+                count(error == null);
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * @return The current state of the circuit
+     */
+    public State getState() {
+        return STATES[state.get()];
+    }
+
+    /**
+     * @return The number of lookups rejected because the circuit was open
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void count(boolean success) {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            windowLookups.reset();
+            windowFailures.reset();
+        }
+        windowLookups.increment();
+        if (success) {
+            return;
+        }
+        windowFailures.increment();
+        long lookups = windowLookups.sum();
+        if (lookups >= minimumLookups && windowFailures.sum() >= failureRateThreshold * lookups) {
+            open(State.CLOSED, now);
+        }
+    }
+
+    private void completeTrial(boolean success) {
+        if (success) {
+            windowLookups.reset();
+            windowFailures.reset();
+            windowStart.set(System.nanoTime());
+            state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal());
+        } else {
+            open(State.HALF_OPEN, System.nanoTime());
+        }
+    }
+
+    /**
+     * Opens the circuit if it is still in the given state. Lookups that started before the circuit opened may fail
+     * after it did; they find it open already and leave the open period alone.
+     */
+    private synchronized void open(State from, long now) {
+        // Only open() leaves CLOSED, and only the single trial leaves HALF_OPEN, so the check cannot go stale here;
+        // openedAt is written before the state so that a lookup seeing the open circuit also sees when it opened.
+        if (state.get() == from.ordinal()) {
+            openedAt = now;
+            state.set(State.OPEN.ordinal());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent lookups of the same personal code into a single call to the wrapped provider.
+ * A lookup that arrives while another one for the same code is in flight shares its result. Completed lookups are
+ * not remembered; caching results is left to the decision cache.
+ */
+public class CoalescingCreditModifierProvider implements CreditModifierProvider {
+
+    private final CreditModifierProvider delegate;
+    private final ConcurrentMap<String, CompletableFuture<CreditLookup>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingCreditModifierProvider(CreditModifierProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        return lookup(personalCode).thenApply(CreditLookup::segment);
+    }
+
+    @Override
+    public CompletableFuture<CreditLookup> lookup(String personalCode) {
+        CompletableFuture<CreditLookup> lookup = inFlight.get(personalCode);
+        if (lookup != null) {
+            return lookup.copy();
+        }
+
+        CompletableFuture<CreditLookup> created = new CompletableFuture<>();
+        lookup = inFlight.putIfAbsent(personalCode, created);
+        if (lookup != null) {
+            return lookup.copy();
+        }
+
+        CompletableFuture<CreditLookup> delegated;
+        try {
+            delegated = delegate.lookup(personalCode);
+        } catch (RuntimeException e) {
+            delegated = CompletableFuture.failedFuture(e);
+        }
+        delegated.whenComplete((result, error) -> {
+            inFlight.remove(personalCode, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(result);
+            }
+        });
+        return created.copy();
+    }
+
+    /**
+     * @return Number of distinct personal codes whose lookups are currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
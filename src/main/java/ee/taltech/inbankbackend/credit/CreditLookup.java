@@ -0,0 +1,38 @@
+package ee.taltech.inbankbackend.credit;
+
+/**
+ * The credit segment of a customer together with whether it is degraded, i.e. a stale or fallback segment served
+ * because the credit registry could not be reached. A degraded segment is good enough to decide a request with, but
+ * decisions built from it must not be cached, so that customers get a fresh decision once the registry recovers.
+ *
+ * @param segment The credit segment of the customer
+ * @param degraded Whether the segment was served in place of a failed lookup
+ */
+public record CreditLookup(CreditSegment segment, boolean degraded) {
+
+    private static final CreditLookup[] FOUND = new CreditLookup[CreditSegment.values().length];
+    private static final CreditLookup[] DEGRADED = new CreditLookup[CreditSegment.values().length];
+
+    static {
+        for (CreditSegment segment : CreditSegment.values()) {
+            FOUND[segment.ordinal()] = new CreditLookup(segment, false);
+            DEGRADED[segment.ordinal()] = new CreditLookup(segment, true);
+        }
+    }
+
+    /**
+     * @param segment A segment the credit registry returned
+     * @return The shared CreditLookup of the segment
+     */
+    public static CreditLookup found(CreditSegment segment) {
+        return FOUND[segment.ordinal()];
+    }
+
+    /**
+     * @param segment A segment served in place of a failed lookup
+     * @return The shared degraded CreditLookup of the segment
+     */
+    public static CreditLookup degraded(CreditSegment segment) {
+        return DEGRADED[segment.ordinal()];
+    }
+}
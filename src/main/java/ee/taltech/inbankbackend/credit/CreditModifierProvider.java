@@ -0,0 +1,30 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Looks up the credit segment that determines a customer's credit modifier, e.g. from a credit registry.
+ * The modifier values themselves belong to the credit policy, so providers only classify customers.
+ * Lookups are non-blocking; implementations with real latency complete the returned future later.
+ */
+public interface CreditModifierProvider {
+
+    /**
+     * Looks up the credit segment of a customer.
+     *
+     * @param personalCode A valid personal ID code of the customer
+     * @return A future that completes with the customer's credit segment
+     */
+    CompletableFuture<CreditSegment> getCreditSegment(String personalCode);
+
+    /**
+     * Looks up the credit segment of a customer and reports whether it is degraded. Providers that serve segments in
+     * place of failed lookups override this to mark those segments; by default every segment is a real answer.
+     *
+     * @param personalCode A valid personal ID code of the customer
+     * @return A future that completes with the customer's credit segment and whether it is degraded
+     */
+    default CompletableFuture<CreditLookup> lookup(String personalCode) {
+        return getCreditSegment(personalCode).thenApply(CreditLookup::found);
+    }
+}
@@ -0,0 +1,69 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Injects failures and slow lookups into the wrapped provider, to reproduce an unhealthy credit registry offline.
+ * Whether a lookup fails, is slow or passes through depends only on the seed and the number of lookups before it,
+ * so a run with the same seed and the same number of lookups sees exactly the same faults: the given fractions of
+ * lookups fail with an IOException or complete only after the extra slow latency.
+ */
+public class FaultInjectingCreditModifierProvider implements CreditModifierProvider {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final CreditModifierProvider delegate;
+    private final double failureRate;
+    private final double slowRate;
+    private final Executor slowExecutor;
+    private final long seed;
+    private final AtomicLong lookups = new AtomicLong();
+
+    /**
+     * @param delegate The provider to inject faults into
+     * @param failureRate Fraction of lookups that fail
+     * @param slowRate Fraction of lookups that are slow
+     * @param slowLatency Latency added to slow lookups
+     * @param seed Seed of the fault sequence
+     */
+    public FaultInjectingCreditModifierProvider(CreditModifierProvider delegate, double failureRate, double slowRate,
+                                                Duration slowLatency, long seed) {
+        if (failureRate < 0 || slowRate < 0 || failureRate + slowRate > 1) {
+            throw new IllegalArgumentException("Invalid fault rates: failure " + failureRate + ", slow " + slowRate);
+        }
+        this.delegate = delegate;
+        this.failureRate = failureRate;
+        this.slowRate = slowRate;
+        this.slowExecutor = CompletableFuture.delayedExecutor(slowLatency.toNanos(), TimeUnit.NANOSECONDS);
+        this.seed = seed;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        double fault = fault(lookups.getAndIncrement());
+        if (fault < failureRate) {
+            return CompletableFuture.failedFuture(new IOException("Injected credit registry failure"));
+        }
+        CompletableFuture<CreditSegment> lookup = delegate.getCreditSegment(personalCode);
+        if (fault < failureRate + slowRate) {
+            return lookup.thenApplyAsync(segment -> segment, slowExecutor);
+        }
+        return lookup;
+    }
+
+    /**
+     * @return A number in [0, 1) that is uniformly distributed over the lookup ordinals and fixed by the seed
+     */
+    private double fault(long ordinal) {
+        long z = seed + (ordinal + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,142 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends a second, hedged lookup to the wrapped provider when a lookup takes longer than a latency percentile of
+ * recent lookups, and completes with whichever lookup succeeds first. A lookup only fails once every lookup sent for
+ * it has failed.
+ * <p>
+ * The hedging delay is the configured percentile of the latencies of the previous 1000 lookups, so it follows the
+ * registry as it slows down or recovers; no lookup is hedged until the first 1000 lookups have completed.
+ * Hedges are paid for from a budget that grows by maximumHedgeRatio with every lookup, which caps the extra load on
+ * the registry at that fraction of the lookups even when all of them are slow.
+ */
+public class HedgingCreditModifierProvider implements CreditModifierProvider {
+
+    private static final int WINDOW_SIZE = 1000;
+
+    private static final long BUDGET_UNIT = 1000;
+    private static final long MAXIMUM_BUDGET = 100 * BUDGET_UNIT;
+
+    private final CreditModifierProvider delegate;
+    private final double percentile;
+    private final long budgetPerLookup;
+    private final int windowSize;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong windowSamples = new AtomicLong();
+    private final AtomicLong budget = new AtomicLong();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private volatile long hedgeDelayNanos = -1;
+
+    /**
+     * @param delegate The provider to hedge lookups to
+     * @param percentile Latency percentile after which a lookup is hedged, between 0 and 1
+     * @param maximumHedgeRatio Maximum number of hedged lookups per lookup; 0 disables hedging
+     */
+    public HedgingCreditModifierProvider(CreditModifierProvider delegate, double percentile,
+                                         double maximumHedgeRatio) {
+        this(delegate, percentile, maximumHedgeRatio, WINDOW_SIZE);
+    }
+
+    HedgingCreditModifierProvider(CreditModifierProvider delegate, double percentile, double maximumHedgeRatio,
+                                  int windowSize) {
+        if (percentile <= 0 || percentile >= 1 || maximumHedgeRatio < 0 || maximumHedgeRatio > 1) {
+            throw new IllegalArgumentException("Invalid hedging percentile " + percentile + " or ratio "
+                    + maximumHedgeRatio);
+        }
+        this.delegate = delegate;
+        this.percentile = percentile;
+        this.budgetPerLookup = Math.round(maximumHedgeRatio * BUDGET_UNIT);
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        CompletableFuture<CreditSegment> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        send(personalCode, result, outstanding, false);
+        if (result.isDone() || budgetPerLookup == 0) {
+            return result;
+        }
+
+        budget.getAndUpdate(current -> Math.min(MAXIMUM_BUDGET, current + budgetPerLookup));
+        long delay = hedgeDelayNanos;
+        if (delay >= 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!result.isDone() && takeBudget()) {
+                    outstanding.incrementAndGet();
+                    hedges.increment();
+                    send(personalCode, result, outstanding, true);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @return The current hedging delay in nanoseconds, or -1 while no lookups are hedged
+     */
+    public long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * @return The number of hedged lookups sent
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return The number of hedged lookups that completed before the lookup they hedged
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    private void send(String personalCode, CompletableFuture<CreditSegment> result, AtomicInteger outstanding,
+                      boolean hedge) {
+        long start = System.nanoTime();
+        CompletableFuture<CreditSegment> lookup;
+        try {
+            lookup = delegate.getCreditSegment(personalCode);
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        lookup.whenComplete((segment, error) -> {
+            if (error == null) {
+                record(System.nanoTime() - start);
+                if (result.complete(segment) && hedge) {
+                    hedgeWins.increment();
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private boolean takeBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < BUDGET_UNIT) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - BUDGET_UNIT));
+        return true;
+    }
+
+    private void record(long latencyNanos) {
+        latencies.record(latencyNanos);
+        if (windowSamples.incrementAndGet() % windowSize == 0) {
+            hedgeDelayNanos = latencies.quantile(percentile);
+            latencies.reset();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ee.taltech.inbankbackend.credit;
+
+import ee.taltech.inbankbackend.service.PersonalCodeParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A local stand-in for the credit registry.
+ * Customers listed in the overrides get the segment given there; everyone else is segmented by the last four digits
+ * of their ID code. An optional artificial latency makes the stand-in behave like a remote registry, either without
+ * blocking any thread or, given a blocking executor, by occupying one of its threads for the whole lookup the way a
+ * blocking registry client would.
+ */
+public class LocalCreditModifierProvider implements CreditModifierProvider {
+
+    private final Map<String, CreditSegment> overrides;
+    private final Executor executor;
+    private final long blockingNanos;
+
+    /**
+     * @param overrides Segments for individual personal codes
+     * @param latency Artificial latency of every lookup; zero completes lookups immediately
+     */
+    public LocalCreditModifierProvider(Map<String, CreditSegment> overrides, Duration latency) {
+        this.overrides = Map.copyOf(overrides);
+        this.executor = latency.isZero() ? null
+                : CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS);
+        this.blockingNanos = 0;
+    }
+
+    /**
+     * Creates a stand-in that simulates a blocking registry client: every lookup sleeps on a thread of the given
+     * executor for the latency.
+     *
+     * @param overrides Segments for individual personal codes
+     * @param latency Time every lookup blocks its thread
+     * @param blockingExecutor Executor that runs the blocking lookups
+     */
+    public LocalCreditModifierProvider(Map<String, CreditSegment> overrides, Duration latency,
+                                       Executor blockingExecutor) {
+        this.overrides = Map.copyOf(overrides);
+        this.executor = blockingExecutor;
+        this.blockingNanos = latency.toNanos();
+    }
+
+    /**
+     * Creates a stand-in whose overrides are read from a properties file with lines of the form
+     * "personalCode=SEGMENT_2".
+     *
+     * @param file Properties file with the overrides
+     * @param latency Artificial latency of every lookup
+     * @return A new LocalCreditModifierProvider
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If the file contains an unknown segment
+     */
+    public static LocalCreditModifierProvider fromFile(Path file, Duration latency) throws IOException {
+        return new LocalCreditModifierProvider(readOverrides(file), latency);
+    }
+
+    /**
+     * Reads segment overrides from a properties file with lines of the form "personalCode=SEGMENT_2".
+     *
+     * @param file Properties file with the overrides
+     * @return The segments by personal code
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If the file contains an unknown segment
+     */
+    public static Map<String, CreditSegment> readOverrides(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        Map<String, CreditSegment> overrides = new HashMap<>();
+        for (String personalCode : properties.stringPropertyNames()) {
+            overrides.put(personalCode, CreditSegment.valueOf(properties.getProperty(personalCode).trim()));
+        }
+        return overrides;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        CreditSegment segment = overrides.get(personalCode);
+        if (segment == null) {
+            int lastFourDigits = PersonalCodeParser.parseLastFourDigits(personalCode);
+            segment = lastFourDigits == PersonalCodeParser.INVALID
+                    ? CreditSegment.DEBT : CreditSegment.fromLastFourDigits(lastFourDigits);
+        }
+
+        if (executor == null) {
+            return CompletableFuture.completedFuture(segment);
+        }
+        final CreditSegment result = segment;
+        if (blockingNanos == 0) {
+            return CompletableFuture.supplyAsync(() -> result, executor);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            LockSupport.parkNanos(blockingNanos);
+            return result;
+        }, executor);
+    }
+}
@@ -0,0 +1,108 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the last segment the wrapped provider returned for every personal code and serves it when a later
+ * lookup fails, so that customers the registry has seen before keep getting decisions while it is unavailable.
+ * Customers without a remembered segment get the fallback segment, or the failure if none is configured.
+ * Remembered and fallback segments are reported as degraded by {@link #lookup(String)}, so that decisions built
+ * from them are not cached.
+ * At most maximumSize segments are remembered; once that many are, only the segments of remembered customers are
+ * updated.
+ */
+public class StaleFallbackCreditModifierProvider implements CreditModifierProvider {
+
+    private final CreditModifierProvider delegate;
+    private final CreditSegment fallback;
+    private final int maximumSize;
+    private final ConcurrentMap<String, CreditSegment> lastKnown = new ConcurrentHashMap<>();
+    private final AtomicInteger remembered = new AtomicInteger();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param delegate The provider to fall back from
+     * @param fallback Segment for failed lookups of customers without a remembered segment, or null to fail them
+     * @param maximumSize Maximum number of remembered segments; 0 only uses the fallback segment
+     */
+    public StaleFallbackCreditModifierProvider(CreditModifierProvider delegate, CreditSegment fallback,
+                                               int maximumSize) {
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        return lookup(personalCode).thenApply(CreditLookup::segment);
+    }
+
+    @Override
+    public CompletableFuture<CreditLookup> lookup(String personalCode) {
+        CompletableFuture<CreditSegment> lookup;
+        try {
+            lookup = delegate.getCreditSegment(personalCode);
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<CreditLookup> result = new CompletableFuture<>();
+        lookup.whenComplete((segment, error) -> {
+            if (error == null) {
+                remember(personalCode, segment);
+                result.complete(CreditLookup.found(segment));
+                return;
+            }
+            CreditSegment known = lastKnown.get(personalCode);
+            if (known != null) {
+                stale.increment();
+                result.complete(CreditLookup.degraded(known));
+            } else if (fallback != null) {
+                fallbacks.increment();
+                result.complete(CreditLookup.degraded(fallback));
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return The number of failed lookups answered with a remembered segment
+     */
+    public long getStaleCount() {
+        return stale.sum();
+    }
+
+    /**
+     * @return The number of failed lookups answered with the fallback segment
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * @return The number of remembered segments
+     */
+    public int size() {
+        return remembered.get();
+    }
+
+    private void remember(String personalCode, CreditSegment segment) {
+        lastKnown.compute(personalCode, (code, known) -> {
+            if (known != null) {
+                return segment;
+            }
+            // Reserve a slot before inserting, so that concurrent first lookups cannot exceed the bound together
+            if (remembered.incrementAndGet() > maximumSize) {
+                remembered.decrementAndGet();
+                return null;
+            }
+            return segment;
+        });
+    }
+}
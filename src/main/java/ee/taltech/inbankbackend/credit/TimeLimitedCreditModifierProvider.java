@@ -0,0 +1,36 @@
+package ee.taltech.inbankbackend.credit;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time of every lookup of the wrapped provider.
+ * A lookup that takes longer than the timeout fails with a TimeoutException; answering failed lookups is left to
+ * {@link StaleFallbackCreditModifierProvider}.
+ */
+public class TimeLimitedCreditModifierProvider implements CreditModifierProvider {
+
+    private final CreditModifierProvider delegate;
+    private final long timeoutNanos;
+
+    /**
+     * @param delegate The provider to limit
+     * @param timeout Maximum duration of a lookup
+     */
+    public TimeLimitedCreditModifierProvider(CreditModifierProvider delegate, Duration timeout) {
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<CreditSegment> getCreditSegment(String personalCode) {
+        CompletableFuture<CreditSegment> lookup = delegate.getCreditSegment(personalCode);
+        if (lookup.isDone()) {
+            return lookup;
+        }
+
+        // Work on a copy so that the timeout never completes a future the delegate may share with other callers.
+        return lookup.copy().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
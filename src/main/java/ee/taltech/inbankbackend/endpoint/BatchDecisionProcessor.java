@@ -0,0 +1,318 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates newline-delimited JSON decision requests and writes one JSON decision per line.
+ * Lines are parsed in parallel and evaluated without blocking on credit segment lookups. At most a fixed number of
+ * lines are in flight at once, lines longer than {@value #MAX_LINE_LENGTH} bytes are answered with an error without
+ * being buffered, and results are written in input order as soon as they are available, so memory use does not
+ * depend on the size of the input.
+ */
+@Component
+public class BatchDecisionProcessor {
+
+    private static final byte NEWLINE = '\n';
+    private static final int MAX_LINE_LENGTH = 64 << 10;
+    private static final String LINE_TOO_LONG = "Line too long!";
+    private static final long INPUT_POLL_MILLIS = 10;
+
+    private final DecisionEngine decisionEngine;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final int maxInFlight;
+
+    @Autowired
+    BatchDecisionProcessor(DecisionEngine decisionEngine, ObjectMapper objectMapper,
+                           @Value("${decision-engine.batch.max-in-flight:1024}") int maxInFlight) {
+        this.decisionEngine = decisionEngine;
+        this.requestReader = objectMapper.readerFor(DecisionRequest.class);
+        this.responseWriter = objectMapper.writerFor(BatchDecisionResponse.class);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Reads decision requests line by line from the input and writes the decisions to the output in the same order.
+     * Blank lines are skipped but still counted, so the line numbers in the output match the input.
+     * Decisions are written and flushed by the calling thread as soon as every decision before them has been written,
+     * while the input is still being read.
+     *
+     * @param input Newline-delimited JSON DecisionRequests
+     * @param output Stream that receives one BatchDecisionResponse per non-blank input line
+     * @throws IOException If reading the input or writing the output fails
+     */
+    public void process(InputStream input, OutputStream output) throws IOException {
+        OrderedOutput orderedOutput = new OrderedOutput(output, maxInFlight);
+        LineReader reader = new LineReader(input, orderedOutput);
+        long lineNumber = 0;
+
+        try {
+            while (reader.next()) {
+                lineNumber++;
+                String line = reader.line();
+                if (line != null && line.isBlank()) {
+                    continue;
+                }
+
+                CompletableFuture<BatchDecisionResponse> response = line != null
+                        ? evaluate(lineNumber, line)
+                        : CompletableFuture.completedFuture(BatchDecisionResponse.error(lineNumber, LINE_TOO_LONG));
+                orderedOutput.add(response.thenApply(this::writeResponse));
+            }
+            orderedOutput.awaitWritten();
+        } finally {
+            orderedOutput.close();
+        }
+    }
+
+    /**
+     * @return The maximum number of lines evaluated at once
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Parses and evaluates a single line of a batch.
+     * The returned future never completes exceptionally; failures are reported through the error message.
+     *
+     * @param lineNumber Number of the line in the batch, starting from 1
+     * @param line A JSON DecisionRequest
+     * @return The decision for the line
+     */
+    public CompletableFuture<BatchDecisionResponse> evaluate(long lineNumber, String line) {
+        return CompletableFuture.supplyAsync(() -> readRequest(line), ForkJoinPool.commonPool())
+                .thenCompose(request -> decide(lineNumber, request))
+                .exceptionally(e -> BatchDecisionResponse.error(lineNumber, "An unexpected error occurred"));
+    }
+
+    private CompletableFuture<BatchDecisionResponse> decide(long lineNumber, DecisionRequest request) {
+        if (request == null) {
+            return CompletableFuture.completedFuture(BatchDecisionResponse.error(lineNumber,
+                    DecisionEngineController.MALFORMED_REQUEST));
+        }
+
+        return decisionEngine.calculateApprovedLoanAsync(request.getPersonalCode(), request.getLoanAmount(),
+                        request.getLoanPeriod())
+                .thenApply(decision -> new BatchDecisionResponse(lineNumber, decision.getLoanAmount(),
+                        decision.getLoanPeriod(), decision.getErrorMessage(), decision.getPolicyVersion()));
+    }
+
+    /**
+     * @return The parsed request, or null if the line is not a valid DecisionRequest
+     */
+    private DecisionRequest readRequest(String line) {
+        try {
+            return requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private byte[] writeResponse(BatchDecisionResponse response) {
+        try {
+            return responseWriter.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The window of decisions in flight, in input order. Only the thread that reads the input writes to the output:
+     * it writes the completed decisions at the head of the window whenever it adds a line, and keeps writing them as
+     * they complete while it has no input to read, so a decision is sent as soon as every decision before it has
+     * been, without waiting for more input. Completing a decision only wakes that thread up.
+     */
+    private static final class OrderedOutput {
+
+        private final OutputStream output;
+        private final int capacity;
+        // Guarded by this
+        private final Deque<CompletableFuture<byte[]>> window;
+
+        OrderedOutput(OutputStream output, int capacity) {
+            this.output = output;
+            this.capacity = capacity;
+            this.window = new ArrayDeque<>(capacity);
+        }
+
+        /**
+         * Appends a decision to the window, writing completed decisions while the window is full.
+         */
+        synchronized void add(CompletableFuture<byte[]> response) throws IOException {
+            writeCompleted();
+            while (window.size() >= capacity) {
+                await(0);
+                writeCompleted();
+            }
+            window.addLast(response);
+            response.whenComplete((json, error) -> completed());
+        }
+
+        /**
+         * Writes decisions as they complete until the window is empty or the input can be read without blocking.
+         */
+        synchronized void writeUntilReadable(InputStream input) throws IOException {
+            writeCompleted();
+            while (!window.isEmpty() && input.available() == 0) {
+                await(INPUT_POLL_MILLIS);
+                writeCompleted();
+            }
+        }
+
+        /**
+         * Writes decisions as they complete until every decision in the window has been written.
+         */
+        synchronized void awaitWritten() throws IOException {
+            writeCompleted();
+            while (!window.isEmpty()) {
+                await(0);
+                writeCompleted();
+            }
+        }
+
+        /**
+         * Cancels the decisions still in the window, so that no work is left behind after the processor has returned.
+         */
+        void close() {
+            List<CompletableFuture<byte[]>> pending;
+            synchronized (this) {
+                pending = List.copyOf(window);
+                window.clear();
+            }
+            pending.forEach(response -> response.cancel(false));
+        }
+
+        private synchronized void completed() {
+            notifyAll();
+        }
+
+        private void writeCompleted() throws IOException {
+            boolean written = false;
+            while (!window.isEmpty() && window.peekFirst().isDone()) {
+                try {
+                    output.write(window.removeFirst().join());
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+                }
+                output.write(NEWLINE);
+                written = true;
+            }
+            if (written) {
+                output.flush();
+            }
+        }
+
+        private void await(long timeoutMillis) throws IOException {
+            try {
+                wait(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decisions");
+            }
+        }
+    }
+
+    /**
+     * Splits the input into lines without ever buffering more than {@value #MAX_LINE_LENGTH} bytes of a line.
+     * The rest of a longer line is skipped. Before reading would block, the decisions that complete meanwhile are
+     * written to the output.
+     */
+    private static final class LineReader {
+
+        private final InputStream input;
+        private final OrderedOutput output;
+        private final byte[] buffer = new byte[8192];
+        private byte[] line = new byte[256];
+        private int position;
+        private int limit;
+        private int length;
+        private boolean tooLong;
+
+        LineReader(InputStream input, OrderedOutput output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        /**
+         * Reads the next line.
+         *
+         * @return false at the end of the input
+         */
+        boolean next() throws IOException {
+            length = 0;
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit && !fill()) {
+                    return read;
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != NEWLINE) {
+                    position++;
+                }
+                append(start, position - start);
+                if (position < limit) {
+                    position++;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return The current line without its line terminator, or null if it is longer than the limit
+         */
+        String line() {
+            if (tooLong) {
+                return null;
+            }
+            int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+            return new String(line, 0, end, StandardCharsets.UTF_8);
+        }
+
+        private boolean fill() throws IOException {
+            output.writeUntilReadable(input);
+            int read = input.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+
+        private void append(int start, int count) {
+            if (tooLong || count == 0) {
+                return;
+            }
+            if (length + count > MAX_LINE_LENGTH) {
+                tooLong = true;
+                return;
+            }
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.min(MAX_LINE_LENGTH, Math.max(line.length * 2, length + count)));
+            }
+            System.arraycopy(buffer, start, line, length, count);
+            length += count;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ee.taltech.inbankbackend.endpoint;
+
+/**
+ * Holds the response data for one line of a batch decision request.
+ *
+ * @param line The line number of the request in the batch, starting from 1
+ * @param loanAmount The approved loan amount
+ * @param loanPeriod The approved loan period
+ * @param errorMessage An error message, if any
+ * @param policyVersion Version of the credit policy that made the decision, if a decision was made
+ */
+public record BatchDecisionResponse(long line, Integer loanAmount, Integer loanPeriod, String errorMessage,
+                                    String policyVersion) {
+
+    /**
+     * Creates a response that carries only an error message.
+     *
+     * @param line The line number of the request in the batch
+     * @param errorMessage The error message to return to the client
+     * @return A BatchDecisionResponse without a loan amount or period
+     */
+    public static BatchDecisionResponse error(long line, String errorMessage) {
+        return new BatchDecisionResponse(line, null, null, errorMessage, null);
+    }
+}
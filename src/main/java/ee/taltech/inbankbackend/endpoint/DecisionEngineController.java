@@ -1,32 +1,47 @@
 package ee.taltech.inbankbackend.endpoint;
 
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+import ee.taltech.inbankbackend.idempotency.IdempotencyStore;
 import ee.taltech.inbankbackend.service.Decision;
 import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/loan")
 @CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DecisionEngineController {
 
+    static final String MALFORMED_REQUEST = "Malformed request!";
+    static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key reused for a different request!";
+
     private final DecisionEngine decisionEngine;
-    private final DecisionResponse response;
+    private final BatchDecisionProcessor batchDecisionProcessor;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
-    DecisionEngineController(DecisionEngine decisionEngine, DecisionResponse response) {
+    DecisionEngineController(DecisionEngine decisionEngine, BatchDecisionProcessor batchDecisionProcessor,
+                             IdempotencyStore idempotencyStore) {
         this.decisionEngine = decisionEngine;
-        this.response = response;
+        this.batchDecisionProcessor = batchDecisionProcessor;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -38,38 +53,130 @@ public class DecisionEngineController {
      * - If an unexpected error occurs, the endpoint returns an internal server error response with an error message.<br>
      * - If no valid loans can be found, the endpoint returns a not found response with an error message.<br>
      * - If a valid loan is found, a DecisionResponse is returned containing the approved loan amount and period.
+     * <br><br>
+     * Requests and responses are JSON unless the client sends or accepts the binary {@link DecisionWireFormat}.
+     * A client that retries a request sends the same {@link IdempotencyStore#HEADER} with every attempt, so that
+     * the request is only decided once; reusing the key for a different request returns an unprocessable entity
+     * response with an error message. JSON requests are usually scanned and validated by the
+     * {@link DecisionPrevalidationFilter} before they get here, in which case the body is not parsed again.
      *
-     * @param request The request body containing the customer's personal ID code, requested loan amount, and loan period
+     * @param idempotencyKey Key identifying the attempts of one request, if any
+     * @param prevalidatedRequest The request as scanned by the DecisionPrevalidationFilter, if it was
+     * @param body The request body containing the customer's personal ID code, requested loan amount, and loan period,
+     *             unless the request was prevalidated
      * @return A ResponseEntity with a DecisionResponse body containing the approved loan amount and period, and an error message (if any)
      */
-    @PostMapping("/decision")
-    public ResponseEntity<DecisionResponse> requestDecision(@RequestBody DecisionRequest request) {
-        try {
-            Decision decision = decisionEngine.
-                    calculateApprovedLoan(request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod());
-            response.setLoanAmount(decision.getLoanAmount());
-            response.setLoanPeriod(decision.getLoanPeriod());
-            response.setErrorMessage(decision.getErrorMessage());
-
-            return ResponseEntity.ok(response);
-        } catch (InvalidPersonalCodeException | InvalidLoanAmountException | InvalidLoanPeriodException e) {
-            response.setLoanAmount(null);
-            response.setLoanPeriod(null);
-            response.setErrorMessage(e.getMessage());
+    @PostMapping(value = "/decision",
+            produces = {MediaType.APPLICATION_JSON_VALUE, DecisionWireFormat.MEDIA_TYPE_VALUE})
+    public ResponseEntity<DecisionResponse> requestDecision(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestAttribute(value = DecisionPrevalidationFilter.PREVALIDATED_REQUEST, required = false)
+            DecisionRequest prevalidatedRequest,
+            @RequestBody(required = false) DecisionRequest body) {
+        DecisionRequest request = prevalidatedRequest != null ? prevalidatedRequest : body;
+        if (request == null) {
+            return ResponseEntity.badRequest().body(DecisionResponse.error(MALFORMED_REQUEST));
+        }
 
-            return ResponseEntity.badRequest().body(response);
-        } catch (NoValidLoanException e) {
-            response.setLoanAmount(null);
-            response.setLoanPeriod(null);
-            response.setErrorMessage(e.getMessage());
+        try {
+            Decision decision;
+            if (idempotencyKey == null) {
+                decision = decisionEngine.calculateApprovedLoan(request.getPersonalCode(), request.getLoanAmount(),
+                        request.getLoanPeriod());
+            } else {
+                CompletableFuture<Decision> result = idempotencyStore.execute(idempotencyKey,
+                        request.getPersonalCode(), request.getLoanAmount(), request.getLoanPeriod(),
+                        () -> decisionEngine.calculateApprovedLoanAsync(request.getPersonalCode(),
+                                request.getLoanAmount(), request.getLoanPeriod()));
+                if (result == null) {
+                    return ResponseEntity.unprocessableEntity().body(DecisionResponse.error(IDEMPOTENCY_KEY_REUSED));
+                }
+                decision = result.join();
+            }
+            return ResponseEntity.status(toHttpStatus(decision.getStatus())).body(DecisionResponse.from(decision));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(DecisionResponse.error("An unexpected error occurred"));
+        }
+    }
 
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    /**
+     * A REST endpoint that returns every loan a customer can get, so that a client can offer alternatives
+     * without requesting a decision for each of them.
+     * The endpoint accepts POST requests with a request body containing the customer's personal ID code.<br><br>
+     * - If the personal ID code is invalid, the endpoint returns a bad request response with an error message.<br>
+     * - If an unexpected error occurs, the endpoint returns an internal server error response with an error message.<br>
+     * - If no valid loans can be found, the endpoint returns a not found response with an error message.<br>
+     * - Otherwise an OfferCurveResponse is returned containing the largest loan amount for every feasible period.
+     *
+     * @param request The request body containing the customer's personal ID code
+     * @return A ResponseEntity with an OfferCurveResponse body containing the feasible loan periods and amounts,
+     * and an error message (if any)
+     */
+    @PostMapping("/offers")
+    public ResponseEntity<OfferCurveResponse> requestOfferCurve(@RequestBody OfferCurveRequest request) {
+        try {
+            OfferCurve offerCurve = decisionEngine.calculateOfferCurve(request.personalCode());
+            return ResponseEntity.status(toHttpStatus(offerCurve.getStatus()))
+                    .body(OfferCurveResponse.from(offerCurve));
         } catch (Exception e) {
-            response.setLoanAmount(null);
-            response.setLoanPeriod(null);
-            response.setErrorMessage("An unexpected error occurred");
+            return ResponseEntity.internalServerError().body(OfferCurveResponse.error("An unexpected error occurred"));
+        }
+    }
 
-            return ResponseEntity.internalServerError().body(response);
+    /**
+     * A REST endpoint that returns every loan a customer can get from every credit product, so that a client can
+     * compare products without a request per product. The personal ID code is validated and the credit segment
+     * looked up once for all products.
+     * The endpoint accepts POST requests with a request body containing the customer's personal ID code.<br><br>
+     * - If the personal ID code is invalid, the endpoint returns a bad request response with an error message.<br>
+     * - If an unexpected error occurs, the endpoint returns an internal server error response with an error message.<br>
+     * - If no product has a valid loan, the endpoint returns a not found response with an error message.<br>
+     * - Otherwise a ProductOffersResponse is returned containing the offer curve of every product.
+     *
+     * @param request The request body containing the customer's personal ID code
+     * @return A ResponseEntity with a ProductOffersResponse body containing the feasible loan periods and amounts of
+     * every product, and an error message (if any)
+     */
+    @PostMapping("/products/offers")
+    public ResponseEntity<ProductOffersResponse> requestProductOffers(@RequestBody OfferCurveRequest request) {
+        try {
+            ProductOffers productOffers = decisionEngine.calculateProductOffers(request.personalCode());
+            return ResponseEntity.status(toHttpStatus(productOffers.getStatus()))
+                    .body(ProductOffersResponse.from(productOffers));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ProductOffersResponse.error("An unexpected error occurred"));
         }
     }
+
+    /**
+     * A REST endpoint that handles batches of loan decision requests.
+     * The request body contains one DecisionRequest per line as newline-delimited JSON. The response streams back
+     * one BatchDecisionResponse per non-blank input line, in input order, as soon as the decisions are available.
+     * Each response carries the line number of its request; malformed lines produce an error message
+     * instead of failing the whole batch.
+     *
+     * @param body The newline-delimited JSON request body
+     * @return A ResponseEntity that streams newline-delimited JSON BatchDecisionResponses
+     */
+    @PostMapping(value = "/decisions", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> requestDecisions(InputStream body) {
+        StreamingResponseBody responseBody = output -> batchDecisionProcessor.process(body, output);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    /**
+     * Maps the outcome of a decision to the HTTP status of the response.
+     *
+     * @param status Status of the decision
+     * @return The HTTP status to respond with
+     */
+    static HttpStatus toHttpStatus(DecisionStatus status) {
+        return switch (status) {
+            case APPROVED -> HttpStatus.OK;
+            case INVALID_PERSONAL_CODE, INVALID_LOAN_AMOUNT, INVALID_LOAN_PERIOD -> HttpStatus.BAD_REQUEST;
+            case NO_VALID_LOAN -> HttpStatus.NOT_FOUND;
+        };
+    }
 }
@@ -0,0 +1,231 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.request.DecisionRequestScanner;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Validates JSON decision requests on the servlet stack before the request body is bound to a DecisionRequest.
+ * The body is scanned straight from its bytes with a {@link DecisionRequestScanner}: a body that is not a JSON object
+ * is rejected as malformed, and a request with an invalid personal code, loan amount or loan period is rejected by
+ * {@link DecisionEngine#rejectInvalidInputs(String, Long, int)} with the same response the endpoint would give,
+ * so invalid traffic never reaches the message converters. A valid request is passed on with the scanned
+ * DecisionRequest in the {@value #PREVALIDATED_REQUEST} request attribute and an empty body, so the controller does
+ * not parse it again.
+ * <p>
+ * Requests the scanner does not fully understand, such as bodies with escape sequences or fractional numbers,
+ * requests in the binary wire format and bodies without a known length of at most {@value #MAX_BODY_SIZE} bytes are
+ * passed on unchanged and bound by the message converters as before.
+ */
+public class DecisionPrevalidationFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the scanned DecisionRequest of a request that passed validation.
+     */
+    public static final String PREVALIDATED_REQUEST = "ee.taltech.inbankbackend.prevalidatedDecisionRequest";
+
+    /**
+     * Largest body that is scanned; a decision request takes well under 100 bytes.
+     */
+    static final int MAX_BODY_SIZE = 1024;
+
+    static final byte[] MALFORMED_REQUEST = ("{\"errorMessage\":\"" + DecisionEngineController.MALFORMED_REQUEST
+            + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final DecisionEngine decisionEngine;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param decisionEngine The decision engine that validates the requests
+     * @param objectMapper Writes the responses of rejected requests
+     */
+    public DecisionPrevalidationFilter(DecisionEngine decisionEngine, ObjectMapper objectMapper) {
+        this.decisionEngine = decisionEngine;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int length = request.getContentLength();
+        if (!HttpMethod.POST.matches(request.getMethod()) || length < 0 || length > MAX_BODY_SIZE
+                || !isJson(request.getContentType()) || !acceptsJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(length);
+        if (!startsWithObject(body)) {
+            reject(response, HttpStatus.BAD_REQUEST, MALFORMED_REQUEST);
+            return;
+        }
+
+        DecisionRequestScanner scanner = new DecisionRequestScanner();
+        if (!scanner.scanJson(ByteBuffer.wrap(body), 0, body.length)) {
+            chain.doFilter(new BufferedBodyRequest(request, body), response);
+            return;
+        }
+
+        DecisionRequest decisionRequest = new DecisionRequest(scanner.getPersonalCode(),
+                scanner.hasLoanAmount() ? scanner.getLoanAmount() : null, scanner.getLoanPeriod());
+        Decision rejection = decisionEngine.rejectInvalidInputs(decisionRequest.getPersonalCode(),
+                decisionRequest.getLoanAmount(), decisionRequest.getLoanPeriod());
+        if (rejection != null) {
+            reject(response, DecisionEngineController.toHttpStatus(rejection.getStatus()),
+                    objectMapper.writeValueAsBytes(DecisionResponse.from(rejection)));
+            return;
+        }
+
+        request.setAttribute(PREVALIDATED_REQUEST, decisionRequest);
+        chain.doFilter(new BufferedBodyRequest(request, EMPTY_BODY), response);
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            return contentType != null && MediaType.APPLICATION_JSON.includes(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsJson(String accept) {
+        if (accept == null) {
+            return true;
+        }
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false if the body is not empty and its first byte after whitespace does not open a JSON object,
+     * which neither the scanner nor the message converters would accept
+     */
+    private static boolean startsWithObject(byte[] body) {
+        for (byte b : body) {
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return b == '{';
+            }
+        }
+        return true;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Replays a body that the filter has already read.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private int position;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return position < body.length ? body[position++] & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (position == body.length) {
+                        return -1;
+                    }
+                    int count = Math.min(len, body.length - position);
+                    System.arraycopy(body, position, b, off, count);
+                    position += count;
+                    return count;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return position == body.length;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so it is available at once and the read is complete as soon
+                 * as the listener has consumed it.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
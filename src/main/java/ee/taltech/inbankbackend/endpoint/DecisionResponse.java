@@ -1,17 +1,34 @@
 package ee.taltech.inbankbackend.endpoint;
 
-import lombok.Getter;
-import lombok.Setter;
-import org.springframework.stereotype.Component;
+import ee.taltech.inbankbackend.service.Decision;
 
 /**
  * Holds the response data of the REST endpoint.
+ * A new immutable instance is created for every request.
+ *
+ * @param loanAmount The approved loan amount
+ * @param loanPeriod The approved loan period
+ * @param errorMessage An error message, if any
+ * @param policyVersion Version of the credit policy that made the decision, if a decision was made
  */
-@Getter
-@Setter
-@Component
-public class DecisionResponse {
-    private Integer loanAmount;
-    private Integer loanPeriod;
-    private String errorMessage;
+public record DecisionResponse(Integer loanAmount, Integer loanPeriod, String errorMessage, String policyVersion) {
+
+    /**
+     * @param decision The decision to respond with
+     * @return A DecisionResponse with the fields of the decision
+     */
+    public static DecisionResponse from(Decision decision) {
+        return new DecisionResponse(decision.getLoanAmount(), decision.getLoanPeriod(), decision.getErrorMessage(),
+                decision.getPolicyVersion());
+    }
+
+    /**
+     * Creates a response that carries only an error message.
+     *
+     * @param errorMessage The error message to return to the client
+     * @return A DecisionResponse without a loan amount or period
+     */
+    public static DecisionResponse error(String errorMessage) {
+        return new DecisionResponse(null, null, errorMessage, null);
+    }
 }
@@ -0,0 +1,154 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.springframework.http.MediaType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary encoding of DecisionRequests and DecisionResponses for partners that send high volumes of
+ * decision requests, served under {@value #MEDIA_TYPE_VALUE}. JSON remains the default format of the endpoint.
+ * <p>
+ * All numbers are big-endian and strings are prefixed with their length in bytes as one unsigned byte.
+ * A request is a flags byte (bit 0: loan amount present), the personal code in ISO-8859-1, the loan amount as an
+ * 8-byte integer and the loan period as a 4-byte integer; an 11-digit personal code takes 25 bytes.
+ * A response is a flags byte (bit 0: loan amount, bit 1: loan period, bit 2: error message, bit 3: policy version
+ * present), the loan amount and period as 4-byte integers, zero when absent, followed by the error message and
+ * the policy version in UTF-8 if present.
+ */
+public final class DecisionWireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.inbank.decision";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /**
+     * The largest encoded request or response, which bounds how much of a message body is read.
+     */
+    public static final int MAX_MESSAGE_SIZE = 1 + 4 + 4 + 2 * (1 + 255);
+
+    private static final int MAX_STRING_LENGTH = 255;
+    private static final int HAS_LOAN_AMOUNT = 1;
+    private static final int HAS_LOAN_PERIOD = 2;
+    private static final int HAS_ERROR_MESSAGE = 4;
+    private static final int HAS_POLICY_VERSION = 8;
+
+    private DecisionWireFormat() {
+    }
+
+    /**
+     * @param message A DecisionRequest or DecisionResponse
+     * @return The encoded message
+     * @throws IllegalArgumentException If a string in the message is longer than 255 bytes
+     */
+    public static byte[] encode(Object message) {
+        return message instanceof DecisionRequest request
+                ? encodeRequest(request) : encodeResponse((DecisionResponse) message);
+    }
+
+    /**
+     * @param request The request to encode
+     * @return The encoded request
+     * @throws IllegalArgumentException If the personal code is longer than 255 characters
+     */
+    public static byte[] encodeRequest(DecisionRequest request) {
+        byte[] personalCode = encodeString(request.getPersonalCode(), true);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + personalCode.length + 8 + 4);
+        buffer.put((byte) (request.getLoanAmount() != null ? HAS_LOAN_AMOUNT : 0));
+        buffer.put((byte) personalCode.length).put(personalCode);
+        buffer.putLong(request.getLoanAmount() != null ? request.getLoanAmount() : 0);
+        buffer.putInt(request.getLoanPeriod());
+        return buffer.array();
+    }
+
+    /**
+     * @param buffer The encoded request, which must end with the request
+     * @return The decoded request
+     * @throws IllegalArgumentException If the buffer does not hold exactly one encoded request
+     */
+    public static DecisionRequest decodeRequest(ByteBuffer buffer) {
+        try {
+            int flags = buffer.get();
+            String personalCode = decodeString(buffer, true);
+            long loanAmount = buffer.getLong();
+            int loanPeriod = buffer.getInt();
+            requireFullyRead(buffer);
+            return new DecisionRequest(personalCode, (flags & HAS_LOAN_AMOUNT) != 0 ? loanAmount : null, loanPeriod);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated decision request", e);
+        }
+    }
+
+    /**
+     * @param response The response to encode
+     * @return The encoded response
+     * @throws IllegalArgumentException If the error message or policy version is longer than 255 bytes in UTF-8
+     */
+    public static byte[] encodeResponse(DecisionResponse response) {
+        byte[] errorMessage = encodeString(response.errorMessage(), false);
+        byte[] policyVersion = encodeString(response.policyVersion(), false);
+        int flags = (response.loanAmount() != null ? HAS_LOAN_AMOUNT : 0)
+                | (response.loanPeriod() != null ? HAS_LOAN_PERIOD : 0)
+                | (errorMessage != null ? HAS_ERROR_MESSAGE : 0)
+                | (policyVersion != null ? HAS_POLICY_VERSION : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + encodedLength(errorMessage) + encodedLength(policyVersion));
+        buffer.put((byte) flags);
+        buffer.putInt(response.loanAmount() != null ? response.loanAmount() : 0);
+        buffer.putInt(response.loanPeriod() != null ? response.loanPeriod() : 0);
+        if (errorMessage != null) {
+            buffer.put((byte) errorMessage.length).put(errorMessage);
+        }
+        if (policyVersion != null) {
+            buffer.put((byte) policyVersion.length).put(policyVersion);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param buffer The encoded response, which must end with the response
+     * @return The decoded response
+     * @throws IllegalArgumentException If the buffer does not hold exactly one encoded response
+     */
+    public static DecisionResponse decodeResponse(ByteBuffer buffer) {
+        try {
+            int flags = buffer.get();
+            int loanAmount = buffer.getInt();
+            int loanPeriod = buffer.getInt();
+            String errorMessage = (flags & HAS_ERROR_MESSAGE) != 0 ? decodeString(buffer, false) : null;
+            String policyVersion = (flags & HAS_POLICY_VERSION) != 0 ? decodeString(buffer, false) : null;
+            requireFullyRead(buffer);
+            return new DecisionResponse((flags & HAS_LOAN_AMOUNT) != 0 ? loanAmount : null,
+                    (flags & HAS_LOAN_PERIOD) != 0 ? loanPeriod : null, errorMessage, policyVersion);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated decision response", e);
+        }
+    }
+
+    private static byte[] encodeString(String value, boolean latin1) {
+        if (value == null) {
+            return latin1 ? new byte[0] : null;
+        }
+        byte[] bytes = value.getBytes(latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("String longer than " + MAX_STRING_LENGTH + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private static int encodedLength(byte[] value) {
+        return value == null ? 0 : 1 + value.length;
+    }
+
+    private static String decodeString(ByteBuffer buffer, boolean latin1) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(bytes);
+        return new String(bytes, latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private static void requireFullyRead(ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException(buffer.remaining() + " unexpected trailing bytes");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Reads DecisionRequests and DecisionResponses in the {@link DecisionWireFormat} on the reactive stack.
+ */
+public class DecisionWireFormatDecoder extends AbstractDataBufferDecoder<Object> {
+
+    public DecisionWireFormatDecoder() {
+        super(DecisionWireFormat.MEDIA_TYPE);
+        setMaxInMemorySize(DecisionWireFormat.MAX_MESSAGE_SIZE);
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> clazz = elementType.toClass();
+        return (clazz == DecisionRequest.class || clazz == DecisionResponse.class)
+                && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType, Map<String, Object> hints) {
+        byte[] body = new byte[buffer.readableByteCount()];
+        buffer.read(body);
+        DataBufferUtils.release(buffer);
+        try {
+            return targetType.toClass() == DecisionRequest.class
+                    ? DecisionWireFormat.decodeRequest(ByteBuffer.wrap(body))
+                    : DecisionWireFormat.decodeResponse(ByteBuffer.wrap(body));
+        } catch (IllegalArgumentException e) {
+            throw new DecodingException("Malformed request!", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes DecisionRequests and DecisionResponses in the {@link DecisionWireFormat} on the servlet stack.
+ * Bodies larger than the largest encoded message are rejected without being read in full.
+ */
+public class DecisionWireFormatHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public DecisionWireFormatHttpMessageConverter() {
+        super(DecisionWireFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == DecisionRequest.class || clazz == DecisionResponse.class;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readNBytes(DecisionWireFormat.MAX_MESSAGE_SIZE + 1);
+        try {
+            if (body.length > DecisionWireFormat.MAX_MESSAGE_SIZE) {
+                throw new IllegalArgumentException("Message larger than " + DecisionWireFormat.MAX_MESSAGE_SIZE
+                        + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            return clazz == DecisionRequest.class
+                    ? DecisionWireFormat.decodeRequest(buffer) : DecisionWireFormat.decodeResponse(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Malformed request!", e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body = DecisionWireFormat.encode(value);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
@@ -0,0 +1,9 @@
+package ee.taltech.inbankbackend.endpoint;
+
+/**
+ * Holds the request data of the offer curve endpoint.
+ *
+ * @param personalCode The customer's personal ID code
+ */
+public record OfferCurveRequest(String personalCode) {
+}
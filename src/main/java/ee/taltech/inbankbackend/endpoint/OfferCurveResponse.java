@@ -0,0 +1,38 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.OfferCurve;
+
+import java.util.List;
+
+/**
+ * Holds the response data of the offer curve endpoint.
+ * The loan amounts are listed in period order, so the amount for a period p is at index p - minimumLoanPeriod.
+ *
+ * @param minimumLoanPeriod The shortest feasible loan period, if any
+ * @param maximumLoanPeriod The longest feasible loan period, if any
+ * @param loanAmounts The largest loan amount for each feasible loan period
+ * @param errorMessage An error message, if any
+ * @param policyVersion Version of the credit policy the curve was computed from, if it was computed
+ */
+public record OfferCurveResponse(Integer minimumLoanPeriod, Integer maximumLoanPeriod, List<Integer> loanAmounts,
+                                 String errorMessage, String policyVersion) {
+
+    /**
+     * @param offerCurve The offer curve to respond with
+     * @return An OfferCurveResponse with the fields of the offer curve
+     */
+    public static OfferCurveResponse from(OfferCurve offerCurve) {
+        return new OfferCurveResponse(offerCurve.getMinimumLoanPeriod(), offerCurve.getMaximumLoanPeriod(),
+                offerCurve.getLoanAmounts(), offerCurve.getErrorMessage(), offerCurve.getPolicyVersion());
+    }
+
+    /**
+     * Creates a response that carries only an error message.
+     *
+     * @param errorMessage The error message to return to the client
+     * @return An OfferCurveResponse without loan periods
+     */
+    public static OfferCurveResponse error(String errorMessage) {
+        return new OfferCurveResponse(null, null, List.of(), errorMessage, null);
+    }
+}
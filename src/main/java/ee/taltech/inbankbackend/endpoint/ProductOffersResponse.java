@@ -0,0 +1,39 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the response data of the product offers endpoint.
+ *
+ * @param products The offer curve of every product by product id, including the error message of a product that
+ *                 has no feasible loan
+ * @param errorMessage An error message if no product has a feasible loan or the request failed
+ */
+public record ProductOffersResponse(Map<String, OfferCurveResponse> products, String errorMessage) {
+
+    /**
+     * @param productOffers The product offers to respond with
+     * @return A ProductOffersResponse with an OfferCurveResponse for every product
+     */
+    public static ProductOffersResponse from(ProductOffers productOffers) {
+        Map<String, OfferCurveResponse> products = new LinkedHashMap<>();
+        for (Map.Entry<String, OfferCurve> product : productOffers.getOfferCurves().entrySet()) {
+            products.put(product.getKey(), OfferCurveResponse.from(product.getValue()));
+        }
+        return new ProductOffersResponse(products, productOffers.getErrorMessage());
+    }
+
+    /**
+     * Creates a response that carries only an error message.
+     *
+     * @param errorMessage The error message to return to the client
+     * @return A ProductOffersResponse without products
+     */
+    public static ProductOffersResponse error(String errorMessage) {
+        return new ProductOffersResponse(Map.of(), errorMessage);
+    }
+}
@@ -0,0 +1,143 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.idempotency.IdempotencyStore;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The WebFlux variant of {@link DecisionEngineController}, active when the application runs with
+ * spring.main.web-application-type=reactive. Decisions are composed from the asynchronous DecisionEngine API, so no
+ * thread is held while a credit segment is looked up.
+ */
+@RestController
+@RequestMapping("/loan")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDecisionEngineController {
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    private final DecisionEngine decisionEngine;
+    private final BatchDecisionProcessor batchDecisionProcessor;
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    ReactiveDecisionEngineController(DecisionEngine decisionEngine, BatchDecisionProcessor batchDecisionProcessor,
+                                     IdempotencyStore idempotencyStore) {
+        this.decisionEngine = decisionEngine;
+        this.batchDecisionProcessor = batchDecisionProcessor;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * A REST endpoint that handles requests for loan decisions, with the same responses as
+     * {@link DecisionEngineController#requestDecision(String, DecisionRequest, DecisionRequest)}.
+     *
+     * @param idempotencyKey Key identifying the attempts of one request, if any
+     * @param request The request body containing the customer's personal ID code, requested loan amount, and loan period
+     * @return A ResponseEntity with a DecisionResponse body containing the approved loan amount and period, and an error message (if any)
+     */
+    @PostMapping(value = "/decision",
+            produces = {MediaType.APPLICATION_JSON_VALUE, DecisionWireFormat.MEDIA_TYPE_VALUE})
+    public Mono<ResponseEntity<DecisionResponse>> requestDecision(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody DecisionRequest request) {
+        return Mono.fromFuture(() -> decide(idempotencyKey, request))
+                .map(decision -> ResponseEntity.status(DecisionEngineController.toHttpStatus(decision.getStatus()))
+                        .body(DecisionResponse.from(decision)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(DecisionResponse.error("An unexpected error occurred"))))
+                .defaultIfEmpty(ResponseEntity.unprocessableEntity()
+                        .body(DecisionResponse.error(DecisionEngineController.IDEMPOTENCY_KEY_REUSED)));
+    }
+
+    /**
+     * A REST endpoint that returns every loan a customer can get, with the same responses as
+     * {@link DecisionEngineController#requestOfferCurve(OfferCurveRequest)}.
+     *
+     * @param request The request body containing the customer's personal ID code
+     * @return A ResponseEntity with an OfferCurveResponse body containing the feasible loan periods and amounts,
+     * and an error message (if any)
+     */
+    @PostMapping("/offers")
+    public Mono<ResponseEntity<OfferCurveResponse>> requestOfferCurve(@RequestBody OfferCurveRequest request) {
+        return Mono.fromFuture(() -> decisionEngine.calculateOfferCurveAsync(request.personalCode()))
+                .map(offerCurve -> ResponseEntity.status(DecisionEngineController.toHttpStatus(offerCurve.getStatus()))
+                        .body(OfferCurveResponse.from(offerCurve)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(OfferCurveResponse.error("An unexpected error occurred"))));
+    }
+
+    /**
+     * A REST endpoint that returns every loan a customer can get from every credit product, with the same responses
+     * as {@link DecisionEngineController#requestProductOffers(OfferCurveRequest)}.
+     *
+     * @param request The request body containing the customer's personal ID code
+     * @return A ResponseEntity with a ProductOffersResponse body containing the feasible loan periods and amounts of
+     * every product, and an error message (if any)
+     */
+    @PostMapping("/products/offers")
+    public Mono<ResponseEntity<ProductOffersResponse>> requestProductOffers(@RequestBody OfferCurveRequest request) {
+        return Mono.fromFuture(() -> decisionEngine.calculateProductOffersAsync(request.personalCode()))
+                .map(productOffers -> ResponseEntity
+                        .status(DecisionEngineController.toHttpStatus(productOffers.getStatus()))
+                        .body(ProductOffersResponse.from(productOffers)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ProductOffersResponse.error("An unexpected error occurred"))));
+    }
+
+    /**
+     * A REST endpoint that handles batches of loan decision requests, with the same request and response format as
+     * {@link DecisionEngineController#requestDecisions(java.io.InputStream)}.
+     * The request body is only read as fast as the client consumes the decisions, with at most
+     * decision-engine.batch.max-in-flight lines evaluated at once.
+     *
+     * @param body The newline-delimited JSON request body
+     * @return The newline-delimited JSON BatchDecisionResponses in input order
+     */
+    @PostMapping(value = "/decisions", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchDecisionResponse> requestDecisions(@RequestBody Flux<DataBuffer> body) {
+        return LINE_DECODER.decode(body, STRING_TYPE, null, Map.of())
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .flatMapSequential(line -> Mono.fromFuture(
+                                () -> batchDecisionProcessor.evaluate(line.getT1() + 1, line.getT2())),
+                        batchDecisionProcessor.getMaxInFlight());
+    }
+
+    /**
+     * @return The decision, or a future completed with null if the idempotency key was reused for a different request
+     */
+    private CompletableFuture<Decision> decide(String idempotencyKey, DecisionRequest request) {
+        if (idempotencyKey == null) {
+            return decisionEngine.calculateApprovedLoanAsync(request.getPersonalCode(), request.getLoanAmount(),
+                    request.getLoanPeriod());
+        }
+
+        CompletableFuture<Decision> result = idempotencyStore.execute(idempotencyKey, request.getPersonalCode(),
+                request.getLoanAmount(), request.getLoanPeriod(),
+                () -> decisionEngine.calculateApprovedLoanAsync(request.getPersonalCode(), request.getLoanAmount(),
+                        request.getLoanPeriod()));
+        return result != null ? result : CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,273 @@
+package ee.taltech.inbankbackend.idempotency;
+
+import ee.taltech.inbankbackend.service.Decision;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates decision requests that carry the same idempotency key, so that a client retrying a request is served
+ * the decision of its first attempt instead of paying for another evaluation and credit registry lookup.
+ * A duplicate that arrives while the first request is still being decided waits for that decision; a duplicate that
+ * arrives later within the window is served the stored decision with a single hash lookup. Keys are remembered for
+ * the given window after their first request, and a key reused for a different request is reported as a conflict.
+ * Decisions that fail are not stored, so a retry after a failure is decided again.
+ * <p>
+ * The store is split into shards, each a concurrent map for lock-free lookups plus a timing wheel that drops expired
+ * keys. Only inserting a new key takes the lock of its shard, and it sweeps the wheel slots that have expired since
+ * the previous insert, so no background thread is needed. Once a shard is full, its oldest keys are dropped early.
+ */
+public class IdempotencyStore {
+
+    /**
+     * Request header with the client-generated idempotency key, e.g. a random UUID per logical request.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * Keys longer than this are not deduplicated.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final int SHARD_COUNT = 16;
+    private static final int WHEEL_SLOTS = 64;
+
+    private final Shard[] shards;
+    private final long windowNanos;
+    private final long tickNanos;
+    private final LongAdder firstRequests = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize Maximum number of keys remembered; 0 disables deduplication
+     * @param window Time for which a key is remembered after its first request
+     */
+    public IdempotencyStore(int maximumSize, Duration window) {
+        this.windowNanos = window.toNanos();
+        // A key is swept when its slot comes round again, which is at least a full window after it was stored
+        this.tickNanos = Math.max(1, windowNanos / (WHEEL_SLOTS - 1));
+        if (maximumSize <= 0 || windowNanos <= 0) {
+            this.shards = null;
+        } else {
+            int shardCount = Math.min(SHARD_COUNT, Integer.highestOneBit(maximumSize));
+            this.shards = new Shard[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new Shard((maximumSize + shardCount - 1) / shardCount, Math.floorDiv(System.nanoTime(),
+                        tickNanos));
+            }
+        }
+    }
+
+    /**
+     * Creates a store that never deduplicates.
+     *
+     * @return A disabled IdempotencyStore
+     */
+    public static IdempotencyStore disabled() {
+        return new IdempotencyStore(0, Duration.ZERO);
+    }
+
+    /**
+     * Decides a request at most once per idempotency key within the window.
+     *
+     * @param key Idempotency key sent by the client
+     * @param personalCode Requested personal code
+     * @param loanAmount Requested loan amount
+     * @param loanPeriod Requested loan period
+     * @param decision Decides the request; only called for the first request with the key
+     * @return The decision of the first request with the key, or null if the key was already used for a request
+     * with different values
+     */
+    public CompletableFuture<Decision> execute(String key, String personalCode, Long loanAmount, int loanPeriod,
+                                               Supplier<CompletableFuture<Decision>> decision) {
+        if (shards == null || key.length() > MAX_KEY_LENGTH) {
+            return decision.get();
+        }
+
+        long now = System.nanoTime();
+        Shard shard = shardFor(key);
+        Entry entry = shard.entries.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            Entry created = new Entry(key, personalCode, loanAmount, loanPeriod, now + windowNanos);
+            entry = shard.insert(created, now);
+            if (entry == created) {
+                firstRequests.increment();
+                decide(shard, created, decision);
+                return created.result.copy();
+            }
+        }
+
+        if (!entry.matches(personalCode, loanAmount, loanPeriod)) {
+            conflicts.increment();
+            return null;
+        }
+        replays.increment();
+        return entry.result.copy();
+    }
+
+    public long getFirstRequestCount() {
+        return firstRequests.sum();
+    }
+
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of keys currently held, including expired keys that have not been swept yet
+     */
+    public int size() {
+        if (shards == null) {
+            return 0;
+        }
+
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.entries.size();
+        }
+        return size;
+    }
+
+    private static void decide(Shard shard, Entry entry, Supplier<CompletableFuture<Decision>> decision) {
+        CompletableFuture<Decision> decided;
+        try {
+            decided = decision.get();
+        } catch (RuntimeException e) {
+            decided = CompletableFuture.failedFuture(e);
+        }
+        decided.whenComplete((result, error) -> {
+            if (error != null) {
+                // Forget the key before failing the waiting duplicates, so that their retries are decided again
+                shard.entries.remove(entry.key, entry);
+                entry.result.completeExceptionally(error);
+            } else {
+                entry.result.complete(result);
+            }
+        });
+    }
+
+    private Shard shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ hash >>> 16) & (shards.length - 1)];
+    }
+
+    /**
+     * The first request with a key and its decision, which completes once the request has been decided.
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String personalCode;
+        private final Long loanAmount;
+        private final int loanPeriod;
+        private final long expiresAt;
+        private final CompletableFuture<Decision> result = new CompletableFuture<>();
+
+        private Entry(String key, String personalCode, Long loanAmount, int loanPeriod, long expiresAt) {
+            this.key = key;
+            this.personalCode = personalCode;
+            this.loanAmount = loanAmount;
+            this.loanPeriod = loanPeriod;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        private boolean matches(String personalCode, Long loanAmount, int loanPeriod) {
+            return Objects.equals(this.personalCode, personalCode) && Objects.equals(this.loanAmount, loanAmount)
+                    && this.loanPeriod == loanPeriod;
+        }
+    }
+
+    /**
+     * A concurrent map of keys and a timing wheel with one slot per tick holding the keys stored during that tick.
+     */
+    private final class Shard {
+
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+        private final int capacity;
+        // Guarded by this shard
+        private final List<List<Entry>> wheel = new ArrayList<>(WHEEL_SLOTS);
+        private long currentTick;
+        private int wheelSize;
+
+        private Shard(int capacity, long currentTick) {
+            this.capacity = capacity;
+            this.currentTick = currentTick;
+            for (int i = 0; i < WHEEL_SLOTS; i++) {
+                wheel.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * @return The created entry, or the live entry another request stored for the key meanwhile
+         */
+        private synchronized Entry insert(Entry created, long now) {
+            advance(Math.floorDiv(now, tickNanos));
+            Entry existing = entries.get(created.key);
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+
+            if (wheelSize >= capacity) {
+                evictOldest();
+            }
+            entries.put(created.key, created);
+            wheel.get(slot(currentTick)).add(created);
+            wheelSize++;
+            return created;
+        }
+
+        private void advance(long tick) {
+            if (tick <= currentTick) {
+                return;
+            }
+            long first = Math.max(currentTick + 1, tick - WHEEL_SLOTS + 1);
+            for (long t = first; t <= tick; t++) {
+                sweep(wheel.get(slot(t)));
+            }
+            currentTick = tick;
+        }
+
+        private void evictOldest() {
+            for (int i = 1; i <= WHEEL_SLOTS; i++) {
+                List<Entry> oldest = wheel.get(slot(currentTick + i));
+                if (!oldest.isEmpty()) {
+                    evictions.add(oldest.size());
+                    sweep(oldest);
+                    return;
+                }
+            }
+        }
+
+        private void sweep(List<Entry> slot) {
+            for (Entry entry : slot) {
+                entries.remove(entry.key, entry);
+            }
+            wheelSize -= slot.size();
+            slot.clear();
+        }
+
+        private int slot(long tick) {
+            return (int) (tick & (WHEEL_SLOTS - 1));
+        }
+    }
+}
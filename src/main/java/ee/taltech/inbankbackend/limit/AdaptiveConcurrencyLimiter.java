@@ -0,0 +1,165 @@
+package ee.taltech.inbankbackend.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of requests in flight to a limit that adapts to the observed latency.
+ * The latency of completed requests is averaged over windows of 100ms. The lowest window average, re-measured every
+ * minute, is taken as the latency without queueing; while window averages stay within the latency tolerance of it
+ * the limit grows by its square root per window, and once they exceed it the limit shrinks in proportion to the
+ * excess. Requests queueing up anywhere behind the limiter therefore lower the limit until latency recovers, and the
+ * excess requests are rejected immediately instead of waiting. Admission is a single compare-and-set on the
+ * in-flight count; the limit is only recomputed by the request that closes a window.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int BASELINE_WINDOWS = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double latencyTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowLatency = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowEnd = new AtomicLong(System.nanoTime() + WINDOW_NANOS);
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // Only accessed by the request that closes a window, under the lock of updateLimit
+    private double estimatedLimit;
+    private long baselineLatency = Long.MAX_VALUE;
+    private int baselineWindows;
+
+    /**
+     * @param initialLimit Limit to start with
+     * @param minimumLimit Lowest limit, which is kept however high the latency gets
+     * @param maximumLimit Highest limit; 0 disables the limiter
+     * @param latencyTolerance Factor by which the latency may exceed the latency without queueing before the limit
+     *                         is lowered
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit, double latencyTolerance) {
+        if (maximumLimit != 0 && (minimumLimit < 1 || minimumLimit > initialLimit || initialLimit > maximumLimit)) {
+            throw new IllegalArgumentException("Invalid concurrency limits: initial " + initialLimit + ", minimum "
+                    + minimumLimit + ", maximum " + maximumLimit);
+        }
+        if (latencyTolerance < 1) {
+            throw new IllegalArgumentException("Latency tolerance must be at least 1: " + latencyTolerance);
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = maximumLimit == 0 ? Integer.MAX_VALUE : initialLimit;
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * Creates a limiter that admits every request.
+     *
+     * @return A disabled AdaptiveConcurrencyLimiter
+     */
+    public static AdaptiveConcurrencyLimiter disabled() {
+        return new AdaptiveConcurrencyLimiter(0, 0, 0, 1);
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight.
+     * Every admitted request must be {@link #release(long, long) released} when it completes.
+     *
+     * @return Whether the request was admitted
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * Completes an admitted request and records its latency.
+     *
+     * @param latencyNanos Time the request took
+     * @param now The current {@link System#nanoTime()}
+     */
+    public void release(long latencyNanos, long now) {
+        inFlight.decrementAndGet();
+        if (maximumLimit == 0) {
+            return;
+        }
+        windowLatency.add(latencyNanos);
+        windowSamples.increment();
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + WINDOW_NANOS)) {
+            updateLimit();
+        }
+    }
+
+    /**
+     * @return The current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return The number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The number of requests admitted
+     */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * @return The number of requests rejected because the limit was reached
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private synchronized void updateLimit() {
+        long samples = windowSamples.sumThenReset();
+        long totalLatency = windowLatency.sumThenReset();
+        if (samples < MIN_WINDOW_SAMPLES) {
+            // Too few requests for a meaningful average; carry them over to the next window
+            windowSamples.add(samples);
+            windowLatency.add(totalLatency);
+            return;
+        }
+        long latency = Math.max(1, totalLatency / samples);
+        if (++baselineWindows >= BASELINE_WINDOWS) {
+            baselineWindows = 0;
+            baselineLatency = latency;
+        } else {
+            baselineLatency = Math.min(baselineLatency, latency);
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, latencyTolerance * baselineLatency / latency));
+        if (gradient == 1 && inFlight.get() < estimatedLimit / 2) {
+            // The limit is not being used, so there is no evidence that a higher one would be safe
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minimumLimit,
+                Math.min(maximumLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,117 @@
+package ee.taltech.inbankbackend.limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A token bucket rate limiter with one bucket per API client.
+ * Each bucket is a single atomic "theoretical arrival time" that is advanced by compare-and-set (the generic cell
+ * rate algorithm), which behaves exactly like a token bucket refilled at the configured rate without a refill task
+ * or a lock. Buckets live in a concurrent map whose bins are locked independently, so different clients never
+ * contend. At most maximumClients buckets are kept; buckets that have refilled completely are swept when the map is
+ * full, and clients that still find it full share one overflow bucket.
+ */
+public class ClientRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final int maximumClients;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflowBucket = new AtomicLong(System.nanoTime());
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param requestsPerSecond Sustained rate each client may send requests at; 0 disables rate limiting
+     * @param burst Number of requests a client may send at once after being idle
+     * @param maximumClients Maximum number of clients with their own bucket
+     */
+    public ClientRateLimiter(double requestsPerSecond, int burst, int maximumClients) {
+        if (requestsPerSecond < 0 || burst < 1 || maximumClients < 1) {
+            throw new IllegalArgumentException("Invalid rate limit: " + requestsPerSecond + "/s, burst " + burst
+                    + ", " + maximumClients + " clients");
+        }
+        this.intervalNanos = requestsPerSecond == 0 ? 0 : Math.max(1, Math.round(1e9 / requestsPerSecond));
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.maximumClients = maximumClients;
+    }
+
+    /**
+     * Creates a rate limiter that admits every request.
+     *
+     * @return A disabled ClientRateLimiter
+     */
+    public static ClientRateLimiter disabled() {
+        return new ClientRateLimiter(0, 1, 1);
+    }
+
+    /**
+     * Takes a token from the bucket of the client if one is available.
+     *
+     * @param client Identifier of the API client
+     * @param now The current {@link System#nanoTime()}
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client may send the next request
+     */
+    public long tryAcquire(String client, long now) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        AtomicLong bucket = bucket(client, now);
+        while (true) {
+            long arrivalTime = bucket.get();
+            long start = arrivalTime - now > 0 ? arrivalTime : now;
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrivalTime, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return The number of requests rejected because their client exceeded its rate
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return The number of clients that currently have their own bucket
+     */
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maximumClients) {
+            sweep(now);
+            if (buckets.size() >= maximumClients) {
+                return overflowBucket;
+            }
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+
+    /**
+     * Removes the buckets of clients that have been idle long enough for their bucket to refill, at most once per
+     * second so that a stream of new clients cannot make every request scan the map.
+     */
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + SWEEP_INTERVAL_NANOS)) {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ee.taltech.inbankbackend.limit;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load in front of the decision endpoints on the servlet stack.
+ * A request whose client has exceeded its rate is rejected with 429 Too Many Requests and a Retry-After header,
+ * and a request arriving while the concurrency limit is reached is rejected with 503 Service Unavailable. Both
+ * happen before the request body is read, so a rejected request costs no parsing or validation work.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    /**
+     * Header identifying the API client, set by the API gateway; requests without it are limited by remote address.
+     */
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    static final byte[] TOO_MANY_REQUESTS = "{\"errorMessage\":\"Too many requests!\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    static final byte[] SERVICE_UNAVAILABLE = "{\"errorMessage\":\"Service overloaded, try again later!\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * @param rateLimiter The per-client rate limiter
+     * @param concurrencyLimiter The concurrency limiter
+     */
+    public LoadSheddingFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String client = request.getHeader(CLIENT_HEADER);
+        long wait = rateLimiter.tryAcquire(client != null ? client : request.getRemoteAddr(), start);
+        if (wait > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(wait)));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release(start);
+            }
+        }
+    }
+
+    /**
+     * @param waitNanos Time until the client may send the next request
+     * @return The time in whole seconds, rounded up
+     */
+    static long retryAfterSeconds(long waitNanos) {
+        return (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void release(long start) {
+        long now = System.nanoTime();
+        concurrencyLimiter.release(now - start, now);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Releases an asynchronous request once it completes, whichever way it does.
+     */
+    private final class ReleaseListener implements AsyncListener {
+
+        private final long start;
+        private boolean released;
+
+        ReleaseListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void releaseOnce() {
+            if (!released) {
+                released = true;
+                release(start);
+            }
+        }
+    }
+}
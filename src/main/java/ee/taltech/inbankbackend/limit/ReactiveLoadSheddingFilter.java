@@ -0,0 +1,76 @@
+package ee.taltech.inbankbackend.limit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * The WebFlux variant of {@link LoadSheddingFilter}, with the same responses. A request holds its place under the
+ * concurrency limit until its response completes, is cancelled or fails.
+ */
+public class ReactiveLoadSheddingFilter implements WebFilter {
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Set<String> paths;
+
+    /**
+     * @param rateLimiter The per-client rate limiter
+     * @param concurrencyLimiter The concurrency limiter
+     * @param paths Paths of the endpoints to shed load in front of
+     */
+    public ReactiveLoadSheddingFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                      Set<String> paths) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.paths = Set.copyOf(paths);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!paths.contains(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        long wait = rateLimiter.tryAcquire(client(request), start);
+        if (wait > 0) {
+            exchange.getResponse().getHeaders()
+                    .set(HttpHeaders.RETRY_AFTER, Long.toString(LoadSheddingFilter.retryAfterSeconds(wait)));
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, LoadSheddingFilter.TOO_MANY_REQUESTS);
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    LoadSheddingFilter.SERVICE_UNAVAILABLE);
+        }
+        return chain.filter(exchange).doFinally(signal -> {
+            long now = System.nanoTime();
+            concurrencyLimiter.release(now - start, now);
+        });
+    }
+
+    private static String client(ServerHttpRequest request) {
+        String client = request.getHeaders().getFirst(LoadSheddingFilter.CLIENT_HEADER);
+        if (client != null) {
+            return client;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "";
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,85 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the lending policy: the loan amount and period bounds and the credit modifier of every
+ * credit segment, identified by a version.
+ * All values are primitives, so reading them on the decision path involves no unboxing.
+ */
+@Getter
+public final class CreditPolicy {
+
+    private final String version;
+    private final int minimumLoanAmount;
+    private final int maximumLoanAmount;
+    private final int minimumLoanPeriod;
+    private final int maximumLoanPeriod;
+    @Getter(AccessLevel.NONE)
+    private final int[] creditModifiers;
+
+    /**
+     * @param version Identifies the policy in decisions; must not be blank
+     * @param minimumLoanAmount Smallest loan amount that can be requested or approved
+     * @param maximumLoanAmount Largest loan amount that can be requested or approved
+     * @param minimumLoanPeriod Shortest loan period in months
+     * @param maximumLoanPeriod Longest loan period in months
+     * @param creditModifiers Credit modifier of every credit segment; a missing segment gets no loan
+     * @throws IllegalArgumentException If a value is missing or out of range
+     */
+    public CreditPolicy(String version, int minimumLoanAmount, int maximumLoanAmount, int minimumLoanPeriod,
+                        int maximumLoanPeriod, Map<CreditSegment, Integer> creditModifiers) {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Credit policy version is missing");
+        }
+        if (minimumLoanAmount <= 0 || minimumLoanAmount > maximumLoanAmount) {
+            throw new IllegalArgumentException("Invalid loan amount bounds: " + minimumLoanAmount + ".."
+                    + maximumLoanAmount);
+        }
+        if (minimumLoanPeriod <= 0 || minimumLoanPeriod > maximumLoanPeriod) {
+            throw new IllegalArgumentException("Invalid loan period bounds: " + minimumLoanPeriod + ".."
+                    + maximumLoanPeriod);
+        }
+
+        this.version = version;
+        this.minimumLoanAmount = minimumLoanAmount;
+        this.maximumLoanAmount = maximumLoanAmount;
+        this.minimumLoanPeriod = minimumLoanPeriod;
+        this.maximumLoanPeriod = maximumLoanPeriod;
+        this.creditModifiers = new int[CreditSegment.values().length];
+        creditModifiers.forEach((segment, creditModifier) -> {
+            if (creditModifier == null || creditModifier < 0) {
+                throw new IllegalArgumentException("Invalid credit modifier for " + segment + ": " + creditModifier);
+            }
+            this.creditModifiers[segment.ordinal()] = creditModifier;
+        });
+    }
+
+    /**
+     * @param segment A credit segment
+     * @return The credit modifier of the segment
+     */
+    public int getCreditModifier(CreditSegment segment) {
+        return creditModifiers[segment.ordinal()];
+    }
+
+    /**
+     * @param loanAmount A requested loan amount
+     * @return True if the amount is within the bounds of the policy
+     */
+    public boolean isValidLoanAmount(long loanAmount) {
+        return minimumLoanAmount <= loanAmount && loanAmount <= maximumLoanAmount;
+    }
+
+    /**
+     * @param loanPeriod A requested loan period
+     * @return True if the period is within the bounds of the policy
+     */
+    public boolean isValidLoanPeriod(int loanPeriod) {
+        return minimumLoanPeriod <= loanPeriod && loanPeriod <= maximumLoanPeriod;
+    }
+}
@@ -0,0 +1,149 @@
+package ee.taltech.inbankbackend.policy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads credit policies from JSON documents of the form
+ * <pre>
+ * {
+ *   "version": "2023-03-01",
+ *   "loanAmount": {"minimum": 2000, "maximum": 10000},
+ *   "loanPeriod": {"minimum": 12, "maximum": 60},
+ *   "creditModifiers": {"DEBT": 0, "SEGMENT_1": 100, "SEGMENT_2": 300, "SEGMENT_3": 1000}
+ * }
+ * </pre>
+ * A product catalog is a JSON object with one such policy per product, keyed by the product id.
+ * Unknown properties are rejected so that a misspelt setting does not silently fall back to a default.
+ */
+public final class CreditPolicyReader {
+
+    /**
+     * Classpath location of the policy the application ships with.
+     */
+    public static final String BUNDLED_POLICY = "/credit-policy.json";
+
+    /**
+     * Classpath location of the product catalog the application ships with.
+     */
+    public static final String BUNDLED_PRODUCTS = "/credit-products.json";
+
+    private static final ObjectReader DOCUMENT_READER = new ObjectMapper().readerFor(PolicyDocument.class);
+    private static final ObjectReader CATALOG_READER = new ObjectMapper()
+            .readerFor(new TypeReference<LinkedHashMap<String, PolicyDocument>>() {
+            });
+
+    private CreditPolicyReader() {
+    }
+
+    /**
+     * @param file A JSON credit policy
+     * @return The policy in the file
+     * @throws IOException If the file cannot be read or is not a valid policy document
+     * @throws IllegalArgumentException If a value in the document is missing or out of range
+     */
+    public static CreditPolicy read(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return read(input);
+        }
+    }
+
+    /**
+     * @param input A JSON credit policy
+     * @return The policy in the input
+     * @throws IOException If the input cannot be read or is not a valid policy document
+     * @throws IllegalArgumentException If a value in the document is missing or out of range
+     */
+    public static CreditPolicy read(InputStream input) throws IOException {
+        return toPolicy(DOCUMENT_READER.readValue(input));
+    }
+
+    /**
+     * @param file A JSON product catalog
+     * @return The policy of every product in the file by product id, in the order of the file
+     * @throws IOException If the file cannot be read or is not a valid product catalog
+     * @throws IllegalArgumentException If a value in the catalog is missing or out of range
+     */
+    public static Map<String, CreditPolicy> readProducts(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return readProducts(input);
+        }
+    }
+
+    /**
+     * @param input A JSON product catalog
+     * @return The policy of every product in the input by product id, in the order of the input
+     * @throws IOException If the input cannot be read or is not a valid product catalog
+     * @throws IllegalArgumentException If a value in the catalog is missing or out of range
+     */
+    public static Map<String, CreditPolicy> readProducts(InputStream input) throws IOException {
+        Map<String, PolicyDocument> documents = CATALOG_READER.readValue(input);
+        if (documents == null) {
+            throw new IllegalArgumentException("Product catalog must be a JSON object");
+        }
+
+        Map<String, CreditPolicy> products = new LinkedHashMap<>();
+        documents.forEach((product, document) -> {
+            if (product.isBlank() || document == null) {
+                throw new IllegalArgumentException("Invalid product in catalog: '" + product + "'");
+            }
+            products.put(product, toPolicy(document));
+        });
+        return Collections.unmodifiableMap(products);
+    }
+
+    /**
+     * @return The policy the application ships with
+     */
+    public static CreditPolicy bundled() {
+        try (InputStream input = CreditPolicyReader.class.getResourceAsStream(BUNDLED_POLICY)) {
+            if (input == null) {
+                throw new IllegalStateException("Bundled credit policy " + BUNDLED_POLICY + " is missing");
+            }
+            return read(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The product catalog the application ships with
+     */
+    public static Map<String, CreditPolicy> bundledProducts() {
+        try (InputStream input = CreditPolicyReader.class.getResourceAsStream(BUNDLED_PRODUCTS)) {
+            if (input == null) {
+                throw new IllegalStateException("Bundled product catalog " + BUNDLED_PRODUCTS + " is missing");
+            }
+            return readProducts(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CreditPolicy toPolicy(PolicyDocument document) {
+        if (document.loanAmount() == null || document.loanPeriod() == null || document.creditModifiers() == null) {
+            throw new IllegalArgumentException("Credit policy must define loanAmount, loanPeriod and creditModifiers");
+        }
+
+        return new CreditPolicy(document.version(), document.loanAmount().minimum(), document.loanAmount().maximum(),
+                document.loanPeriod().minimum(), document.loanPeriod().maximum(), document.creditModifiers());
+    }
+
+    private record PolicyDocument(String version, Bounds loanAmount, Bounds loanPeriod,
+                                  Map<CreditSegment, Integer> creditModifiers) {
+    }
+
+    private record Bounds(int minimum, int maximum) {
+    }
+}
@@ -0,0 +1,116 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Publishes the credit policy in effect.
+ * The policy is read from decision-engine.policy.file, or from the policy bundled with the application if no file
+ * is configured. The file is watched and every valid new version is swapped in atomically: requests in flight finish
+ * with the snapshot they started with, and the decision cache is invalidated so that no decision of the previous
+ * policy is served afterwards. A file that cannot be read or is not a valid policy is ignored and the current policy
+ * stays in effect.
+ */
+@Component
+public class CreditPolicyStore implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CreditPolicyStore.class);
+
+    private final DecisionCache decisionCache;
+    private final Path policyFile;
+    private final CreditPolicyWatcher watcher;
+    private volatile PolicySnapshot current;
+
+    /**
+     * @param decisionCache The decision cache to invalidate when the policy changes
+     * @param policyFile Path of the JSON policy file; empty to use the bundled policy
+     * @param watch Whether to reload the policy file when it changes
+     * @throws IOException If the policy file cannot be read or watched
+     * @throws IllegalArgumentException If the policy file is not a valid policy
+     */
+    @Autowired
+    public CreditPolicyStore(DecisionCache decisionCache,
+                             @Value("${decision-engine.policy.file:}") String policyFile,
+                             @Value("${decision-engine.policy.watch:true}") boolean watch) throws IOException {
+        this.decisionCache = decisionCache;
+        this.policyFile = policyFile.isBlank() ? null : Path.of(policyFile);
+        publish(this.policyFile == null ? CreditPolicyReader.bundled() : CreditPolicyReader.read(this.policyFile));
+        this.watcher = this.policyFile != null && watch ? new CreditPolicyWatcher(this.policyFile, this::reload) : null;
+    }
+
+    private CreditPolicyStore(DecisionCache decisionCache, CreditPolicy policy) {
+        this.decisionCache = decisionCache;
+        this.policyFile = null;
+        this.watcher = null;
+        publish(policy);
+    }
+
+    /**
+     * Creates a store with a fixed initial policy that is only changed through {@link #publish(CreditPolicy)}.
+     *
+     * @param decisionCache The decision cache to invalidate when the policy changes
+     * @param policy The initial policy
+     * @return A new CreditPolicyStore
+     */
+    public static CreditPolicyStore of(DecisionCache decisionCache, CreditPolicy policy) {
+        return new CreditPolicyStore(decisionCache, policy);
+    }
+
+    /**
+     * @return The policy in effect
+     */
+    public PolicySnapshot current() {
+        return current;
+    }
+
+    /**
+     * Puts a new policy into effect.
+     *
+     * @param policy The new policy
+     */
+    public synchronized void publish(CreditPolicy policy) {
+        DecisionTable decisionTable = DecisionTable.fromPolicy(policy);
+        // Invalidate before publishing: decisions cached by requests still working with the previous snapshot carry
+        // the previous generation and are never served.
+        long cacheGeneration = decisionCache.invalidateAll();
+        current = new PolicySnapshot(decisionTable, cacheGeneration);
+    }
+
+    /**
+     * Reads the policy file again and puts it into effect if it is valid.
+     *
+     * @return True if the policy file was read and published
+     */
+    public boolean reload() {
+        if (policyFile == null) {
+            return false;
+        }
+
+        try {
+            CreditPolicy policy = CreditPolicyReader.read(policyFile);
+            publish(policy);
+            log.info("Loaded credit policy {} from {}", policy.getVersion(), policyFile);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring invalid credit policy file {}, keeping policy {}: {}", policyFile,
+                    current.policy().getVersion(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+}
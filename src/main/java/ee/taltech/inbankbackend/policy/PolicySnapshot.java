@@ -0,0 +1,21 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.service.DecisionTable;
+
+/**
+ * The credit policy in effect, as published by {@link CreditPolicyStore}.
+ * Everything a decision needs is reachable from this one immutable object, so a request that reads it once works
+ * with a consistent policy even if a new one is published meanwhile.
+ *
+ * @param decisionTable Decisions precomputed for the policy
+ * @param cacheGeneration Generation of the decision cache that holds decisions of this policy
+ */
+public record PolicySnapshot(DecisionTable decisionTable, long cacheGeneration) {
+
+    /**
+     * @return The credit policy
+     */
+    public CreditPolicy policy() {
+        return decisionTable.getPolicy();
+    }
+}
@@ -0,0 +1,87 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.service.DecisionTable;
+import ee.taltech.inbankbackend.service.ProductCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registers the credit products the customers can be evaluated for. The consumer loan is decided under the credit
+ * policy in effect in {@link CreditPolicyStore}, so policy changes apply to it here as well. The further products,
+ * such as car leasing or small-business credit, are read from decision-engine.products.file, or from the product
+ * catalog bundled with the application if no file is configured; each has its own loan amount and period bounds and
+ * credit modifiers. Every product's rules are compiled into a decision table once, and the tables are combined into
+ * a {@link ProductCatalog} that evaluates all products in one pass.
+ */
+@Component
+public class ProductRegistry {
+
+    /**
+     * Id of the consumer loan, decided by the decision endpoints under the credit policy in effect.
+     */
+    public static final String CONSUMER_LOAN = "consumer-loan";
+
+    private final CreditPolicyStore creditPolicyStore;
+    private final Map<String, DecisionTable> productTables;
+    private volatile Published published;
+
+    /**
+     * @param creditPolicyStore The store of the consumer loan policy
+     * @param productsFile Path of the JSON product catalog; empty to use the bundled catalog
+     * @throws IOException If the product catalog cannot be read
+     * @throws IllegalArgumentException If the product catalog is not valid
+     */
+    @Autowired
+    public ProductRegistry(CreditPolicyStore creditPolicyStore,
+                           @Value("${decision-engine.products.file:}") String productsFile) throws IOException {
+        this(creditPolicyStore, productsFile.isBlank()
+                ? CreditPolicyReader.bundledProducts() : CreditPolicyReader.readProducts(Path.of(productsFile)));
+    }
+
+    private ProductRegistry(CreditPolicyStore creditPolicyStore, Map<String, CreditPolicy> products) {
+        if (products.containsKey(CONSUMER_LOAN)) {
+            throw new IllegalArgumentException("The " + CONSUMER_LOAN + " product is defined by the credit policy");
+        }
+
+        this.creditPolicyStore = creditPolicyStore;
+        this.productTables = new LinkedHashMap<>();
+        products.forEach((product, policy) -> productTables.put(product, DecisionTable.fromPolicy(policy)));
+    }
+
+    /**
+     * Creates a registry with a fixed set of products besides the consumer loan.
+     *
+     * @param creditPolicyStore The store of the consumer loan policy
+     * @param products Policy of every further product by product id
+     * @return A new ProductRegistry
+     */
+    public static ProductRegistry of(CreditPolicyStore creditPolicyStore, Map<String, CreditPolicy> products) {
+        return new ProductRegistry(creditPolicyStore, products);
+    }
+
+    /**
+     * @return The catalog of the consumer loan under the credit policy in effect, followed by the further products
+     */
+    public ProductCatalog current() {
+        DecisionTable consumerLoan = creditPolicyStore.current().decisionTable();
+        Published published = this.published;
+        if (published == null || published.consumerLoan() != consumerLoan) {
+            // Rebuilt after a policy change; concurrent rebuilds produce equivalent catalogs
+            Map<String, DecisionTable> decisionTables = new LinkedHashMap<>();
+            decisionTables.put(CONSUMER_LOAN, consumerLoan);
+            decisionTables.putAll(productTables);
+            published = new Published(consumerLoan, ProductCatalog.of(decisionTables));
+            this.published = published;
+        }
+        return published.catalog();
+    }
+
+    private record Published(DecisionTable consumerLoan, ProductCatalog catalog) {
+    }
+}
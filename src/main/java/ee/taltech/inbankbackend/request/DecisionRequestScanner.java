@@ -0,0 +1,367 @@
+package ee.taltech.inbankbackend.request;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Extracts the fields of a decision request straight from raw bytes, without building an object graph.
+ * Supports a flat JSON object with the same fields as {@link ee.taltech.inbankbackend.endpoint.DecisionRequest} and a
+ * "personalCode,loanAmount,loanPeriod" CSV line. Numbers may be given as JSON numbers or as strings of digits.
+ * Anything the scanner does not understand, such as escape sequences, fractions or nested values, makes the scan fail.
+ * An instance is not thread-safe; it is meant to be reused by one thread for many records.
+ */
+public final class DecisionRequestScanner {
+
+    /**
+     * Personal codes longer than this are rejected by the scanner; valid codes have 11 digits.
+     */
+    public static final int MAX_PERSONAL_CODE_LENGTH = 32;
+
+    private static final byte[] PERSONAL_CODE_KEY = "personalCode".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOAN_AMOUNT_KEY = "loanAmount".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOAN_PERIOD_KEY = "loanPeriod".getBytes(StandardCharsets.US_ASCII);
+    private static final int UNKNOWN_FIELD = 0;
+    private static final int PERSONAL_CODE_FIELD = 1;
+    private static final int LOAN_AMOUNT_FIELD = 2;
+    private static final int LOAN_PERIOD_FIELD = 3;
+
+    private final byte[] personalCode = new byte[MAX_PERSONAL_CODE_LENGTH];
+    private int personalCodeLength;
+    private boolean hasLoanAmount;
+    private long loanAmount;
+    private int loanPeriod;
+
+    private ByteBuffer buffer;
+    private int position;
+    private int end;
+    // Value of the last number parsed by parseNumber.
+    private long number;
+
+    /**
+     * Scans a JSON object.
+     *
+     * @param buffer Buffer holding the record; its position and limit are not changed
+     * @param start Index of the first byte of the record
+     * @param end Index after the last byte of the record
+     * @return true if the record was understood, false if it is malformed or uses unsupported JSON features
+     */
+    public boolean scanJson(ByteBuffer buffer, int start, int end) {
+        reset(buffer, start, end);
+        skipWhitespace();
+        if (!consume('{')) {
+            return false;
+        }
+        skipWhitespace();
+        if (consume('}')) {
+            return isFullyConsumed();
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (!consume('"')) {
+                return false;
+            }
+            int keyStart = position;
+            int keyEnd = findStringEnd();
+            if (keyEnd < 0) {
+                return false;
+            }
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+            if (!scanJsonValue(fieldOf(keyStart, keyEnd))) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return isFullyConsumed();
+            }
+            if (!consume(',')) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Scans a "personalCode,loanAmount,loanPeriod" CSV line. Whitespace around the fields is ignored.
+     *
+     * @param buffer Buffer holding the record; its position and limit are not changed
+     * @param start Index of the first byte of the record
+     * @param end Index after the last byte of the record
+     * @return true if the record has three well-formed fields, false otherwise
+     */
+    public boolean scanCsv(ByteBuffer buffer, int start, int end) {
+        reset(buffer, start, end);
+
+        int fieldEnd = findCsvFieldEnd();
+        if (fieldEnd == this.end || !copyPersonalCode(position, trimEnd(position, fieldEnd))) {
+            return false;
+        }
+        position = fieldEnd + 1;
+
+        fieldEnd = findCsvFieldEnd();
+        if (fieldEnd == this.end || !parseNumber(position, trimEnd(position, fieldEnd))) {
+            return false;
+        }
+        hasLoanAmount = true;
+        loanAmount = number;
+        position = fieldEnd + 1;
+
+        fieldEnd = findCsvFieldEnd();
+        if (fieldEnd != this.end || !parseNumber(position, trimEnd(position, fieldEnd)) || !fitsInt(number)) {
+            return false;
+        }
+        loanPeriod = (int) number;
+        return true;
+    }
+
+    /**
+     * @return true if the last scanned record contained a personal code
+     */
+    public boolean hasPersonalCode() {
+        return personalCodeLength >= 0;
+    }
+
+    /**
+     * @return The personal code of the last scanned record, or null if it had none
+     */
+    public String getPersonalCode() {
+        return hasPersonalCode() ? new String(personalCode, 0, personalCodeLength, StandardCharsets.US_ASCII) : null;
+    }
+
+    /**
+     * @return true if the last scanned record contained a loan amount
+     */
+    public boolean hasLoanAmount() {
+        return hasLoanAmount;
+    }
+
+    /**
+     * @return The loan amount of the last scanned record, only meaningful if {@link #hasLoanAmount()} is true
+     */
+    public long getLoanAmount() {
+        return loanAmount;
+    }
+
+    /**
+     * @return The loan period of the last scanned record, 0 if it had none
+     */
+    public int getLoanPeriod() {
+        return loanPeriod;
+    }
+
+    private void reset(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+        this.personalCodeLength = -1;
+        this.hasLoanAmount = false;
+        this.loanAmount = 0;
+        this.loanPeriod = 0;
+    }
+
+    private boolean scanJsonValue(int field) {
+        if (position == end) {
+            return false;
+        }
+        byte first = buffer.get(position);
+
+        if (first == '"') {
+            position++;
+            int valueStart = position;
+            int valueEnd = findStringEnd();
+            if (valueEnd < 0) {
+                return false;
+            }
+            return switch (field) {
+                case PERSONAL_CODE_FIELD -> copyPersonalCode(valueStart, valueEnd);
+                case LOAN_AMOUNT_FIELD -> parseNumber(valueStart, valueEnd) && assignLoanAmount();
+                case LOAN_PERIOD_FIELD -> parseNumber(valueStart, valueEnd) && assignLoanPeriod();
+                default -> true;
+            };
+        }
+        if (first == '-' || isDigit(first)) {
+            int valueStart = position;
+            while (position < end && isNumberChar(buffer.get(position))) {
+                position++;
+            }
+            return switch (field) {
+                case PERSONAL_CODE_FIELD -> false;
+                case LOAN_AMOUNT_FIELD -> parseNumber(valueStart, position) && assignLoanAmount();
+                case LOAN_PERIOD_FIELD -> parseNumber(valueStart, position) && assignLoanPeriod();
+                default -> true;
+            };
+        }
+        if (consumeLiteral("null")) {
+            if (field == PERSONAL_CODE_FIELD) {
+                personalCodeLength = -1;
+            } else if (field == LOAN_AMOUNT_FIELD) {
+                hasLoanAmount = false;
+            } else if (field == LOAN_PERIOD_FIELD) {
+                loanPeriod = 0;
+            }
+            return true;
+        }
+        if (consumeLiteral("true") || consumeLiteral("false")) {
+            return field == UNKNOWN_FIELD;
+        }
+        return false;
+    }
+
+    private boolean assignLoanAmount() {
+        hasLoanAmount = true;
+        loanAmount = number;
+        return true;
+    }
+
+    private boolean assignLoanPeriod() {
+        if (!fitsInt(number)) {
+            return false;
+        }
+        loanPeriod = (int) number;
+        return true;
+    }
+
+    /**
+     * Parses an optionally signed decimal integer of at most 18 digits into {@link #number}.
+     */
+    private boolean parseNumber(int from, int to) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int digitsFrom = negative ? from + 1 : from;
+        if (digitsFrom == to || to - digitsFrom > 18) {
+            return false;
+        }
+
+        long value = 0;
+        for (int i = digitsFrom; i < to; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                return false;
+            }
+            value = value * 10 + (b - '0');
+        }
+        number = negative ? -value : value;
+        return true;
+    }
+
+    private boolean copyPersonalCode(int from, int to) {
+        int length = to - from;
+        if (length > MAX_PERSONAL_CODE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            personalCode[i] = buffer.get(from + i);
+        }
+        personalCodeLength = length;
+        return true;
+    }
+
+    private int fieldOf(int keyStart, int keyEnd) {
+        if (matches(keyStart, keyEnd, PERSONAL_CODE_KEY)) {
+            return PERSONAL_CODE_FIELD;
+        } else if (matches(keyStart, keyEnd, LOAN_AMOUNT_KEY)) {
+            return LOAN_AMOUNT_FIELD;
+        } else if (matches(keyStart, keyEnd, LOAN_PERIOD_KEY)) {
+            return LOAN_PERIOD_FIELD;
+        }
+        return UNKNOWN_FIELD;
+    }
+
+    private boolean matches(int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves past the closing quote of a string whose opening quote has already been consumed.
+     *
+     * @return Index of the closing quote, or -1 if the string is unterminated or contains an escape sequence
+     */
+    private int findStringEnd() {
+        while (position < end) {
+            byte b = buffer.get(position++);
+            if (b == '"') {
+                return position - 1;
+            }
+            if (b == '\\') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private int findCsvFieldEnd() {
+        while (position < end && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+        int i = position;
+        while (i < end && buffer.get(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && isWhitespace(buffer.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private boolean consume(char expected) {
+        if (position < end && buffer.get(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean consumeLiteral(String literal) {
+        if (end - position < literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buffer.get(position + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        position += literal.length();
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (position < end && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    private boolean isFullyConsumed() {
+        skipWhitespace();
+        return position == end;
+    }
+
+    private static boolean fitsInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isNumberChar(byte b) {
+        return isDigit(b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -0,0 +1,122 @@
+package ee.taltech.inbankbackend.request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file of newline-separated records through memory-mapped chunks that end on line boundaries, so every line
+ * lies entirely within one chunk and can be scanned straight from the mapped bytes.
+ * A chunk ends at the first newline after its nominal size; a line that does not end within the given maximum line
+ * length past that point fails the read.
+ */
+public final class MappedLines {
+
+    private MappedLines() {
+    }
+
+    /**
+     * Receives one line of a mapped chunk, without its terminating newline.
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+
+        /**
+         * @param buffer The mapped chunk
+         * @param start Index of the first byte of the line
+         * @param end Index after the last byte of the line
+         */
+        void accept(ByteBuffer buffer, int start, int end);
+    }
+
+    /**
+     * Passes every line of a file to the consumer, in file order. A last line without a newline is included.
+     *
+     * @param path The file to read
+     * @param chunkSize Nominal number of bytes to map at a time
+     * @param maxLineLength Longest line that may cross the nominal end of a chunk
+     * @param consumer Receives the lines
+     * @throws IOException If the file cannot be read, or if a line is too long
+     */
+    public static void forEachLine(Path path, int chunkSize, int maxLineLength, LineConsumer consumer)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkStart = 0;
+            while (chunkStart < size) {
+                long chunkEnd = chunkEnd(channel, chunkStart, size, chunkSize, maxLineLength);
+                MappedByteBuffer chunk = map(channel, chunkStart, chunkEnd);
+                int limit = chunk.limit();
+                for (int lineStart = 0; lineStart < limit; ) {
+                    int lineEnd = lineEnd(chunk, lineStart);
+                    consumer.accept(chunk, lineStart, lineEnd);
+                    lineStart = lineEnd + 1;
+                }
+                chunkStart = chunkEnd;
+            }
+        }
+    }
+
+    /**
+     * Finds where the chunk starting at the given position ends: just after the first newline at or beyond its
+     * nominal size, or at the end of the file.
+     *
+     * @param channel The file
+     * @param chunkStart Position of the chunk, at the start of a line
+     * @param size Size of the file
+     * @param chunkSize Nominal size of the chunk
+     * @param maxLineLength Longest line that may cross the nominal end of the chunk
+     * @return Position just after the end of the chunk
+     * @throws IOException If the file cannot be mapped, or if no line ends within maxLineLength bytes of the nominal
+     * end of the chunk
+     */
+    public static long chunkEnd(FileChannel channel, long chunkStart, long size, int chunkSize, int maxLineLength)
+            throws IOException {
+        long tentativeEnd = chunkStart + chunkSize;
+        if (tentativeEnd >= size) {
+            return size;
+        }
+
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, tentativeEnd,
+                Math.min(maxLineLength, size - tentativeEnd));
+        int newline = lineEnd(window, 0);
+        if (newline < window.limit()) {
+            return tentativeEnd + newline + 1;
+        }
+        if (tentativeEnd + window.limit() == size) {
+            return size;
+        }
+        throw new IOException("Line near byte " + tentativeEnd + " is longer than " + maxLineLength + " bytes");
+    }
+
+    /**
+     * Maps a chunk of the file for reading.
+     *
+     * @param channel The file
+     * @param chunkStart Position of the chunk
+     * @param chunkEnd Position just after the end of the chunk, see {@link #chunkEnd}
+     * @return The mapped chunk, indexed from 0
+     * @throws IOException If the file cannot be mapped
+     */
+    public static MappedByteBuffer map(FileChannel channel, long chunkStart, long chunkEnd) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+    }
+
+    /**
+     * @param buffer A chunk of lines
+     * @param from Index to start looking from
+     * @return Index of the next newline, or the limit of the buffer if there is none
+     */
+    public static int lineEnd(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+}
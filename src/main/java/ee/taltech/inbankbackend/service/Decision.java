@@ -4,12 +4,69 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 /**
- * Holds the response data of the REST endpoint.
+ * Holds the outcome of a loan decision, tagged with the version of the credit policy that produced it.
+ * Rejections carry no loan amount or period and are shared instances, so rejecting a request allocates nothing.
  */
 @Getter
 @AllArgsConstructor
 public class Decision {
+    private static final Decision[] REJECTIONS = new Decision[DecisionStatus.values().length];
+
+    static {
+        for (DecisionStatus status : DecisionStatus.values()) {
+            if (status != DecisionStatus.APPROVED) {
+                REJECTIONS[status.ordinal()] = rejected(status, null);
+            }
+        }
+    }
+
+    private final DecisionStatus status;
     private final Integer loanAmount;
     private final Integer loanPeriod;
     private final String errorMessage;
+    private final String policyVersion;
+
+    /**
+     * Creates an approved decision that is not tagged with a policy version.
+     *
+     * @param loanAmount Approved loan amount
+     * @param loanPeriod Approved loan period
+     * @return A new approved Decision
+     */
+    public static Decision approved(int loanAmount, int loanPeriod) {
+        return approved(loanAmount, loanPeriod, null);
+    }
+
+    /**
+     * Creates an approved decision.
+     *
+     * @param loanAmount Approved loan amount
+     * @param loanPeriod Approved loan period
+     * @param policyVersion Version of the credit policy that approved the loan
+     * @return A new approved Decision
+     */
+    public static Decision approved(int loanAmount, int loanPeriod, String policyVersion) {
+        return new Decision(DecisionStatus.APPROVED, loanAmount, loanPeriod, null, policyVersion);
+    }
+
+    /**
+     * Returns the shared rejection for the given status that is not tagged with a policy version.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @return A Decision with the status and its error message
+     */
+    public static Decision rejected(DecisionStatus status) {
+        return REJECTIONS[status.ordinal()];
+    }
+
+    /**
+     * Creates a rejection. Callers that reject repeatedly under the same policy should share the instance.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @param policyVersion Version of the credit policy that rejected the request
+     * @return A new Decision with the status and its error message
+     */
+    public static Decision rejected(DecisionStatus status, String policyVersion) {
+        return new Decision(status, null, null, status.getErrorMessage(), policyVersion);
+    }
 }
@@ -0,0 +1,225 @@
+package ee.taltech.inbankbackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of decisions keyed by personal code, loan period and loan amount.
+ * Entries are evicted in least-recently-used order once the maximum size is reached and expire after a fixed
+ * time to live. The cache is split into independently locked segments so that concurrent requests rarely contend.
+ * {@link #invalidateAll()} drops every entry in constant time; it must be called whenever the credit policy or the
+ * credit modifiers change.
+ */
+@Component
+public class DecisionCache {
+
+    /**
+     * Returned by {@link #key(CharSequence, int, long)} for inputs that do not fit into the key encoding.
+     */
+    public static final long UNCACHEABLE = -1;
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int LOAN_PERIOD_BITS = 7;
+    private static final int LOAN_AMOUNT_BITS = 18;
+
+    private final Segment[] segments;
+    private final long timeToLiveNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long generation;
+
+    /**
+     * @param maximumSize Maximum number of entries; 0 disables the cache
+     * @param timeToLive Time after which an entry expires
+     */
+    @Autowired
+    public DecisionCache(@Value("${decision-engine.cache.maximum-size:100000}") int maximumSize,
+                         @Value("${decision-engine.cache.time-to-live:5m}") Duration timeToLive) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+        if (maximumSize <= 0) {
+            this.segments = null;
+        } else {
+            int segmentCount = Math.min(SEGMENT_COUNT, Integer.highestOneBit(maximumSize));
+            this.segments = new Segment[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = new Segment((maximumSize + segmentCount - 1) / segmentCount);
+            }
+        }
+    }
+
+    /**
+     * Creates a cache that never stores anything.
+     *
+     * @return A disabled DecisionCache
+     */
+    public static DecisionCache disabled() {
+        return new DecisionCache(0, Duration.ZERO);
+    }
+
+    /**
+     * Encodes a validated request into a cache key: the 11-digit personal code, then 7 bits of loan period and
+     * 18 bits of loan amount.
+     *
+     * @param personalCode A valid 11-digit personal ID code
+     * @param loanPeriod Requested loan period
+     * @param loanAmount Requested loan amount
+     * @return The cache key, or {@link #UNCACHEABLE} if the period or amount does not fit into the encoding
+     */
+    public static long key(CharSequence personalCode, int loanPeriod, long loanAmount) {
+        if (loanPeriod < 0 || loanPeriod >= 1 << LOAN_PERIOD_BITS
+                || loanAmount < 0 || loanAmount >= 1 << LOAN_AMOUNT_BITS) {
+            return UNCACHEABLE;
+        }
+
+        long code = 0;
+        for (int i = 0; i < personalCode.length(); i++) {
+            code = code * 10 + personalCode.charAt(i) - '0';
+        }
+        return (code << LOAN_PERIOD_BITS | loanPeriod) << LOAN_AMOUNT_BITS | loanAmount;
+    }
+
+    /**
+     * Returns the cached decision for a key.
+     *
+     * @param key Key created by {@link #key(CharSequence, int, long)}
+     * @return The cached decision, or null if there is no live entry for the key
+     */
+    public Decision get(long key) {
+        if (segments == null || key == UNCACHEABLE) {
+            return null;
+        }
+
+        Segment segment = segmentFor(key);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && !isLive(entry)) {
+                segment.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.decision();
+    }
+
+    /**
+     * Stores a decision for a key.
+     *
+     * @param key Key created by {@link #key(CharSequence, int, long)}
+     * @param decision The decision to cache
+     */
+    public void put(long key, Decision decision) {
+        put(key, decision, generation);
+    }
+
+    /**
+     * Stores a decision that was computed while the cache was at the given generation. If the cache has been
+     * invalidated since, the entry is never returned, so a decision computed under a replaced policy cannot outlive
+     * the invalidation.
+     *
+     * @param key Key created by {@link #key(CharSequence, int, long)}
+     * @param decision The decision to cache
+     * @param generation Value of {@link #getGeneration()} before the decision was computed
+     */
+    public void put(long key, Decision decision, long generation) {
+        if (segments == null || key == UNCACHEABLE) {
+            return;
+        }
+
+        Entry entry = new Entry(decision, System.nanoTime(), generation);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    /**
+     * Invalidates all entries. Entries are removed lazily when they are next looked up or evicted.
+     *
+     * @return The new generation of the cache
+     */
+    public synchronized long invalidateAll() {
+        return ++generation;
+    }
+
+    /**
+     * @return The current generation of the cache, incremented by every {@link #invalidateAll()}
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of entries currently held, including expired entries that have not been removed yet
+     */
+    public int size() {
+        if (segments == null) {
+            return 0;
+        }
+
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private boolean isLive(Entry entry) {
+        return entry.generation() == generation && System.nanoTime() - entry.createdAt() <= timeToLiveNanos;
+    }
+
+    private Segment segmentFor(long key) {
+        int hash = Long.hashCode(key);
+        return segments[(hash ^ hash >>> 16) & (segments.length - 1)];
+    }
+
+    private record Entry(Decision decision, long createdAt, long generation) {
+    }
+
+    /**
+     * An access-ordered map that evicts its least recently used entry once it exceeds its capacity.
+     */
+    private final class Segment extends LinkedHashMap<Long, Entry> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
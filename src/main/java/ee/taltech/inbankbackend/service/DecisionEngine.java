@@ -1,127 +1,275 @@
 package ee.taltech.inbankbackend.service;
 
-import com.github.vladislavgoltjajev.personalcode.locale.estonia.EstonianPersonalCodeValidator;
-import ee.taltech.inbankbackend.config.DecisionEngineConstants;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.CreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.policy.PolicySnapshot;
+import ee.taltech.inbankbackend.policy.ProductRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
- * A service class that provides a method for calculating an approved loan amount and period for a customer.
+ * A service class that provides methods for calculating an approved loan amount and period for a customer,
+ * every loan the customer can get, and every loan the customer can get from each credit product.
  * The loan amount is calculated based on the customer's credit modifier,
- * which is determined by the last four digits of their ID code.
+ * which is determined by the credit segment that the CreditModifierProvider reports for their ID code.
+ * The bounds and credit modifiers come from the credit policy in effect, which every request reads exactly once.
+ * Every decision, offer query and product offer query is recorded in the audit log.
+ * The engine holds no per-request state, so a single instance can safely serve concurrent requests.
  */
 @Service
 public class DecisionEngine {
 
-    // Used to check for the validity of the presented ID code.
-    private final EstonianPersonalCodeValidator validator = new EstonianPersonalCodeValidator();
-    private int creditModifier = 0;
+    private final CreditPolicyStore creditPolicyStore;
+    private final DecisionCache decisionCache;
+    private final CreditModifierProvider creditModifierProvider;
+    private final DecisionMetrics decisionMetrics;
+    private final AuditLog auditLog;
+    private final ProductRegistry productRegistry;
+
+    @Autowired
+    public DecisionEngine(CreditPolicyStore creditPolicyStore, DecisionCache decisionCache,
+                          CreditModifierProvider creditModifierProvider, DecisionMetrics decisionMetrics,
+                          AuditLog auditLog, ProductRegistry productRegistry) {
+        this.creditPolicyStore = creditPolicyStore;
+        this.decisionCache = decisionCache;
+        this.creditModifierProvider = creditModifierProvider;
+        this.decisionMetrics = decisionMetrics;
+        this.auditLog = auditLog;
+        this.productRegistry = productRegistry;
+    }
+
+    /**
+     * Creates an engine whose only product is the consumer loan.
+     */
+    public DecisionEngine(CreditPolicyStore creditPolicyStore, DecisionCache decisionCache,
+                          CreditModifierProvider creditModifierProvider, DecisionMetrics decisionMetrics,
+                          AuditLog auditLog) {
+        this(creditPolicyStore, decisionCache, creditModifierProvider, decisionMetrics, auditLog,
+                ProductRegistry.of(creditPolicyStore, Map.of()));
+    }
 
     /**
      * Calculates the maximum loan amount and period for the customer based on their ID code,
      * the requested loan amount and the loan period.
-     * The loan period must be between 12 and 60 months (inclusive).
-     * The loan amount must be between 2000 and 10000€ months (inclusive).
+     * The loan period and amount must be within the bounds of the credit policy (inclusive), by default
+     * 12 to 60 months and 2000 to 10000€.
+     * Invalid inputs and customers without a valid loan are reported through the status of the returned Decision.
+     * Blocks until the credit segment of the customer is known; prefer
+     * {@link #calculateApprovedLoanAsync(String, Long, int)} where the caller can continue asynchronously.
      *
      * @param personalCode ID code of the customer that made the request.
      * @param loanAmount Requested loan amount
      * @param loanPeriod Requested loan period
-     * @return A Decision object containing the approved loan amount and period, and an error message (if any)
-     * @throws InvalidPersonalCodeException If the provided personal ID code is invalid
-     * @throws InvalidLoanAmountException If the requested loan amount is invalid
-     * @throws InvalidLoanPeriodException If the requested loan period is invalid
-     * @throws NoValidLoanException If there is no valid loan found for the given ID code, loan amount and loan period
+     * @return A Decision object containing the status, the approved loan amount and period,
+     * and an error message (if any)
      */
-    public Decision calculateApprovedLoan(String personalCode, Long loanAmount, int loanPeriod)
-            throws InvalidPersonalCodeException, InvalidLoanAmountException, InvalidLoanPeriodException,
-            NoValidLoanException {
-        try {
-            verifyInputs(personalCode, loanAmount, loanPeriod);
-        } catch (Exception e) {
-            return new Decision(null, null, e.getMessage());
-        }
+    public Decision calculateApprovedLoan(String personalCode, Long loanAmount, int loanPeriod) {
+        return calculateApprovedLoanAsync(personalCode, loanAmount, loanPeriod).join();
+    }
 
-        int outputLoanAmount;
-        creditModifier = getCreditModifier(personalCode);
+    /**
+     * Calculates the maximum loan amount and period for the customer without blocking on the credit segment lookup.
+     * Invalid inputs and decisions found in the decision cache complete immediately.
+     *
+     * @param personalCode ID code of the customer that made the request.
+     * @param loanAmount Requested loan amount
+     * @param loanPeriod Requested loan period
+     * @return A future that completes with the Decision, or exceptionally if the credit segment lookup fails
+     */
+    public CompletableFuture<Decision> calculateApprovedLoanAsync(String personalCode, Long loanAmount,
+                                                                  int loanPeriod) {
+        long validationStarted = System.nanoTime();
+        PolicySnapshot policySnapshot = creditPolicyStore.current();
+        DecisionTable decisionTable = policySnapshot.decisionTable();
+        int lastFourDigits = PersonalCodeParser.parseLastFourDigits(personalCode);
+        DecisionStatus inputStatus = verifyInputs(decisionTable.getPolicy(), lastFourDigits, loanAmount, loanPeriod);
+        long lookupStarted = System.nanoTime();
+        decisionMetrics.recordValidation(lookupStarted - validationStarted);
+        if (inputStatus != DecisionStatus.APPROVED) {
+            return CompletableFuture.completedFuture(
+                    record(personalCode, loanAmount, loanPeriod, decisionTable.rejected(inputStatus)));
+        }
 
-        if (creditModifier == 0) {
-            throw new NoValidLoanException("No valid loan found!");
+        long cacheKey = DecisionCache.key(personalCode, loanPeriod, loanAmount);
+        Decision cached = decisionCache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(record(personalCode, loanAmount, loanPeriod, cached));
         }
 
-        while (highestValidLoanAmount(loanPeriod) < DecisionEngineConstants.MINIMUM_LOAN_AMOUNT) {
-            loanPeriod++;
+        return creditModifierProvider.lookup(personalCode).handle((lookup, failure) -> {
+            if (failure != null) {
+                throw lookupFailed(failure);
+            }
+
+            long solveStarted = System.nanoTime();
+            decisionMetrics.recordLookup(solveStarted - lookupStarted);
+            decisionMetrics.recordSegment(lookup.segment());
+            Decision decision = decisionTable.lookup(lookup.segment(), loanPeriod);
+            decisionMetrics.recordSolve(System.nanoTime() - solveStarted);
+
+            // A stale or fallback segment only stands in while the registry is unavailable
+            if (!lookup.degraded()) {
+                decisionCache.put(cacheKey, decision, policySnapshot.cacheGeneration());
+            }
+            return record(personalCode, loanAmount, loanPeriod, decision);
+        });
+    }
+
+    /**
+     * Checks the inputs of a decision request against the credit policy in effect without deciding it, so that an
+     * invalid request can be rejected before any further work is done for it. A rejection is recorded like any other
+     * decision; a request that passes still has to be decided with
+     * {@link #calculateApprovedLoanAsync(String, Long, int)}, which checks it again under the policy in effect then.
+     *
+     * @param personalCode ID code of the customer that made the request.
+     * @param loanAmount Requested loan amount
+     * @param loanPeriod Requested loan period
+     * @return The rejection of the request, or null if all inputs are valid
+     */
+    public Decision rejectInvalidInputs(String personalCode, Long loanAmount, int loanPeriod) {
+        DecisionTable decisionTable = creditPolicyStore.current().decisionTable();
+        DecisionStatus inputStatus = verifyInputs(decisionTable.getPolicy(),
+                PersonalCodeParser.parseLastFourDigits(personalCode), loanAmount, loanPeriod);
+        if (inputStatus == DecisionStatus.APPROVED) {
+            return null;
         }
+        return record(personalCode, loanAmount, loanPeriod, decisionTable.rejected(inputStatus));
+    }
+
+    private Decision record(String personalCode, Long loanAmount, int loanPeriod, Decision decision) {
+        auditLog.record(personalCode, loanAmount, loanPeriod, decision);
+        return decisionMetrics.recordOutcome(decision, loanPeriod);
+    }
+
+    /**
+     * Calculates every loan the customer can get: the largest loan amount for each loan period within the bounds of
+     * the credit policy for which the customer can get at least the minimum loan amount.
+     * Blocks until the credit segment of the customer is known; prefer {@link #calculateOfferCurveAsync(String)}
+     * where the caller can continue asynchronously.
+     *
+     * @param personalCode ID code of the customer that made the request.
+     * @return An OfferCurve with the feasible loan periods and their largest loan amounts, or a rejection
+     */
+    public OfferCurve calculateOfferCurve(String personalCode) {
+        return calculateOfferCurveAsync(personalCode).join();
+    }
 
-        if (loanPeriod <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD) {
-            outputLoanAmount = Math.min(DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT, highestValidLoanAmount(loanPeriod));
-        } else {
-            throw new NoValidLoanException("No valid loan found!");
+    /**
+     * Calculates every loan the customer can get without blocking on the credit segment lookup.
+     * The curve only depends on the credit segment, so it is taken from the decision table of the policy in effect.
+     * An invalid personal code completes immediately.
+     *
+     * @param personalCode ID code of the customer that made the request.
+     * @return A future that completes with the OfferCurve, or exceptionally if the credit segment lookup fails
+     */
+    public CompletableFuture<OfferCurve> calculateOfferCurveAsync(String personalCode) {
+        long validationStarted = System.nanoTime();
+        DecisionTable decisionTable = creditPolicyStore.current().decisionTable();
+        int lastFourDigits = PersonalCodeParser.parseLastFourDigits(personalCode);
+        long lookupStarted = System.nanoTime();
+        decisionMetrics.recordValidation(lookupStarted - validationStarted);
+        if (lastFourDigits == PersonalCodeParser.INVALID) {
+            return CompletableFuture.completedFuture(
+                    record(personalCode, decisionTable.rejectedOfferCurve(DecisionStatus.INVALID_PERSONAL_CODE)));
         }
 
-        return new Decision(outputLoanAmount, loanPeriod, null);
+        return creditModifierProvider.getCreditSegment(personalCode).handle((segment, failure) -> {
+            if (failure != null) {
+                throw lookupFailed(failure);
+            }
+
+            decisionMetrics.recordLookup(System.nanoTime() - lookupStarted);
+            decisionMetrics.recordSegment(segment);
+            return record(personalCode, decisionTable.offerCurve(segment));
+        });
+    }
+
+    private OfferCurve record(String personalCode, OfferCurve offerCurve) {
+        auditLog.recordOfferCurve(personalCode, offerCurve);
+        return offerCurve;
     }
 
     /**
-     * Calculates the largest valid loan for the current credit modifier and loan period.
+     * Calculates every loan the customer can get from every credit product, see {@link ProductRegistry}.
+     * Blocks until the credit segment of the customer is known; prefer {@link #calculateProductOffersAsync(String)}
+     * where the caller can continue asynchronously.
      *
-     * @return Largest valid loan amount
+     * @param personalCode ID code of the customer that made the request.
+     * @return ProductOffers with the offer curve of every product, or a rejection by every product
      */
-    private int highestValidLoanAmount(int loanPeriod) {
-        return creditModifier * loanPeriod;
+    public ProductOffers calculateProductOffers(String personalCode) {
+        return calculateProductOffersAsync(personalCode).join();
     }
 
     /**
-     * Calculates the credit modifier of the customer to according to the last four digits of their ID code.
-     * Debt - 0000...2499
-     * Segment 1 - 2500...4999
-     * Segment 2 - 5000...7499
-     * Segment 3 - 7500...9999
+     * Calculates every loan the customer can get from every credit product without blocking on the credit segment
+     * lookup. The personal code is validated and the credit segment looked up once for all products, and the offers
+     * are taken from the product catalog in effect. An invalid personal code completes immediately.
      *
      * @param personalCode ID code of the customer that made the request.
-     * @return Segment to which the customer belongs.
+     * @return A future that completes with the ProductOffers, or exceptionally if the credit segment lookup fails
      */
-    private int getCreditModifier(String personalCode) {
-        int segment = Integer.parseInt(personalCode.substring(personalCode.length() - 4));
-
-        if (segment < 2500) {
-            return 0;
-        } else if (segment < 5000) {
-            return DecisionEngineConstants.SEGMENT_1_CREDIT_MODIFIER;
-        } else if (segment < 7500) {
-            return DecisionEngineConstants.SEGMENT_2_CREDIT_MODIFIER;
+    public CompletableFuture<ProductOffers> calculateProductOffersAsync(String personalCode) {
+        long validationStarted = System.nanoTime();
+        ProductCatalog productCatalog = productRegistry.current();
+        int lastFourDigits = PersonalCodeParser.parseLastFourDigits(personalCode);
+        long lookupStarted = System.nanoTime();
+        decisionMetrics.recordValidation(lookupStarted - validationStarted);
+        if (lastFourDigits == PersonalCodeParser.INVALID) {
+            return CompletableFuture.completedFuture(
+                    record(personalCode, productCatalog.rejected(DecisionStatus.INVALID_PERSONAL_CODE)));
         }
 
-        return DecisionEngineConstants.SEGMENT_3_CREDIT_MODIFIER;
+        return creditModifierProvider.getCreditSegment(personalCode).handle((segment, failure) -> {
+            if (failure != null) {
+                throw lookupFailed(failure);
+            }
+
+            decisionMetrics.recordLookup(System.nanoTime() - lookupStarted);
+            decisionMetrics.recordSegment(segment);
+            return record(personalCode, productCatalog.offers(segment));
+        });
+    }
+
+    private ProductOffers record(String personalCode, ProductOffers productOffers) {
+        auditLog.recordProductOffers(personalCode, productOffers);
+        return productOffers;
+    }
+
+    private CompletionException lookupFailed(Throwable failure) {
+        decisionMetrics.recordFailure();
+        return failure instanceof CompletionException completionException
+                ? completionException : new CompletionException(failure);
     }
 
     /**
      * Verify that all inputs are valid according to business rules.
-     * If inputs are invalid, then throws corresponding exceptions.
      *
-     * @param personalCode Provided personal ID code
+     * @param policy Credit policy with the loan amount and period bounds
+     * @param lastFourDigits Last four digits of the provided personal ID code, or
+     *                       {@link PersonalCodeParser#INVALID} if the code is invalid
      * @param loanAmount Requested loan amount
      * @param loanPeriod Requested loan period
-     * @throws InvalidPersonalCodeException If the provided personal ID code is invalid
-     * @throws InvalidLoanAmountException If the requested loan amount is invalid
-     * @throws InvalidLoanPeriodException If the requested loan period is invalid
+     * @return {@link DecisionStatus#APPROVED} if all inputs are valid, otherwise the status of the first invalid input
      */
-    private void verifyInputs(String personalCode, Long loanAmount, int loanPeriod)
-            throws InvalidPersonalCodeException, InvalidLoanAmountException, InvalidLoanPeriodException {
+    private DecisionStatus verifyInputs(CreditPolicy policy, int lastFourDigits, Long loanAmount, int loanPeriod) {
 
-        if (!validator.isValid(personalCode)) {
-            throw new InvalidPersonalCodeException("Invalid personal ID code!");
+        if (lastFourDigits == PersonalCodeParser.INVALID) {
+            return DecisionStatus.INVALID_PERSONAL_CODE;
         }
-        if (!(DecisionEngineConstants.MINIMUM_LOAN_AMOUNT <= loanAmount)
-                || !(loanAmount <= DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT)) {
-            throw new InvalidLoanAmountException("Invalid loan amount!");
+        if (loanAmount == null || !policy.isValidLoanAmount(loanAmount)) {
+            return DecisionStatus.INVALID_LOAN_AMOUNT;
         }
-        if (!(DecisionEngineConstants.MINIMUM_LOAN_PERIOD <= loanPeriod)
-                || !(loanPeriod <= DecisionEngineConstants.MAXIMUM_LOAN_PERIOD)) {
-            throw new InvalidLoanPeriodException("Invalid loan period!");
+        if (!policy.isValidLoanPeriod(loanPeriod)) {
+            return DecisionStatus.INVALID_LOAN_PERIOD;
         }
 
+        return DecisionStatus.APPROVED;
     }
 }
@@ -0,0 +1,136 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the decision pipeline.
+ * Every meter is registered up front and looked up by ordinal, so recording a decision never resolves tags or
+ * allocates. Tags only take the fixed values of the outcome, credit segment and pipeline stage.
+ */
+@Component
+public class DecisionMetrics {
+
+    static final String OUTCOMES = "decision.outcomes";
+    static final String SEGMENTS = "decision.credit.segments";
+    static final String STAGES = "decision.stage.duration";
+
+    private final Counter[] outcomes;
+    private final Counter adjustedPeriods;
+    private final Counter failures;
+    private final Counter[] segments;
+    private final Timer validation;
+    private final Timer lookup;
+    private final Timer solve;
+
+    @Autowired
+    public DecisionMetrics(MeterRegistry registry) {
+        DecisionStatus[] statuses = DecisionStatus.values();
+        this.outcomes = new Counter[statuses.length];
+        for (DecisionStatus status : statuses) {
+            outcomes[status.ordinal()] = outcomeCounter(registry, status.name());
+        }
+        this.adjustedPeriods = outcomeCounter(registry, "adjusted_period");
+        this.failures = outcomeCounter(registry, "error");
+
+        CreditSegment[] creditSegments = CreditSegment.values();
+        this.segments = new Counter[creditSegments.length];
+        for (CreditSegment segment : creditSegments) {
+            segments[segment.ordinal()] = Counter.builder(SEGMENTS)
+                    .description("Credit segments reported by the credit modifier provider")
+                    .tag("segment", segment.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+
+        this.validation = stageTimer(registry, "validation", Duration.ofNanos(100), Duration.ofMillis(1));
+        this.lookup = stageTimer(registry, "lookup", Duration.ofNanos(100), Duration.ofSeconds(10));
+        this.solve = stageTimer(registry, "solve", Duration.ofNanos(10), Duration.ofMillis(1));
+    }
+
+    /**
+     * Creates metrics that are not published anywhere.
+     *
+     * @return DecisionMetrics backed by an empty composite registry
+     */
+    public static DecisionMetrics disabled() {
+        return new DecisionMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Counts a decision by its outcome. Approved decisions for a different loan period than requested are counted
+     * as adjusted_period.
+     *
+     * @param decision The decision returned to the caller
+     * @param requestedLoanPeriod Requested loan period
+     * @return The decision
+     */
+    public Decision recordOutcome(Decision decision, int requestedLoanPeriod) {
+        if (decision.getStatus() == DecisionStatus.APPROVED && decision.getLoanPeriod() != requestedLoanPeriod) {
+            adjustedPeriods.increment();
+        } else {
+            outcomes[decision.getStatus().ordinal()].increment();
+        }
+        return decision;
+    }
+
+    /**
+     * Counts a decision that failed because the credit segment could not be looked up.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * @param segment Credit segment reported by the credit modifier provider
+     */
+    public void recordSegment(CreditSegment segment) {
+        segments[segment.ordinal()].increment();
+    }
+
+    /**
+     * @param nanos Time spent parsing the personal code and checking the requested amount and period
+     */
+    public void recordValidation(long nanos) {
+        validation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param nanos Time until the credit modifier provider reported the credit segment
+     */
+    public void recordLookup(long nanos) {
+        lookup.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param nanos Time spent finding the approved loan for the credit segment
+     */
+    public void recordSolve(long nanos) {
+        solve.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder(OUTCOMES)
+                .description("Loan decisions by outcome")
+                .tag("outcome", outcome.toLowerCase(Locale.ROOT))
+                .register(registry);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage, Duration minimum, Duration maximum) {
+        return Timer.builder(STAGES)
+                .description("Duration of a stage of the decision pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(minimum)
+                .maximumExpectedValue(maximum)
+                .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+
+/**
+ * Finds the approved loan amount and period for a credit modifier in constant time.
+ * The largest valid loan for a period is creditModifier * loanPeriod, so the shortest acceptable period is the
+ * requested period or the first period whose largest valid loan reaches the minimum loan amount, whichever is longer.
+ */
+public final class DecisionSolver {
+
+    /**
+     * Returned by {@link #approvedLoanPeriod(CreditPolicy, int, int)} when no valid loan exists.
+     */
+    public static final int NO_VALID_LOAN = -1;
+
+    private DecisionSolver() {
+    }
+
+    /**
+     * Calculates the shortest loan period, starting from the requested period, for which the customer can get
+     * at least the minimum loan amount.
+     *
+     * @param policy Credit policy with the loan amount and period bounds
+     * @param creditModifier Credit modifier of the customer
+     * @param loanPeriod Requested loan period
+     * @return The approved loan period, or {@link #NO_VALID_LOAN} if no period within the bounds is sufficient
+     */
+    public static int approvedLoanPeriod(CreditPolicy policy, int creditModifier, int loanPeriod) {
+        if (creditModifier <= 0) {
+            return NO_VALID_LOAN;
+        }
+
+        int shortestValidPeriod = (int) ((policy.getMinimumLoanAmount() + (long) creditModifier - 1) / creditModifier);
+        int approvedPeriod = Math.max(loanPeriod, shortestValidPeriod);
+
+        return approvedPeriod <= policy.getMaximumLoanPeriod() ? approvedPeriod : NO_VALID_LOAN;
+    }
+
+    /**
+     * Calculates the largest loan amount the customer can get for an approved loan period.
+     *
+     * @param policy Credit policy with the loan amount and period bounds
+     * @param creditModifier Credit modifier of the customer
+     * @param approvedLoanPeriod Loan period returned by {@link #approvedLoanPeriod(CreditPolicy, int, int)}
+     * @return The approved loan amount
+     */
+    public static int approvedLoanAmount(CreditPolicy policy, int creditModifier, int approvedLoanPeriod) {
+        return (int) Math.min(policy.getMaximumLoanAmount(), (long) creditModifier * approvedLoanPeriod);
+    }
+}
@@ -0,0 +1,22 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Possible outcomes of a loan decision, together with the error message returned to the customer.
+ */
+public enum DecisionStatus {
+    APPROVED(null),
+    INVALID_PERSONAL_CODE("Invalid personal ID code!"),
+    INVALID_LOAN_AMOUNT("Invalid loan amount!"),
+    INVALID_LOAN_PERIOD("Invalid loan period!"),
+    NO_VALID_LOAN("No valid loan found!");
+
+    private final String errorMessage;
+
+    DecisionStatus(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
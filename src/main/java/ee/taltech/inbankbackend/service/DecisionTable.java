@@ -0,0 +1,131 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+
+/**
+ * Holds a precomputed decision for every credit segment and loan period of a credit policy.
+ * The decisions are stored in one flat array indexed by segment and period, so a lookup is a single array access
+ * that returns a shared Decision instance, including the shared rejection for customers without a valid loan.
+ * The requested loan amount does not influence the outcome, so it is not part of the key. The offer curve of every
+ * segment is precomputed as well. The table is immutable; a policy change is applied by building a new table and
+ * replacing the reference to it.
+ */
+public final class DecisionTable {
+
+    private final CreditPolicy policy;
+    private final int minimumLoanPeriod;
+    private final int periodCount;
+    private final Decision[] decisions;
+    private final Decision[] rejections;
+    private final OfferCurve[] offerCurves;
+    private final OfferCurve[] rejectedOfferCurves;
+
+    private DecisionTable(CreditPolicy policy) {
+        this.policy = policy;
+        this.minimumLoanPeriod = policy.getMinimumLoanPeriod();
+        this.periodCount = policy.getMaximumLoanPeriod() - minimumLoanPeriod + 1;
+
+        DecisionStatus[] statuses = DecisionStatus.values();
+        this.rejections = new Decision[statuses.length];
+        this.rejectedOfferCurves = new OfferCurve[statuses.length];
+        for (DecisionStatus status : statuses) {
+            if (status != DecisionStatus.APPROVED) {
+                rejections[status.ordinal()] = Decision.rejected(status, policy.getVersion());
+                rejectedOfferCurves[status.ordinal()] = OfferCurve.rejected(status, policy.getVersion());
+            }
+        }
+
+        CreditSegment[] segments = CreditSegment.values();
+        this.decisions = new Decision[segments.length * periodCount];
+        this.offerCurves = new OfferCurve[segments.length];
+        for (CreditSegment segment : segments) {
+            int creditModifier = policy.getCreditModifier(segment);
+            offerCurves[segment.ordinal()] = buildOfferCurve(policy, creditModifier);
+            for (int loanPeriod = minimumLoanPeriod; loanPeriod <= policy.getMaximumLoanPeriod(); loanPeriod++) {
+                int approvedLoanPeriod = DecisionSolver.approvedLoanPeriod(policy, creditModifier, loanPeriod);
+                int index = segment.ordinal() * periodCount + loanPeriod - minimumLoanPeriod;
+
+                if (approvedLoanPeriod == DecisionSolver.NO_VALID_LOAN) {
+                    decisions[index] = rejected(DecisionStatus.NO_VALID_LOAN);
+                } else {
+                    decisions[index] = Decision.approved(
+                            DecisionSolver.approvedLoanAmount(policy, creditModifier, approvedLoanPeriod),
+                            approvedLoanPeriod, policy.getVersion());
+                }
+            }
+        }
+    }
+
+    private OfferCurve buildOfferCurve(CreditPolicy policy, int creditModifier) {
+        int firstLoanPeriod = DecisionSolver.approvedLoanPeriod(policy, creditModifier, minimumLoanPeriod);
+        if (firstLoanPeriod == DecisionSolver.NO_VALID_LOAN) {
+            return rejectedOfferCurves[DecisionStatus.NO_VALID_LOAN.ordinal()];
+        }
+
+        int[] loanAmounts = new int[policy.getMaximumLoanPeriod() - firstLoanPeriod + 1];
+        for (int i = 0; i < loanAmounts.length; i++) {
+            loanAmounts[i] = DecisionSolver.approvedLoanAmount(policy, creditModifier, firstLoanPeriod + i);
+        }
+        return OfferCurve.approved(firstLoanPeriod, loanAmounts, policy.getVersion());
+    }
+
+    /**
+     * Builds a table from the credit modifiers and loan period bounds of a credit policy.
+     *
+     * @param policy The credit policy
+     * @return A new decision table
+     */
+    public static DecisionTable fromPolicy(CreditPolicy policy) {
+        return new DecisionTable(policy);
+    }
+
+    /**
+     * @return The credit policy the table was built from
+     */
+    public CreditPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the precomputed decision for a segment and a loan period within the bounds.
+     *
+     * @param segment Credit segment of the customer
+     * @param loanPeriod Requested loan period, already validated against the bounds
+     * @return The approved loan amount and period, or a {@link DecisionStatus#NO_VALID_LOAN} rejection
+     */
+    public Decision lookup(CreditSegment segment, int loanPeriod) {
+        return decisions[segment.ordinal() * periodCount + loanPeriod - minimumLoanPeriod];
+    }
+
+    /**
+     * Returns the shared rejection of this table's policy for the given status.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @return A Decision with the status, its error message and the policy version
+     */
+    public Decision rejected(DecisionStatus status) {
+        return rejections[status.ordinal()];
+    }
+
+    /**
+     * Returns the precomputed offer curve for a segment.
+     *
+     * @param segment Credit segment of the customer
+     * @return The largest loan amount for every feasible loan period, or a {@link DecisionStatus#NO_VALID_LOAN}
+     * rejection if no period is feasible
+     */
+    public OfferCurve offerCurve(CreditSegment segment) {
+        return offerCurves[segment.ordinal()];
+    }
+
+    /**
+     * Returns the shared offer curve rejection of this table's policy for the given status.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @return An OfferCurve with the status, no loan periods and the policy version
+     */
+    public OfferCurve rejectedOfferCurve(DecisionStatus status) {
+        return rejectedOfferCurves[status.ordinal()];
+    }
+}
@@ -0,0 +1,58 @@
+package ee.taltech.inbankbackend.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Holds every loan a customer can get: the largest loan amount for each feasible loan period.
+ * The largest loan grows with the period, so the feasible periods are one contiguous range that ends at the maximum
+ * loan period of the credit policy, and the amounts are listed in period order starting from the first of them.
+ * Curves are precomputed per credit segment by {@link DecisionTable} and shared between requests.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class OfferCurve {
+    private final DecisionStatus status;
+    private final Integer minimumLoanPeriod;
+    private final Integer maximumLoanPeriod;
+    private final List<Integer> loanAmounts;
+    private final String policyVersion;
+
+    /**
+     * Creates a curve of feasible loans.
+     *
+     * @param minimumLoanPeriod The shortest feasible loan period
+     * @param loanAmounts The largest loan amount for each period from minimumLoanPeriod on
+     * @param policyVersion Version of the credit policy the curve was computed from
+     * @return A new approved OfferCurve
+     */
+    public static OfferCurve approved(int minimumLoanPeriod, int[] loanAmounts, String policyVersion) {
+        Integer[] amounts = new Integer[loanAmounts.length];
+        for (int i = 0; i < loanAmounts.length; i++) {
+            amounts[i] = loanAmounts[i];
+        }
+        return new OfferCurve(DecisionStatus.APPROVED, minimumLoanPeriod, minimumLoanPeriod + loanAmounts.length - 1,
+                List.of(amounts), policyVersion);
+    }
+
+    /**
+     * Creates a curve without any loans.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @param policyVersion Version of the credit policy that rejected the request
+     * @return A new OfferCurve with the status and no loan periods
+     */
+    public static OfferCurve rejected(DecisionStatus status, String policyVersion) {
+        return new OfferCurve(status, null, null, List.of(), policyVersion);
+    }
+
+    /**
+     * @return The error message of the status, or null if the curve has feasible loans
+     */
+    public String getErrorMessage() {
+        return status.getErrorMessage();
+    }
+}
@@ -0,0 +1,121 @@
+package ee.taltech.inbankbackend.service;
+
+/**
+ * Validates Estonian personal ID codes and extracts their last four digits in a single pass, without allocating.
+ * A code is valid if it consists of 11 digits, the first digit is between 1 and 6 (births from 1800 to 2099),
+ * the next six digits form an existing date (YYMMDD) and the last digit matches the checksum.
+ * The accept/reject results match EstonianPersonalCodeValidator of the java-personal-code library.
+ */
+public final class PersonalCodeParser {
+
+    /**
+     * Returned by {@link #parseLastFourDigits(CharSequence)} for invalid codes.
+     */
+    public static final int INVALID = -1;
+
+    private static final int LENGTH = 11;
+    private static final int[] FIRST_WEIGHTS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 1};
+    private static final int[] SECOND_WEIGHTS = {3, 4, 5, 6, 7, 8, 9, 1, 2, 3};
+
+    private PersonalCodeParser() {
+    }
+
+    /**
+     * Validates a personal ID code and returns its last four digits, which determine the credit segment.
+     *
+     * @param personalCode ID code of the customer, may be null
+     * @return The last four digits as a number between 0 and 9999, or {@link #INVALID} if the code is invalid
+     */
+    public static int parseLastFourDigits(CharSequence personalCode) {
+        if (personalCode == null || personalCode.length() != LENGTH) {
+            return INVALID;
+        }
+
+        int firstSum = 0;
+        int secondSum = 0;
+        int datePart = 0;
+        int lastFourDigits = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = personalCode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            if (i < LENGTH - 1) {
+                firstSum += digit * FIRST_WEIGHTS[i];
+                secondSum += digit * SECOND_WEIGHTS[i];
+            }
+            if (i < 7) {
+                datePart = datePart * 10 + digit;
+            } else {
+                lastFourDigits = lastFourDigits * 10 + digit;
+            }
+        }
+
+        if (!isValidBirthDate(datePart) || lastFourDigits % 10 != checksum(firstSum, secondSum)) {
+            return INVALID;
+        }
+        return lastFourDigits;
+    }
+
+    /**
+     * Checks whether a personal ID code is valid.
+     *
+     * @param personalCode ID code of the customer, may be null
+     * @return true if the code is valid
+     */
+    public static boolean isValid(CharSequence personalCode) {
+        return parseLastFourDigits(personalCode) != INVALID;
+    }
+
+    /**
+     * Computes the check digit of a personal ID code, e.g. to build valid codes for tests and benchmarks.
+     *
+     * @param personalCode A code whose first ten characters are digits; further characters are ignored
+     * @return The check digit that the eleventh digit of a valid code equals
+     */
+    public static int checkDigit(CharSequence personalCode) {
+        int firstSum = 0;
+        int secondSum = 0;
+        for (int i = 0; i < LENGTH - 1; i++) {
+            int digit = personalCode.charAt(i) - '0';
+            firstSum += digit * FIRST_WEIGHTS[i];
+            secondSum += digit * SECOND_WEIGHTS[i];
+        }
+        return checksum(firstSum, secondSum);
+    }
+
+    /**
+     * Checks the century digit and the date of birth.
+     *
+     * @param datePart First seven digits of the code as a number, GYYMMDD
+     * @return true if the century digit is supported and the date exists
+     */
+    private static boolean isValidBirthDate(int datePart) {
+        int centuryDigit = datePart / 1_000_000;
+        if (centuryDigit < 1 || centuryDigit > 6) {
+            return false;
+        }
+
+        int year = 1800 + (centuryDigit - 1) / 2 * 100 + datePart / 10_000 % 100;
+        int month = datePart / 100 % 100;
+        int day = datePart % 100;
+
+        return month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int checksum(int firstSum, int secondSum) {
+        int checksum = firstSum % 11;
+        if (checksum == 10) {
+            checksum = secondSum % 11;
+        }
+        return checksum == 10 ? 0 : checksum;
+    }
+}
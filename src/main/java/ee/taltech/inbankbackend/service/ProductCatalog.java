@@ -0,0 +1,100 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a customer against every credit product at once. Each product's rules are compiled into its own
+ * {@link DecisionTable}, and the offers of all products are then precomputed for every credit segment, so evaluating
+ * every product for a customer is a single array access once the credit segment is known.
+ * The catalog is immutable; a change of a product is applied by building a new catalog.
+ */
+public final class ProductCatalog {
+
+    private final Map<String, DecisionTable> decisionTables;
+    private final ProductOffers[] offers;
+    private final ProductOffers[] rejections;
+
+    private ProductCatalog(Map<String, DecisionTable> decisionTables) {
+        this.decisionTables = decisionTables;
+
+        DecisionStatus[] statuses = DecisionStatus.values();
+        this.rejections = new ProductOffers[statuses.length];
+        for (DecisionStatus status : statuses) {
+            if (status != DecisionStatus.APPROVED) {
+                Map<String, OfferCurve> offerCurves = new LinkedHashMap<>();
+                decisionTables.forEach((product, table) -> offerCurves.put(product, table.rejectedOfferCurve(status)));
+                rejections[status.ordinal()] = new ProductOffers(status, Collections.unmodifiableMap(offerCurves));
+            }
+        }
+
+        CreditSegment[] segments = CreditSegment.values();
+        this.offers = new ProductOffers[segments.length];
+        for (CreditSegment segment : segments) {
+            Map<String, OfferCurve> offerCurves = new LinkedHashMap<>();
+            boolean approved = false;
+            for (Map.Entry<String, DecisionTable> product : decisionTables.entrySet()) {
+                OfferCurve offerCurve = product.getValue().offerCurve(segment);
+                offerCurves.put(product.getKey(), offerCurve);
+                approved |= offerCurve.getStatus() == DecisionStatus.APPROVED;
+            }
+            offers[segment.ordinal()] = new ProductOffers(
+                    approved ? DecisionStatus.APPROVED : DecisionStatus.NO_VALID_LOAN,
+                    Collections.unmodifiableMap(offerCurves));
+        }
+    }
+
+    /**
+     * Builds a catalog from the decision tables of the products.
+     *
+     * @param decisionTables Decision table of every product by product id, in the order to list the products in
+     * @return A new product catalog
+     * @throws IllegalArgumentException If there are no products
+     */
+    public static ProductCatalog of(Map<String, DecisionTable> decisionTables) {
+        if (decisionTables.isEmpty()) {
+            throw new IllegalArgumentException("A product catalog needs at least one product");
+        }
+        return new ProductCatalog(Collections.unmodifiableMap(new LinkedHashMap<>(decisionTables)));
+    }
+
+    /**
+     * @return The ids of the products, in catalog order
+     */
+    public List<String> getProducts() {
+        return List.copyOf(decisionTables.keySet());
+    }
+
+    /**
+     * @param product A product id
+     * @return The decision table of the product, or null if there is no such product
+     */
+    public DecisionTable decisionTable(String product) {
+        return decisionTables.get(product);
+    }
+
+    /**
+     * Returns the precomputed offers of every product for a segment.
+     *
+     * @param segment Credit segment of the customer
+     * @return The offer curve of every product, with status {@link DecisionStatus#NO_VALID_LOAN} if no product has
+     * a feasible loan
+     */
+    public ProductOffers offers(CreditSegment segment) {
+        return offers[segment.ordinal()];
+    }
+
+    /**
+     * Returns the shared rejection by every product for the given status.
+     *
+     * @param status Reason for the rejection, anything but {@link DecisionStatus#APPROVED}
+     * @return ProductOffers with the status and the rejected offer curve of every product
+     */
+    public ProductOffers rejected(DecisionStatus status) {
+        return rejections[status.ordinal()];
+    }
+}
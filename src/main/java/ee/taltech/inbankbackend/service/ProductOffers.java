@@ -0,0 +1,26 @@
+package ee.taltech.inbankbackend.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Holds every loan a customer can get from every product: the offer curve of each product by product id.
+ * The overall status is {@link DecisionStatus#APPROVED} if at least one product has a feasible loan.
+ * Offers are precomputed per credit segment by {@link ProductCatalog} and shared between requests.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class ProductOffers {
+    private final DecisionStatus status;
+    private final Map<String, OfferCurve> offerCurves;
+
+    /**
+     * @return The error message of the status, or null if some product has feasible loans
+     */
+    public String getErrorMessage() {
+        return status.getErrorMessage();
+    }
+}
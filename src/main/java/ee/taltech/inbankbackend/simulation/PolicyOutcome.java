@@ -0,0 +1,65 @@
+package ee.taltech.inbankbackend.simulation;
+
+import ee.taltech.inbankbackend.service.DecisionStatus;
+
+/**
+ * The decisions a credit policy makes for a request population, aggregated.
+ * The arrays are owned by the outcome and must not be modified.
+ *
+ * @param policyVersion Version of the simulated policy
+ * @param requests Number of requests evaluated
+ * @param statusCounts Number of decisions by {@link DecisionStatus} ordinal
+ * @param adjustedPeriods Number of approvals for a longer period than requested
+ * @param approvedLoanAmountSum Sum of the approved loan amounts
+ * @param approvedLoanPeriodSum Sum of the approved loan periods
+ * @param approvedLoanAmounts Number of approvals by loan amount, in buckets of {@link #AMOUNT_BUCKET_WIDTH}: bucket
+ *                            i counts amounts from i * width to (i + 1) * width - 1
+ * @param approvedLoanPeriods Number of approvals by loan period in months, indexed by the period
+ * @param gainedApprovals Number of requests approved by this policy but not by the baseline policy
+ * @param lostApprovals Number of requests approved by the baseline policy but not by this policy
+ */
+public record PolicyOutcome(String policyVersion, long requests, long[] statusCounts, long adjustedPeriods,
+                            long approvedLoanAmountSum, long approvedLoanPeriodSum, long[] approvedLoanAmounts,
+                            long[] approvedLoanPeriods, long gainedApprovals, long lostApprovals) {
+
+    /**
+     * Width of the buckets of the approved loan amount distribution.
+     */
+    public static final int AMOUNT_BUCKET_WIDTH = 1000;
+
+    /**
+     * @param status A decision status
+     * @return The number of decisions with the status
+     */
+    public long count(DecisionStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * @return The number of approved requests
+     */
+    public long approvals() {
+        return count(DecisionStatus.APPROVED);
+    }
+
+    /**
+     * @return The share of requests that were approved, between 0 and 1
+     */
+    public double approvalRate() {
+        return requests == 0 ? 0 : (double) approvals() / requests;
+    }
+
+    /**
+     * @return The mean approved loan amount, or 0 if nothing was approved
+     */
+    public double averageApprovedLoanAmount() {
+        return approvals() == 0 ? 0 : (double) approvedLoanAmountSum / approvals();
+    }
+
+    /**
+     * @return The mean approved loan period in months, or 0 if nothing was approved
+     */
+    public double averageApprovedLoanPeriod() {
+        return approvals() == 0 ? 0 : (double) approvedLoanPeriodSum / approvals();
+    }
+}
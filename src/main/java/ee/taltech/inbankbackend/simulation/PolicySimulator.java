@@ -0,0 +1,237 @@
+package ee.taltech.inbankbackend.simulation;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.DecisionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-evaluates a request population under candidate credit policies to show how a policy change would shift
+ * approvals and the approved amounts and periods.
+ * <p>
+ * Every policy is first flattened into primitive arrays of the approved amount and period per segment and period,
+ * taken from its {@link DecisionTable} so that the simulation decides exactly like the DecisionEngine. The
+ * population is then split into chunks that are evaluated in parallel on a fork-join pool, each chunk under every
+ * policy in turn while its columns are still in cache. Each chunk aggregates into its own counters, which are merged
+ * at the end, so the evaluation shares no mutable state and allocates nothing per request.
+ */
+public class PolicySimulator {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int APPROVED = DecisionStatus.APPROVED.ordinal();
+    private static final int INVALID_PERSONAL_CODE = DecisionStatus.INVALID_PERSONAL_CODE.ordinal();
+    private static final int INVALID_LOAN_AMOUNT = DecisionStatus.INVALID_LOAN_AMOUNT.ordinal();
+    private static final int INVALID_LOAN_PERIOD = DecisionStatus.INVALID_LOAN_PERIOD.ordinal();
+    private static final int NO_VALID_LOAN = DecisionStatus.NO_VALID_LOAN.ordinal();
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool Pool that evaluates the chunks of the population
+     */
+    public PolicySimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Evaluates every request of the population under every policy.
+     *
+     * @param population The requests to evaluate
+     * @param policies The policies to compare; the first one is the baseline that gained and lost approvals are
+     *                 counted against, typically the policy in effect
+     * @return One outcome per policy, in the order of the policies
+     * @throws IllegalArgumentException If no policy is given
+     */
+    public List<PolicyOutcome> simulate(RequestPopulation population, List<CreditPolicy> policies) {
+        if (policies.isEmpty()) {
+            throw new IllegalArgumentException("At least one credit policy is needed");
+        }
+
+        CompiledPolicy[] compiled = policies.stream().map(CompiledPolicy::new).toArray(CompiledPolicy[]::new);
+        int amountBuckets = 0;
+        int periodBuckets = 0;
+        for (CompiledPolicy policy : compiled) {
+            amountBuckets = Math.max(amountBuckets,
+                    policy.creditPolicy.getMaximumLoanAmount() / PolicyOutcome.AMOUNT_BUCKET_WIDTH + 1);
+            periodBuckets = Math.max(periodBuckets, policy.maximumLoanPeriod + 1);
+        }
+
+        List<CompletableFuture<Tally[]>> chunks = new ArrayList<>();
+        int chunkAmountBuckets = amountBuckets;
+        int chunkPeriodBuckets = periodBuckets;
+        int from = 0;
+        while (from < population.size()) {
+            int chunkFrom = from;
+            int chunkTo = from + Math.min(CHUNK_SIZE, population.size() - from);
+            chunks.add(CompletableFuture.supplyAsync(() -> evaluate(population, compiled, chunkFrom, chunkTo,
+                    chunkAmountBuckets, chunkPeriodBuckets), pool));
+            from = chunkTo;
+        }
+
+        Tally[] totals = new Tally[compiled.length];
+        for (int p = 0; p < totals.length; p++) {
+            totals[p] = new Tally(amountBuckets, periodBuckets);
+        }
+        for (CompletableFuture<Tally[]> chunk : chunks) {
+            Tally[] tallies = chunk.join();
+            for (int p = 0; p < totals.length; p++) {
+                totals[p].add(tallies[p]);
+            }
+        }
+
+        List<PolicyOutcome> outcomes = new ArrayList<>(compiled.length);
+        for (int p = 0; p < compiled.length; p++) {
+            outcomes.add(totals[p].toOutcome(compiled[p].version, population.size()));
+        }
+        return outcomes;
+    }
+
+    private static Tally[] evaluate(RequestPopulation population, CompiledPolicy[] policies, int from, int to,
+                                    int amountBuckets, int periodBuckets) {
+        byte[] segments = population.segments;
+        long[] loanAmounts = population.loanAmounts;
+        int[] loanPeriods = population.loanPeriods;
+        boolean[] approvedByBaseline = new boolean[to - from];
+
+        Tally[] tallies = new Tally[policies.length];
+        for (int p = 0; p < policies.length; p++) {
+            CompiledPolicy policy = policies[p];
+            Tally tally = new Tally(amountBuckets, periodBuckets);
+            tallies[p] = tally;
+
+            for (int i = from; i < to; i++) {
+                int segment = segments[i];
+                long loanAmount = loanAmounts[i];
+                int loanPeriod = loanPeriods[i];
+                int status;
+                if (segment == RequestPopulation.INVALID_PERSONAL_CODE) {
+                    status = INVALID_PERSONAL_CODE;
+                } else if (!policy.creditPolicy.isValidLoanAmount(loanAmount)) {
+                    // Also rejects RequestPopulation.NO_LOAN_AMOUNT, as the minimum loan amount is positive
+                    status = INVALID_LOAN_AMOUNT;
+                } else if (!policy.creditPolicy.isValidLoanPeriod(loanPeriod)) {
+                    status = INVALID_LOAN_PERIOD;
+                } else {
+                    int index = segment * policy.periodCount + loanPeriod - policy.minimumLoanPeriod;
+                    int approvedLoanPeriod = policy.approvedLoanPeriods[index];
+                    if (approvedLoanPeriod == 0) {
+                        status = NO_VALID_LOAN;
+                    } else {
+                        status = APPROVED;
+                        tally.approve(policy.approvedLoanAmounts[index], approvedLoanPeriod, loanPeriod);
+                    }
+                }
+                tally.statusCounts[status]++;
+
+                boolean approved = status == APPROVED;
+                if (p == 0) {
+                    approvedByBaseline[i - from] = approved;
+                } else if (approved != approvedByBaseline[i - from]) {
+                    if (approved) {
+                        tally.gainedApprovals++;
+                    } else {
+                        tally.lostApprovals++;
+                    }
+                }
+            }
+        }
+        return tallies;
+    }
+
+    /**
+     * The bounds of a policy and its decision table as primitive arrays indexed by segment and requested period.
+     * A period of 0 marks a segment and period without a valid loan.
+     */
+    private static final class CompiledPolicy {
+
+        private final CreditPolicy creditPolicy;
+        private final String version;
+        private final int minimumLoanPeriod;
+        private final int maximumLoanPeriod;
+        private final int periodCount;
+        private final int[] approvedLoanAmounts;
+        private final int[] approvedLoanPeriods;
+
+        private CompiledPolicy(CreditPolicy policy) {
+            this.creditPolicy = policy;
+            this.version = policy.getVersion();
+            this.minimumLoanPeriod = policy.getMinimumLoanPeriod();
+            this.maximumLoanPeriod = policy.getMaximumLoanPeriod();
+            this.periodCount = maximumLoanPeriod - minimumLoanPeriod + 1;
+
+            CreditSegment[] segments = CreditSegment.values();
+            this.approvedLoanAmounts = new int[segments.length * periodCount];
+            this.approvedLoanPeriods = new int[segments.length * periodCount];
+            DecisionTable table = DecisionTable.fromPolicy(policy);
+            for (CreditSegment segment : segments) {
+                for (int loanPeriod = minimumLoanPeriod; loanPeriod <= maximumLoanPeriod; loanPeriod++) {
+                    Decision decision = table.lookup(segment, loanPeriod);
+                    if (decision.getStatus() == DecisionStatus.APPROVED) {
+                        int index = segment.ordinal() * periodCount + loanPeriod - minimumLoanPeriod;
+                        approvedLoanAmounts[index] = decision.getLoanAmount();
+                        approvedLoanPeriods[index] = decision.getLoanPeriod();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counters of the decisions of one policy over part of the population.
+     */
+    private static final class Tally {
+
+        private final long[] statusCounts = new long[DecisionStatus.values().length];
+        private final long[] approvedLoanAmounts;
+        private final long[] approvedLoanPeriods;
+        private long adjustedPeriods;
+        private long approvedLoanAmountSum;
+        private long approvedLoanPeriodSum;
+        private long gainedApprovals;
+        private long lostApprovals;
+
+        private Tally(int amountBuckets, int periodBuckets) {
+            this.approvedLoanAmounts = new long[amountBuckets];
+            this.approvedLoanPeriods = new long[periodBuckets];
+        }
+
+        private void approve(int loanAmount, int loanPeriod, int requestedLoanPeriod) {
+            approvedLoanAmounts[loanAmount / PolicyOutcome.AMOUNT_BUCKET_WIDTH]++;
+            approvedLoanPeriods[loanPeriod]++;
+            approvedLoanAmountSum += loanAmount;
+            approvedLoanPeriodSum += loanPeriod;
+            if (loanPeriod != requestedLoanPeriod) {
+                adjustedPeriods++;
+            }
+        }
+
+        private void add(Tally other) {
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] += other.statusCounts[i];
+            }
+            for (int i = 0; i < approvedLoanAmounts.length; i++) {
+                approvedLoanAmounts[i] += other.approvedLoanAmounts[i];
+            }
+            for (int i = 0; i < approvedLoanPeriods.length; i++) {
+                approvedLoanPeriods[i] += other.approvedLoanPeriods[i];
+            }
+            adjustedPeriods += other.adjustedPeriods;
+            approvedLoanAmountSum += other.approvedLoanAmountSum;
+            approvedLoanPeriodSum += other.approvedLoanPeriodSum;
+            gainedApprovals += other.gainedApprovals;
+            lostApprovals += other.lostApprovals;
+        }
+
+        private PolicyOutcome toOutcome(String policyVersion, long requests) {
+            return new PolicyOutcome(policyVersion, requests, statusCounts, adjustedPeriods, approvedLoanAmountSum,
+                    approvedLoanPeriodSum, approvedLoanAmounts, approvedLoanPeriods, gainedApprovals, lostApprovals);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ee.taltech.inbankbackend.simulation;
+
+import ee.taltech.inbankbackend.audit.AuditLogReader;
+import ee.taltech.inbankbackend.audit.AuditRecordType;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.request.DecisionRequestScanner;
+import ee.taltech.inbankbackend.request.MappedLines;
+import ee.taltech.inbankbackend.service.PersonalCodeParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A set of historical decision requests held in columnar primitive arrays: the credit segment, the requested loan
+ * amount and the requested loan period of every request, each in its own array. Only what a decision depends on is
+ * kept, so a million requests take 13 MB and can be re-evaluated without touching an object per request.
+ * <p>
+ * The credit segment is derived from the last four digits of the personal code, the way the local credit registry
+ * stand-in segments customers. The personal code itself is not kept. The population is immutable once built.
+ */
+public final class RequestPopulation {
+
+    /**
+     * Segment of requests whose personal code is invalid.
+     */
+    static final byte INVALID_PERSONAL_CODE = -1;
+
+    /**
+     * Loan amount of requests that did not contain one.
+     */
+    static final long NO_LOAN_AMOUNT = Long.MIN_VALUE;
+
+    private static final int CHUNK_SIZE = 64 << 20;
+    private static final int MAX_LINE_LENGTH = 64 << 10;
+
+    private final int size;
+    private final long skippedCount;
+    final byte[] segments;
+    final long[] loanAmounts;
+    final int[] loanPeriods;
+
+    private RequestPopulation(Builder builder) {
+        this.size = builder.size;
+        this.skippedCount = builder.skippedCount;
+        this.segments = Arrays.copyOf(builder.segments, size);
+        this.loanAmounts = Arrays.copyOf(builder.loanAmounts, size);
+        this.loanPeriods = Arrays.copyOf(builder.loanPeriods, size);
+    }
+
+    /**
+     * @return A builder for a new population
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads the requests of every loan decision in an audit log.
+     *
+     * @param directory Directory of the audit log segments
+     * @return The requests, oldest first
+     * @throws IOException If a segment cannot be read
+     */
+    public static RequestPopulation fromAuditLog(Path directory) throws IOException {
+        Builder builder = builder();
+        AuditLogReader.read(directory, record -> {
+            if (record.type() == AuditRecordType.LOAN_DECISION) {
+                builder.add(record.personalCode(), record.loanAmount(), record.loanPeriod());
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Reads the requests of a JSONL or CSV file in the format of the offline bulk evaluation, or an audit log if the
+     * path is a directory. Lines that cannot be scanned, such as blank lines and a CSV header, are skipped.
+     *
+     * @param path JSONL or CSV file with one request per line, or an audit log directory
+     * @return The requests in file order
+     * @throws IOException If the file cannot be read, or if a line is longer than 64 KiB
+     */
+    public static RequestPopulation read(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return fromAuditLog(path);
+        }
+
+        boolean csv = path.getFileName().toString().toLowerCase().endsWith(".csv");
+        Builder builder = builder();
+        DecisionRequestScanner scanner = new DecisionRequestScanner();
+        MappedLines.forEachLine(path, CHUNK_SIZE, MAX_LINE_LENGTH,
+                (buffer, start, end) -> addLine(builder, scanner, buffer, start, end, csv));
+        return builder.build();
+    }
+
+    private static void addLine(Builder builder, DecisionRequestScanner scanner, ByteBuffer buffer, int start,
+                                int end, boolean csv) {
+        boolean scanned = csv ? scanner.scanCsv(buffer, start, end) : scanner.scanJson(buffer, start, end);
+        if (scanned) {
+            builder.add(scanner.getPersonalCode(), scanner.hasLoanAmount() ? scanner.getLoanAmount() : null,
+                    scanner.getLoanPeriod());
+        } else {
+            builder.skip();
+        }
+    }
+
+    /**
+     * @return The number of requests
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of lines that were skipped because they could not be scanned
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Collects requests into growing arrays. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+        private long skippedCount;
+        private byte[] segments = new byte[INITIAL_CAPACITY];
+        private long[] loanAmounts = new long[INITIAL_CAPACITY];
+        private int[] loanPeriods = new int[INITIAL_CAPACITY];
+
+        private Builder() {
+        }
+
+        /**
+         * @param personalCode Requested personal code, may be invalid or null
+         * @param loanAmount Requested loan amount, may be null
+         * @param loanPeriod Requested loan period
+         * @return This builder
+         * @throws IllegalStateException If the population already holds the largest possible number of requests
+         */
+        public Builder add(String personalCode, Long loanAmount, int loanPeriod) {
+            if (size == segments.length) {
+                grow();
+            }
+            int lastFourDigits = PersonalCodeParser.parseLastFourDigits(personalCode);
+            segments[size] = lastFourDigits == PersonalCodeParser.INVALID
+                    ? INVALID_PERSONAL_CODE : (byte) CreditSegment.fromLastFourDigits(lastFourDigits).ordinal();
+            loanAmounts[size] = loanAmount != null ? loanAmount : NO_LOAN_AMOUNT;
+            loanPeriods[size] = loanPeriod;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return A population with the requests added so far
+         */
+        public RequestPopulation build() {
+            return new RequestPopulation(this);
+        }
+
+        private void skip() {
+            skippedCount++;
+        }
+
+        private void grow() {
+            if (size == Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("A population cannot hold more than " + size + " requests");
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size * 2L);
+            segments = Arrays.copyOf(segments, capacity);
+            loanAmounts = Arrays.copyOf(loanAmounts, capacity);
+            loanPeriods = Arrays.copyOf(loanPeriods, capacity);
+        }
+    }
+}
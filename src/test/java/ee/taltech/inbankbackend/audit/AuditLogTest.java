@@ -0,0 +1,285 @@
+package ee.taltech.inbankbackend.audit;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.policy.ProductRegistry;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogTest {
+
+    private static final int SEGMENT_SIZE = AuditRecordCodec.MAX_RECORD_SIZE + (64 << 10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEveryDecisionIsRecorded() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1024);
+        DecisionEngine decisionEngine = engine(CreditPolicyReader.bundled(), auditLog);
+        long started = System.currentTimeMillis();
+
+        decisionEngine.calculateApprovedLoan("50307172740", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("37605030299", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("12345678901", null, 12);
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(3, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getDroppedCount());
+        assertEquals(3, records.size());
+
+        AuditRecord approved = records.get(0);
+        assertTrue(approved.timestamp() >= started);
+        assertEquals(new AuditRecord(approved.timestamp(), AuditRecordType.LOAN_DECISION, "50307172740", 4000L, 12,
+                DecisionStatus.APPROVED, 2000, 20, "2023-03-01"), approved);
+        assertEquals(DecisionStatus.NO_VALID_LOAN, records.get(1).status());
+        assertNull(records.get(1).approvedLoanAmount());
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, records.get(2).status());
+        assertNull(records.get(2).loanAmount());
+    }
+
+    @Test
+    void testOfferCurvesAreRecorded() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1024);
+        DecisionEngine decisionEngine = engine(CreditPolicyReader.bundled(), auditLog);
+
+        OfferCurve offerCurve = decisionEngine.calculateOfferCurve("50307172740");
+        decisionEngine.calculateOfferCurve("12345678901");
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(2, records.size());
+        AuditRecord offered = records.get(0);
+        List<Integer> loanAmounts = offerCurve.getLoanAmounts();
+        assertEquals(new AuditRecord(offered.timestamp(), AuditRecordType.OFFER_CURVE, "50307172740", null, 0,
+                DecisionStatus.APPROVED, loanAmounts.get(loanAmounts.size() - 1), offerCurve.getMaximumLoanPeriod(),
+                "2023-03-01"), offered);
+        AuditRecord rejected = records.get(1);
+        assertEquals(AuditRecordType.OFFER_CURVE, rejected.type());
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, rejected.status());
+        assertNull(rejected.approvedLoanAmount());
+        assertNull(rejected.approvedLoanPeriod());
+    }
+
+    @Test
+    void testProductOffersAreRecorded() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1024);
+        CreditPolicyStore creditPolicyStore = CreditPolicyStore.of(DecisionCache.disabled(),
+                CreditPolicyReader.bundled());
+        DecisionEngine decisionEngine = new DecisionEngine(creditPolicyStore, DecisionCache.disabled(),
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(), auditLog,
+                ProductRegistry.of(creditPolicyStore, CreditPolicyReader.bundledProducts()));
+
+        ProductOffers productOffers = decisionEngine.calculateProductOffers("50307172740");
+        decisionEngine.calculateProductOffers("12345678901");
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(2, records.size());
+        AuditRecord offered = records.get(0);
+        assertEquals(AuditRecordType.PRODUCT_OFFERS, offered.type());
+        assertEquals(DecisionStatus.APPROVED, offered.status());
+        assertEquals(productOffers.getOfferCurves().values().stream()
+                .flatMap(offerCurve -> offerCurve.getLoanAmounts().stream())
+                .max(Integer::compare).orElseThrow(), offered.approvedLoanAmount());
+        assertTrue(offered.policyVersion().startsWith(ProductRegistry.CONSUMER_LOAN + "=2023-03-01,car-leasing="),
+                offered.policyVersion());
+        AuditRecord rejected = records.get(1);
+        assertEquals(AuditRecordType.PRODUCT_OFFERS, rejected.type());
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, rejected.status());
+        assertNull(rejected.approvedLoanAmount());
+    }
+
+    @Test
+    void testConcurrentRecordsRollOverSegments() throws Exception {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1 << 16);
+        int threads = 8;
+        int recordsPerThread = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                String personalCode = "thread-" + thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < recordsPerThread; i++) {
+                        auditLog.record(personalCode, (long) i, 12, Decision.approved(i, 12, "v1"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        auditLog.close();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(threads * recordsPerThread, records.size());
+        assertEquals(records.size(), auditLog.getWrittenCount());
+        assertTrue(AuditSegmentWriter.segments(directory).size() > 1);
+
+        long[] next = new long[threads];
+        for (AuditRecord record : records) {
+            int thread = Integer.parseInt(record.personalCode().substring("thread-".length()));
+            assertEquals(next[thread]++, record.loanAmount());
+        }
+    }
+
+    @Test
+    void testRecordsRacingCloseAreWrittenOrDropped() throws Exception {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1 << 10);
+        int threads = 4;
+        CountDownLatch recording = new CountDownLatch(threads);
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long offered = 0;
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    long count = 0;
+                    recording.countDown();
+                    while (!stop.get()) {
+                        auditLog.record("50307172740", count++, 12, Decision.approved(2000, 12, "v1"));
+                    }
+                    return count;
+                }));
+            }
+            recording.await();
+            Thread.sleep(20);
+            auditLog.close();
+            stop.set(true);
+            for (Future<Long> future : futures) {
+                offered += future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(offered, auditLog.getWrittenCount() + auditLog.getDroppedCount());
+        assertEquals(auditLog.getWrittenCount(), readAll().size());
+    }
+
+    @Test
+    void testRecordsAfterWriterFailureAreDropped() throws Exception {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1 << 16);
+        for (Path segment : AuditSegmentWriter.segments(directory)) {
+            Files.delete(segment);
+        }
+        Files.delete(directory);
+        Files.createFile(directory);
+
+        int records = 2 * SEGMENT_SIZE / AuditRecordCodec.HEADER_SIZE;
+        for (int i = 0; i < records; i++) {
+            auditLog.record("50307172740", (long) i, 12, Decision.approved(2000, 12, "v1"));
+        }
+        auditLog.close();
+
+        assertTrue(auditLog.getDroppedCount() > 0);
+        assertEquals(records, auditLog.getWrittenCount() + auditLog.getDroppedCount());
+    }
+
+    @Test
+    void testTornRecordEndsSegment() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 16);
+        auditLog.record("50307172740", 4000L, 12, Decision.approved(2000, 20, "v1"));
+        auditLog.record("38411266610", 4000L, 12, Decision.approved(3600, 12, "v1"));
+        auditLog.close();
+
+        Path segment = AuditSegmentWriter.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int firstRecordLength = AuditRecordCodec.HEADER_SIZE
+                    + channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0);
+            channel.write(ByteBuffer.wrap("?".getBytes(StandardCharsets.US_ASCII)), firstRecordLength + 20);
+        }
+
+        List<AuditRecord> records = readAll();
+        assertEquals(1, records.size());
+        assertEquals("50307172740", records.get(0).personalCode());
+    }
+
+    @Test
+    void testRingBufferRejectsWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void testReplayReportsDivergentDecisions() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory, SEGMENT_SIZE, 1024);
+        DecisionEngine decisionEngine = engine(CreditPolicyReader.bundled(), auditLog);
+        decisionEngine.calculateApprovedLoan("50307172740", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("35006069515", 4000L, 12);
+        decisionEngine.calculateOfferCurve("38411266610");
+        auditLog.close();
+
+        CreditPolicy changedPolicy = new CreditPolicy("2023-04-01", 2000, 10000, 12, 60,
+                Map.of(CreditSegment.SEGMENT_1, 100, CreditSegment.SEGMENT_2, 500, CreditSegment.SEGMENT_3, 1000));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        AuditReplaySummary summary = new AuditReplayer(engine(changedPolicy, AuditLog.disabled()))
+                .replay(directory, new PrintStream(report, true, StandardCharsets.UTF_8));
+
+        assertEquals(new AuditReplaySummary(3, 1), summary);
+        String line = report.toString(StandardCharsets.UTF_8).trim();
+        assertTrue(line.endsWith("38411266610 4000 12: logged APPROVED 3600/12 (policy 2023-03-01), "
+                + "replayed APPROVED 6000/12 (policy 2023-04-01)"), line);
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLogReader.read(directory, records::add);
+        return records;
+    }
+
+    private static DecisionEngine engine(CreditPolicy policy, AuditLog auditLog) {
+        return new DecisionEngine(CreditPolicyStore.of(DecisionCache.disabled(), policy), DecisionCache.disabled(),
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(), auditLog);
+    }
+}
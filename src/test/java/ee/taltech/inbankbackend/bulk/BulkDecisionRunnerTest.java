@@ -0,0 +1,76 @@
+package ee.taltech.inbankbackend.bulk;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkDecisionRunnerTest {
+
+    private final BulkDecisionRunner runner = new BulkDecisionRunner(
+            new DecisionEngine(CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()),
+                    DecisionCache.disabled(), new LocalCreditModifierProvider(Map.of(), Duration.ZERO),
+                    DecisionMetrics.disabled(), AuditLog.disabled()),
+            ForkJoinPool.commonPool());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testJsonl() throws IOException {
+        Path input = directory.resolve("requests.jsonl");
+        Path output = directory.resolve("decisions.jsonl");
+        Files.writeString(input, """
+                {"personalCode": "50307172740", "loanAmount": 4000, "loanPeriod": 12}
+
+                {"personalCode": "37605030299", "loanAmount": "4000", "loanPeriod": "12"}
+                not json
+                {"personalCode": "12345678901", "loanAmount": 4000, "loanPeriod": 12}""");
+
+        BulkDecisionSummary summary = runner.run(input, output);
+
+        assertEquals(4, summary.records());
+        assertEquals(List.of(
+                "{\"loanAmount\":2000,\"loanPeriod\":20,\"errorMessage\":null,\"policyVersion\":\"2023-03-01\"}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"No valid loan found!\","
+                        + "\"policyVersion\":\"2023-03-01\"}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"Malformed request!\","
+                        + "\"policyVersion\":null}",
+                "{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"Invalid personal ID code!\","
+                        + "\"policyVersion\":\"2023-03-01\"}"),
+                Files.readAllLines(output));
+    }
+
+    @Test
+    void testCsvWithHeader() throws IOException {
+        Path input = directory.resolve("requests.csv");
+        Path output = directory.resolve("decisions.csv");
+        Files.writeString(input, """
+                personalCode,loanAmount,loanPeriod
+                38411266610,4000,12
+                35006069515,4000,60
+                """);
+
+        BulkDecisionSummary summary = runner.run(input, output);
+
+        assertEquals(2, summary.records());
+        assertEquals(List.of("loanAmount,loanPeriod,errorMessage,policyVersion", "3600,12,,2023-03-01",
+                        "10000,60,,2023-03-01"),
+                Files.readAllLines(output));
+    }
+}
@@ -0,0 +1,56 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.limit.LoadSheddingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that responses written by the filters in front of the controllers carry the CORS headers.
+ */
+@SpringBootTest(properties = {"decision-engine.rate-limit.requests-per-second=0.001",
+        "decision-engine.rate-limit.burst=1"})
+@AutoConfigureMockMvc
+class CrossOriginConfigurationTest {
+
+    private static final String ORIGIN = "https://frontend.example";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void givenInvalidPersonalCode_whenPrevalidated_thenRejectionIsReadableCrossOrigin() throws Exception {
+        mockMvc.perform(decisionRequest("prevalidation", "12345678901"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*"))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid personal ID code!"));
+    }
+
+    @Test
+    void givenClientOverRate_whenShed_thenRejectionIsReadableCrossOrigin() throws Exception {
+        mockMvc.perform(decisionRequest("shedding", "38411266610"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(decisionRequest("shedding", "38411266610"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*"));
+    }
+
+    private static MockHttpServletRequestBuilder decisionRequest(String client, String personalCode) {
+        return post("/loan/decision")
+                .header(HttpHeaders.ORIGIN, ORIGIN)
+                .header(LoadSheddingFilter.CLIENT_HEADER, client)
+                .content("{\"personalCode\":\"" + personalCode + "\",\"loanAmount\":4000,\"loanPeriod\":12}")
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+}
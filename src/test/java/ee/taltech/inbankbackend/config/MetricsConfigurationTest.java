@@ -0,0 +1,46 @@
+package ee.taltech.inbankbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the decision pipeline metrics are exposed on the Prometheus scrape endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testDecisionMetricsAreScraped() throws Exception {
+        mockMvc.perform(post("/loan/decision")
+                        .content("{\"personalCode\":\"38411266610\",\"loanAmount\":4000,\"loanPeriod\":12}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("decision_outcomes_total{outcome=\"approved\",}")))
+                .andExpect(content().string(containsString("decision_credit_segments_total{segment=\"segment_2\",}")))
+                .andExpect(content().string(containsString("decision_stage_duration_seconds_bucket{stage=\"solve\"")))
+                .andExpect(content().string(containsString("decision_cache_requests_total{result=\"miss\",}")))
+                .andExpect(content().string(containsString("decision_admission_requests_total{result=\"admitted\",}")))
+                .andExpect(content().string(containsString("decision_concurrency_limit")))
+                .andExpect(content().string(containsString("decision_idempotency_keys")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_count")));
+    }
+}
@@ -0,0 +1,53 @@
+package ee.taltech.inbankbackend.config;
+
+import ee.taltech.inbankbackend.endpoint.DecisionRequest;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeImageHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testLombokRequestCanBeBound() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(DecisionRequest.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(DecisionRequest.class.getMethod("getPersonalCode"))
+                .test(hints));
+    }
+
+    @Test
+    void testPolicyDocumentCanBeRead() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of(CreditPolicyReader.class.getName() + "$PolicyDocument"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource(CreditPolicyReader.BUNDLED_POLICY.substring(1))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource(CreditPolicyReader.BUNDLED_PRODUCTS.substring(1))
+                .test(hints));
+    }
+
+    @Test
+    void testVirtualThreadFactoryCanBeLookedUp() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Executors.class).test(hints));
+    }
+}
@@ -0,0 +1,26 @@
+package ee.taltech.inbankbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Checks that asynchronous requests get a bounded executor even though the context holds other Executor beans.
+ */
+@SpringBootTest
+class TaskExecutorConfigurationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void testApplicationTaskExecutorExists() {
+        assertInstanceOf(ThreadPoolTaskExecutor.class,
+                context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+    }
+}
@@ -0,0 +1,354 @@
+package ee.taltech.inbankbackend.credit;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditModifierProviderTest {
+
+    private static final String SEGMENT_2_PERSONAL_CODE = "38411266610";
+
+    @Test
+    void testLocalProviderSegmentsByLastFourDigitsAndOverrides() {
+        LocalCreditModifierProvider provider = new LocalCreditModifierProvider(
+                Map.of("50307172740", CreditSegment.SEGMENT_3), Duration.ZERO);
+
+        assertEquals(CreditSegment.SEGMENT_2, provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertEquals(CreditSegment.DEBT, provider.getCreditSegment("37605030299").join());
+        assertEquals(CreditSegment.SEGMENT_3, provider.getCreditSegment("50307172740").join());
+    }
+
+    @Test
+    void testBlockingLookupsOccupyExecutorThreads() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            LocalCreditModifierProvider provider =
+                    new LocalCreditModifierProvider(Map.of(), Duration.ofMillis(50), executor);
+
+            long started = System.nanoTime();
+            List<CompletableFuture<CreditSegment>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE));
+            }
+            lookups.forEach(lookup -> assertEquals(CreditSegment.SEGMENT_2, lookup.join()));
+
+            assertTrue(System.nanoTime() - started >= Duration.ofMillis(100).toNanos());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentLookupsAreCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<CreditSegment> registryResponse = new CompletableFuture<>();
+        CoalescingCreditModifierProvider provider = new CoalescingCreditModifierProvider(personalCode -> {
+            calls.incrementAndGet();
+            return registryResponse;
+        });
+
+        List<CompletableFuture<CreditSegment>> lookups = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lookups.add(provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE));
+        }
+        registryResponse.complete(CreditSegment.SEGMENT_2);
+
+        assertEquals(1, calls.get());
+        lookups.forEach(lookup -> assertEquals(CreditSegment.SEGMENT_2, lookup.join()));
+        assertEquals(0, provider.getInFlightCount());
+
+        provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testTimeoutFailsLookup() {
+        TimeLimitedCreditModifierProvider provider = new TimeLimitedCreditModifierProvider(
+                personalCode -> new CompletableFuture<>(), Duration.ofMillis(10));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void testHedgingCutsTailLatencyOfSlowRegistry() {
+        FaultInjectingCreditModifierProvider registry = new FaultInjectingCreditModifierProvider(
+                new LocalCreditModifierProvider(Map.of(), Duration.ofMillis(1)), 0, 0.05, Duration.ofMillis(200), 42);
+        HedgingCreditModifierProvider provider = new HedgingCreditModifierProvider(registry, 0.9, 0.2, 100);
+
+        lookUpInBatches(provider, 2);
+        long hedgeDelay = provider.getHedgeDelayNanos();
+        assertTrue(hedgeDelay > 0 && hedgeDelay < Duration.ofMillis(100).toNanos(), "hedge delay " + hedgeDelay);
+        assertEquals(0, provider.getHedgeCount());
+
+        long[] latencies = lookUpInBatches(provider, 20);
+        long slowLookups = Arrays.stream(latencies).filter(latency -> latency >= Duration.ofMillis(100).toNanos())
+                .count();
+
+        // Without hedging about 60 of the 1000 lookups take 200ms
+        assertTrue(slowLookups <= 20, slowLookups + " slow lookups");
+        assertTrue(provider.getHedgeWinCount() > 0);
+        assertTrue(provider.getHedgeCount() <= 200, provider.getHedgeCount() + " hedges");
+    }
+
+    @Test
+    void testHedgedLookupFailsOnlyWhenEveryAttemptFails() {
+        AtomicInteger calls = new AtomicInteger();
+        HedgingCreditModifierProvider provider = new HedgingCreditModifierProvider(personalCode -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("registry down"));
+        }, 0.9, 0.1);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testLatencyHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(-1, histogram.quantile(0.5));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        long median = histogram.quantile(0.5);
+        assertTrue(median >= 50_000_000L && median <= 50_000_000L * 5 / 4, "median " + median);
+        long p99 = histogram.quantile(0.99);
+        assertTrue(p99 >= 99_000_000L && p99 <= 99_000_000L * 5 / 4, "p99 " + p99);
+
+        histogram.reset();
+        assertEquals(-1, histogram.quantile(0.5));
+        for (long nanos : new long[]{0, 1, 3, 4, 7, 8, 1000, Long.MAX_VALUE}) {
+            assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucket(nanos)) >= nanos);
+        }
+    }
+
+    @Test
+    void testCircuitOpensOnFailuresAndClosesAfterSuccessfulTrial() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger failing = new AtomicInteger(1);
+        CircuitBreakingCreditModifierProvider provider = new CircuitBreakingCreditModifierProvider(personalCode -> {
+            calls.incrementAndGet();
+            return failing.get() == 1
+                    ? CompletableFuture.failedFuture(new IllegalStateException("registry down"))
+                    : CompletableFuture.completedFuture(CreditSegment.SEGMENT_2);
+        }, 0.5, 10, Duration.ofMinutes(1), Duration.ofMillis(50));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).isCompletedExceptionally());
+        }
+        assertEquals(CircuitBreakingCreditModifierProvider.State.OPEN, provider.getState());
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(10, calls.get());
+        assertEquals(1, provider.getRejectedCount());
+
+        Thread.sleep(60);
+        failing.set(0);
+        assertEquals(CreditSegment.SEGMENT_2, provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertEquals(CircuitBreakingCreditModifierProvider.State.CLOSED, provider.getState());
+        assertEquals(11, calls.get());
+    }
+
+    @Test
+    void testLateFailuresDoNotExtendOpenCircuit() throws InterruptedException {
+        CompletableFuture<CreditSegment> slowLookup = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreakingCreditModifierProvider provider = new CircuitBreakingCreditModifierProvider(personalCode ->
+                switch (calls.incrementAndGet()) {
+                    case 1 -> slowLookup;
+                    case 12 -> CompletableFuture.completedFuture(CreditSegment.SEGMENT_2);
+                    default -> CompletableFuture.failedFuture(new IllegalStateException("registry down"));
+                }, 0.5, 10, Duration.ofMinutes(1), Duration.ofMillis(50));
+
+        CompletableFuture<CreditSegment> late = provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE);
+        for (int i = 0; i < 10; i++) {
+            provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE);
+        }
+        assertEquals(CircuitBreakingCreditModifierProvider.State.OPEN, provider.getState());
+
+        Thread.sleep(60);
+        slowLookup.completeExceptionally(new IllegalStateException("registry down"));
+        assertTrue(late.isCompletedExceptionally());
+        assertEquals(CreditSegment.SEGMENT_2, provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertEquals(CircuitBreakingCreditModifierProvider.State.CLOSED, provider.getState());
+    }
+
+    @Test
+    void testBulkheadRejectsLookupsBeyondCap() {
+        CompletableFuture<CreditSegment> registryResponse = new CompletableFuture<>();
+        BulkheadCreditModifierProvider provider = new BulkheadCreditModifierProvider(
+                personalCode -> registryResponse, 2);
+
+        CompletableFuture<CreditSegment> first = provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE);
+        CompletableFuture<CreditSegment> second = provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE);
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(2, provider.getInFlightCount());
+
+        registryResponse.complete(CreditSegment.SEGMENT_2);
+        assertEquals(CreditSegment.SEGMENT_2, first.join());
+        assertEquals(CreditSegment.SEGMENT_2, second.join());
+        assertEquals(0, provider.getInFlightCount());
+        assertEquals(1, provider.getRejectedCount());
+    }
+
+    @Test
+    void testFailedLookupServesLastKnownSegmentThenFallback() {
+        AtomicInteger failing = new AtomicInteger();
+        StaleFallbackCreditModifierProvider provider = new StaleFallbackCreditModifierProvider(personalCode ->
+                failing.get() == 1
+                        ? CompletableFuture.failedFuture(new IllegalStateException("registry down"))
+                        : CompletableFuture.completedFuture(CreditSegment.SEGMENT_3),
+                CreditSegment.DEBT, 100);
+
+        assertEquals(CreditLookup.found(CreditSegment.SEGMENT_3), provider.lookup(SEGMENT_2_PERSONAL_CODE).join());
+        failing.set(1);
+        assertEquals(CreditSegment.SEGMENT_3, provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE).join());
+        assertEquals(CreditLookup.degraded(CreditSegment.SEGMENT_3), provider.lookup(SEGMENT_2_PERSONAL_CODE).join());
+        assertEquals(CreditLookup.degraded(CreditSegment.DEBT), provider.lookup("50307172740").join());
+        assertEquals(2, provider.getStaleCount());
+        assertEquals(1, provider.getFallbackCount());
+    }
+
+    @Test
+    void testRememberedSegmentsStayWithinBoundUnderConcurrency() throws Exception {
+        StaleFallbackCreditModifierProvider provider = new StaleFallbackCreditModifierProvider(
+                personalCode -> CompletableFuture.completedFuture(CreditSegment.SEGMENT_2), null, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread * 1000;
+                lookups.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        provider.getCreditSegment(String.valueOf(offset + i)).join();
+                    }
+                }));
+            }
+            for (Future<?> lookup : lookups) {
+                lookup.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(100, provider.size());
+    }
+
+    @Test
+    void testDegradedDecisionsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger failing = new AtomicInteger(1);
+        StaleFallbackCreditModifierProvider staleFallback = new StaleFallbackCreditModifierProvider(personalCode -> {
+            calls.incrementAndGet();
+            return failing.get() == 1
+                    ? CompletableFuture.failedFuture(new IllegalStateException("registry down"))
+                    : CompletableFuture.completedFuture(CreditSegment.SEGMENT_3);
+        }, CreditSegment.DEBT, 100);
+        DecisionCache decisionCache = new DecisionCache(1000, Duration.ofMinutes(5));
+        DecisionEngine decisionEngine = new DecisionEngine(
+                CreditPolicyStore.of(decisionCache, CreditPolicyReader.bundled()), decisionCache,
+                new CoalescingCreditModifierProvider(staleFallback), DecisionMetrics.disabled(), AuditLog.disabled());
+
+        assertEquals(DecisionStatus.NO_VALID_LOAN,
+                decisionEngine.calculateApprovedLoan(SEGMENT_2_PERSONAL_CODE, 4000L, 12).getStatus());
+        failing.set(0);
+        assertEquals(DecisionStatus.APPROVED,
+                decisionEngine.calculateApprovedLoan(SEGMENT_2_PERSONAL_CODE, 4000L, 12).getStatus());
+        assertEquals(DecisionStatus.APPROVED,
+                decisionEngine.calculateApprovedLoan(SEGMENT_2_PERSONAL_CODE, 4000L, 12).getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testFaultInjectionIsDeterministic() {
+        CreditModifierProvider registry = new LocalCreditModifierProvider(Map.of(), Duration.ZERO);
+        FaultInjectingCreditModifierProvider first = new FaultInjectingCreditModifierProvider(
+                registry, 0.1, 0, Duration.ZERO, 7);
+        FaultInjectingCreditModifierProvider second = new FaultInjectingCreditModifierProvider(
+                registry, 0.1, 0, Duration.ZERO, 7);
+
+        int failures = 0;
+        for (int i = 0; i < 10_000; i++) {
+            boolean failed = first.getCreditSegment(SEGMENT_2_PERSONAL_CODE).isCompletedExceptionally();
+            assertEquals(failed, second.getCreditSegment(SEGMENT_2_PERSONAL_CODE).isCompletedExceptionally());
+            if (failed) {
+                failures++;
+            }
+        }
+        assertTrue(failures > 900 && failures < 1100, failures + " failures");
+    }
+
+    @Test
+    void testEngineOverhead() {
+        Duration latency = Duration.ofMillis(100);
+        DecisionCache decisionCache = new DecisionCache(1000, Duration.ofMinutes(5));
+        DecisionEngine decisionEngine = new DecisionEngine(
+                CreditPolicyStore.of(decisionCache, CreditPolicyReader.bundled()), decisionCache,
+                new CoalescingCreditModifierProvider(new LocalCreditModifierProvider(Map.of(), latency)),
+                DecisionMetrics.disabled(), AuditLog.disabled());
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Decision>> decisions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            decisions.add(decisionEngine.calculateApprovedLoanAsync(SEGMENT_2_PERSONAL_CODE, 4000L, 12 + i % 49));
+        }
+        decisions.forEach(decision -> assertEquals(DecisionStatus.APPROVED, decision.join().getStatus()));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMillis < 10 * latency.toMillis(),
+                "1000 concurrent decisions took " + elapsedMillis + " ms with " + latency.toMillis() + " ms latency");
+    }
+
+    /**
+     * Sends batches of 50 concurrent lookups, one batch after the other.
+     *
+     * @return The latency of every lookup
+     */
+    private static long[] lookUpInBatches(CreditModifierProvider provider, int batches) {
+        long[] latencies = new long[batches * 50];
+        for (int batch = 0; batch < batches; batch++) {
+            List<CompletableFuture<?>> lookups = new ArrayList<>();
+            for (int i = batch * 50; i < (batch + 1) * 50; i++) {
+                int index = i;
+                long started = System.nanoTime();
+                lookups.add(provider.getCreditSegment(SEGMENT_2_PERSONAL_CODE)
+                        .thenRun(() -> latencies[index] = System.nanoTime() - started));
+            }
+            lookups.forEach(CompletableFuture::join);
+        }
+        return latencies;
+    }
+}
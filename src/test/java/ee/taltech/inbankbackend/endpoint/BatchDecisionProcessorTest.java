@@ -0,0 +1,128 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchDecisionProcessorTest {
+
+    private static final String REQUEST =
+            "{\"personalCode\": \"50307172740\", \"loanAmount\": 2000, \"loanPeriod\": 12}";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BatchDecisionProcessor processor = new BatchDecisionProcessor(new DecisionEngine(
+            CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()), DecisionCache.disabled(),
+            new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(),
+            AuditLog.disabled()), objectMapper, 4);
+
+    @Test
+    void testTooLongLineGetsAnError() throws IOException {
+        String input = REQUEST + "\n{\"personalCode\": \"" + "1".repeat(100_000) + "\"}\r\n" + REQUEST;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(2000, objectMapper.readValue(lines[0], BatchDecisionResponse.class).loanAmount());
+        assertEquals(BatchDecisionResponse.error(2, "Line too long!"),
+                objectMapper.readValue(lines[1], BatchDecisionResponse.class));
+        assertEquals(3, objectMapper.readValue(lines[2], BatchDecisionResponse.class).line());
+    }
+
+    @Test
+    void testDecisionsAreFlushedBeforeInputEnds() throws Exception {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(client);
+        FlushedOutput output = new FlushedOutput();
+        CompletableFuture<Void> processing = CompletableFuture.runAsync(() -> {
+            try {
+                processor.process(input, output);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        client.write((REQUEST + "\n").getBytes(StandardCharsets.UTF_8));
+        client.flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!output.flushed().contains("\"line\":1") && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(output.flushed().contains("\"line\":1"), "first decision not flushed while the input was open");
+
+        client.write((REQUEST + "\n").getBytes(StandardCharsets.UTF_8));
+        client.close();
+        processing.get(5, TimeUnit.SECONDS);
+        assertEquals(2, output.flushed().split("\n").length);
+    }
+
+    @Test
+    void testOnlyTheCallingThreadWrites() throws IOException {
+        String input = (REQUEST + "\n").repeat(20);
+        Thread caller = Thread.currentThread();
+        Set<Thread> writers = ConcurrentHashMap.newKeySet();
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                writers.add(Thread.currentThread());
+            }
+        };
+
+        processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        assertEquals(Set.of(caller), writers);
+    }
+
+    /**
+     * Only exposes what has been flushed.
+     */
+    private static final class FlushedOutput extends OutputStream {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private volatile String flushed = "";
+
+        @Override
+        public synchronized void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            written.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void flush() {
+            flushed = written.toString(StandardCharsets.UTF_8);
+        }
+
+        String flushed() {
+            return flushed;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package ee.taltech.inbankbackend.endpoint;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.idempotency.IdempotencyStore;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.policy.ProductRegistry;
 import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionCache;
 import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import ee.taltech.inbankbackend.service.ProductOffers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,10 +25,24 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -53,10 +72,8 @@ public class DecisionEngineControllerTest {
      * This method tests the /loan/decision endpoint with valid inputs.
      */
     @Test
-    public void givenValidRequest_whenRequestDecision_thenReturnsExpectedResponse()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
-        Decision decision = new Decision(1000, 12, null);
+    public void givenValidRequest_whenRequestDecision_thenReturnsExpectedResponse() throws Exception {
+        Decision decision = Decision.approved(1000, 12);
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt())).thenReturn(decision);
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
@@ -72,9 +89,9 @@ public class DecisionEngineControllerTest {
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == 1000;
-        assert response.getLoanPeriod() == 12;
-        assert response.getErrorMessage() == null;
+        assert response.loanAmount() == 1000;
+        assert response.loanPeriod() == 12;
+        assert response.errorMessage() == null;
     }
 
     /**
@@ -82,11 +99,9 @@ public class DecisionEngineControllerTest {
      * an HTTP Bad Request (400) response with the appropriate error message in the response body.
      */
     @Test
-    public void givenInvalidPersonalCode_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+    public void givenInvalidPersonalCode_whenRequestDecision_thenReturnsBadRequest() throws Exception {
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidPersonalCodeException("Invalid personal code"));
+                .thenReturn(Decision.rejected(DecisionStatus.INVALID_PERSONAL_CODE));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
@@ -97,13 +112,13 @@ public class DecisionEngineControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.loanAmount").isEmpty())
                 .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid personal code"))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid personal ID code!"))
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == null;
-        assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid personal code");
+        assert response.loanAmount() == null;
+        assert response.loanPeriod() == null;
+        assert response.errorMessage().equals("Invalid personal ID code!");
     }
 
     /**
@@ -111,11 +126,9 @@ public class DecisionEngineControllerTest {
      * an HTTP Bad Request (400) response with the appropriate error message in the response body.
      */
     @Test
-    public void givenInvalidLoanAmount_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+    public void givenInvalidLoanAmount_whenRequestDecision_thenReturnsBadRequest() throws Exception {
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidLoanAmountException("Invalid loan amount"));
+                .thenReturn(Decision.rejected(DecisionStatus.INVALID_LOAN_AMOUNT));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
@@ -126,13 +139,13 @@ public class DecisionEngineControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.loanAmount").isEmpty())
                 .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid loan amount"))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid loan amount!"))
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == null;
-        assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid loan amount");
+        assert response.loanAmount() == null;
+        assert response.loanPeriod() == null;
+        assert response.errorMessage().equals("Invalid loan amount!");
     }
 
     /**
@@ -140,11 +153,9 @@ public class DecisionEngineControllerTest {
      * an HTTP Bad Request (400) response with the appropriate error message in the response body.
      */
     @Test
-    public void givenInvalidLoanPeriod_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+    public void givenInvalidLoanPeriod_whenRequestDecision_thenReturnsBadRequest() throws Exception {
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new InvalidLoanPeriodException("Invalid loan period"));
+                .thenReturn(Decision.rejected(DecisionStatus.INVALID_LOAN_PERIOD));
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
 
@@ -155,25 +166,23 @@ public class DecisionEngineControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.loanAmount").isEmpty())
                 .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("Invalid loan period"))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid loan period!"))
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == null;
-        assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("Invalid loan period");
+        assert response.loanAmount() == null;
+        assert response.loanPeriod() == null;
+        assert response.errorMessage().equals("Invalid loan period!");
     }
 
     /**
      * This test ensures that if no valid loan is found, the controller returns
-     * an HTTP Bad Request (400) response with the appropriate error message in the response body.
+     * an HTTP Not Found (404) response with the appropriate error message in the response body.
      */
     @Test
-    public void givenNoValidLoan_whenRequestDecision_thenReturnsBadRequest()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+    public void givenNoValidLoan_whenRequestDecision_thenReturnsNotFound() throws Exception {
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
-                .thenThrow(new NoValidLoanException("No valid loan available"));
+                .thenReturn(Decision.rejected(DecisionStatus.NO_VALID_LOAN));
 
         DecisionRequest request = new DecisionRequest("1234", 1000L, 12);
 
@@ -184,13 +193,13 @@ public class DecisionEngineControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.loanAmount").isEmpty())
                 .andExpect(jsonPath("$.loanPeriod").isEmpty())
-                .andExpect(jsonPath("$.errorMessage").value("No valid loan available"))
+                .andExpect(jsonPath("$.errorMessage").value("No valid loan found!"))
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == null;
-        assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("No valid loan available");
+        assert response.loanAmount() == null;
+        assert response.loanPeriod() == null;
+        assert response.errorMessage().equals("No valid loan found!");
     }
 
     /**
@@ -198,9 +207,7 @@ public class DecisionEngineControllerTest {
      * an HTTP Internal Server Error (500) response with the appropriate error message in the response body.
      */
     @Test
-    public void givenUnexpectedError_whenRequestDecision_thenReturnsInternalServerError()
-            throws Exception, InvalidLoanPeriodException, NoValidLoanException, InvalidPersonalCodeException,
-            InvalidLoanAmountException {
+    public void givenUnexpectedError_whenRequestDecision_thenReturnsInternalServerError() throws Exception {
         when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt())).thenThrow(new RuntimeException());
 
         DecisionRequest request = new DecisionRequest("1234", 10L, 10);
@@ -216,8 +223,225 @@ public class DecisionEngineControllerTest {
                 .andReturn();
 
         DecisionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
-        assert response.getLoanAmount() == null;
-        assert response.getLoanPeriod() == null;
-        assert response.getErrorMessage().equals("An unexpected error occurred");
+        assert response.loanAmount() == null;
+        assert response.loanPeriod() == null;
+        assert response.errorMessage().equals("An unexpected error occurred");
+    }
+
+    /**
+     * This test ensures that the decision endpoint reads and writes the binary wire format when the client
+     * asks for it.
+     */
+    @Test
+    public void givenBinaryRequest_whenRequestDecision_thenReturnsBinaryResponse() throws Exception {
+        when(decisionEngine.calculateApprovedLoan("50307172740", 4000L, 24))
+                .thenReturn(Decision.approved(2400, 24, "2023-03-01"));
+
+        MvcResult result = mockMvc.perform(post("/loan/decision")
+                        .content(DecisionWireFormat.encodeRequest(new DecisionRequest("50307172740", 4000L, 24)))
+                        .contentType(DecisionWireFormat.MEDIA_TYPE)
+                        .accept(DecisionWireFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DecisionWireFormat.MEDIA_TYPE))
+                .andReturn();
+
+        DecisionResponse response =
+                DecisionWireFormat.decodeResponse(ByteBuffer.wrap(result.getResponse().getContentAsByteArray()));
+        assertEquals(new DecisionResponse(2400, 24, null, "2023-03-01"), response);
+    }
+
+    /**
+     * This test ensures that a truncated binary request is rejected with an HTTP Bad Request (400) response.
+     */
+    @Test
+    public void givenMalformedBinaryRequest_whenRequestDecision_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/loan/decision")
+                        .content(new byte[]{1, 11, '5'})
+                        .contentType(DecisionWireFormat.MEDIA_TYPE))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * This test ensures that the offer curve endpoint returns the feasible loan periods and their amounts.
+     */
+    @Test
+    public void givenValidRequest_whenRequestOfferCurve_thenReturnsOfferCurve() throws Exception {
+        when(decisionEngine.calculateOfferCurve(anyString()))
+                .thenReturn(OfferCurve.approved(58, new int[]{5800, 5900, 6000}, "2023-03-01"));
+
+        MvcResult result = mockMvc.perform(post("/loan/offers")
+                        .content(objectMapper.writeValueAsString(new OfferCurveRequest("50307172740")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.minimumLoanPeriod").value(58))
+                .andExpect(jsonPath("$.maximumLoanPeriod").value(60))
+                .andExpect(jsonPath("$.errorMessage").isEmpty())
+                .andReturn();
+
+        OfferCurveResponse response =
+                objectMapper.readValue(result.getResponse().getContentAsString(), OfferCurveResponse.class);
+        assertEquals(new OfferCurveResponse(58, 60, List.of(5800, 5900, 6000), null, "2023-03-01"), response);
+    }
+
+    /**
+     * This test ensures that if no valid loans can be found, the offer curve endpoint returns
+     * an HTTP Not Found (404) response with the appropriate error message in the response body.
+     */
+    @Test
+    public void givenNoValidLoan_whenRequestOfferCurve_thenReturnsNotFound() throws Exception {
+        when(decisionEngine.calculateOfferCurve(anyString()))
+                .thenReturn(OfferCurve.rejected(DecisionStatus.NO_VALID_LOAN, "2023-03-01"));
+
+        mockMvc.perform(post("/loan/offers")
+                        .content(objectMapper.writeValueAsString(new OfferCurveRequest("37605030299")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.loanAmounts").isEmpty())
+                .andExpect(jsonPath("$.errorMessage").value("No valid loan found!"));
+    }
+
+    /**
+     * This test ensures that the product offers endpoint returns the offer curve of every product in catalog order.
+     */
+    @Test
+    public void givenValidRequest_whenRequestProductOffers_thenReturnsOffersOfEveryProduct() throws Exception {
+        CreditPolicyStore creditPolicyStore =
+                CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled());
+        ProductOffers productOffers = ProductRegistry.of(creditPolicyStore, CreditPolicyReader.bundledProducts())
+                .current().offers(CreditSegment.SEGMENT_1);
+        when(decisionEngine.calculateProductOffers(anyString())).thenReturn(productOffers);
+
+        mockMvc.perform(post("/loan/products/offers")
+                        .content(objectMapper.writeValueAsString(new OfferCurveRequest("50307172740")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorMessage").isEmpty())
+                .andExpect(jsonPath("$.products['consumer-loan'].minimumLoanPeriod").value(20))
+                .andExpect(jsonPath("$.products['car-leasing'].errorMessage").isEmpty())
+                .andExpect(jsonPath("$.products['small-business-credit'].errorMessage")
+                        .value("No valid loan found!"));
+    }
+
+    /**
+     * This test ensures that a request retried with the same idempotency key is only decided once and that every
+     * attempt gets the same response.
+     */
+    @Test
+    public void givenRetriedRequest_whenRequestDecisionWithIdempotencyKey_thenDecidesOnce() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(Decision.approved(1000, 12)));
+        String content = objectMapper.writeValueAsString(new DecisionRequest("1234", 10L, 10));
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/loan/decision")
+                            .header(IdempotencyStore.HEADER, "retried-request")
+                            .content(content)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.loanAmount").value(1000))
+                    .andExpect(jsonPath("$.loanPeriod").value(12));
+        }
+
+        verify(decisionEngine, times(1)).calculateApprovedLoanAsync("1234", 10L, 10);
+    }
+
+    /**
+     * This test ensures that reusing an idempotency key for a different request returns
+     * an HTTP Unprocessable Entity (422) response with the appropriate error message in the response body.
+     */
+    @Test
+    public void givenReusedIdempotencyKey_whenRequestDecision_thenReturnsUnprocessableEntity() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(Decision.approved(1000, 12)));
+
+        mockMvc.perform(post("/loan/decision")
+                        .header(IdempotencyStore.HEADER, "reused-key")
+                        .content(objectMapper.writeValueAsString(new DecisionRequest("1234", 10L, 10)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/loan/decision")
+                        .header(IdempotencyStore.HEADER, "reused-key")
+                        .content(objectMapper.writeValueAsString(new DecisionRequest("1234", 20L, 10)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorMessage").value("Idempotency key reused for a different request!"));
+    }
+
+    /**
+     * This test sends many requests concurrently and ensures that every response carries the data of its own
+     * request, i.e. that no response state is shared between requests.
+     */
+    @Test
+    public void givenConcurrentRequests_whenRequestDecision_thenEveryResponseMatchesItsRequest() throws Exception {
+        when(decisionEngine.calculateApprovedLoan(anyString(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> new Decision(DecisionStatus.APPROVED,
+                        Math.toIntExact(invocation.<Long>getArgument(1)), invocation.getArgument(2),
+                        invocation.getArgument(0), null));
+
+        int requestCount = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<DecisionResponse>> results = new ArrayList<>(requestCount);
+            for (int i = 0; i < requestCount; i++) {
+                DecisionRequest request = new DecisionRequest("code-" + i, 2000L + i, 12 + i % 49);
+                Callable<DecisionResponse> task = () -> {
+                    startSignal.await();
+                    MvcResult result = mockMvc.perform(post("/loan/decision")
+                                    .content(objectMapper.writeValueAsString(request))
+                                    .contentType(MediaType.APPLICATION_JSON))
+                            .andExpect(status().isOk())
+                            .andReturn();
+                    return objectMapper.readValue(result.getResponse().getContentAsString(), DecisionResponse.class);
+                };
+                results.add(executor.submit(task));
+            }
+            startSignal.countDown();
+
+            for (int i = 0; i < requestCount; i++) {
+                DecisionResponse response = results.get(i).get();
+                assertEquals(2000 + i, response.loanAmount());
+                assertEquals(12 + i % 49, response.loanPeriod());
+                assertEquals("code-" + i, response.errorMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This test ensures that the batch endpoint returns one decision per non-blank line, in input order and
+     * tagged with the input line number, and that a malformed line does not fail the whole batch.
+     */
+    @Test
+    public void givenNdjsonBatch_whenRequestDecisions_thenStreamsDecisionsInInputOrder() throws Exception {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        Decision.approved(Math.toIntExact(invocation.<Long>getArgument(1)), invocation.getArgument(2))));
+
+        String body = objectMapper.writeValueAsString(new DecisionRequest("50307172740", 2000L, 12)) + "\n"
+                + "{not json\n"
+                + "\n"
+                + objectMapper.writeValueAsString(new DecisionRequest("38411266610", 3000L, 24)) + "\n";
+
+        MvcResult result = mockMvc.perform(post("/loan/decisions")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(3, lines.length);
+        BatchDecisionResponse first = objectMapper.readValue(lines[0], BatchDecisionResponse.class);
+        BatchDecisionResponse malformed = objectMapper.readValue(lines[1], BatchDecisionResponse.class);
+        BatchDecisionResponse last = objectMapper.readValue(lines[2], BatchDecisionResponse.class);
+        assertEquals(new BatchDecisionResponse(1, 2000, 12, null, null), first);
+        assertEquals(BatchDecisionResponse.error(2, "Malformed request!"), malformed);
+        assertEquals(new BatchDecisionResponse(4, 3000, 24, null, null), last);
     }
 }
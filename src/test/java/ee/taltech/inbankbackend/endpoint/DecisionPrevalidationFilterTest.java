@@ -0,0 +1,151 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionPrevalidationFilterTest {
+
+    private final DecisionPrevalidationFilter filter = new DecisionPrevalidationFilter(new DecisionEngine(
+            CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()), DecisionCache.disabled(),
+            new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(),
+            AuditLog.disabled()), new ObjectMapper());
+
+    @Test
+    void givenValidRequest_whenFiltered_thenPassedOnWithScannedRequest() throws Exception {
+        MockHttpServletRequest request = request("{\"personalCode\":\"38411266610\",\"loanAmount\":4000,"
+                + "\"loanPeriod\":\"12\"}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        DecisionRequest scanned =
+                (DecisionRequest) request.getAttribute(DecisionPrevalidationFilter.PREVALIDATED_REQUEST);
+        assertEquals("38411266610", scanned.getPersonalCode());
+        assertEquals(4000L, scanned.getLoanAmount());
+        assertEquals(12, scanned.getLoanPeriod());
+        assertEquals(-1, chain.getRequest().getInputStream().read());
+    }
+
+    @Test
+    void givenInvalidLoanAmount_whenFiltered_thenRejectedBeforeBinding() throws Exception {
+        MockHttpServletRequest request = request("{\"personalCode\":\"38411266610\",\"loanAmount\":1,"
+                + "\"loanPeriod\":12}");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertEquals("{\"loanAmount\":null,\"loanPeriod\":null,\"errorMessage\":\"Invalid loan amount!\","
+                + "\"policyVersion\":\"" + CreditPolicyReader.bundled().getVersion() + "\"}",
+                response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void givenNonObjectBody_whenFiltered_thenRejectedAsMalformed() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(" [\"38411266610\", 4000, 12]"), response, chain);
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertEquals("{\"errorMessage\":\"Malformed request!\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void givenUnsupportedJson_whenFiltered_thenPassedOnWithBody() throws Exception {
+        String body = "{\"personalCode\":\"38411266610\",\"loanAmount\":4000,\"loanPeriod\":12,\"note\":\"\\\"\"}";
+        MockHttpServletRequest request = request(body);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNull(request.getAttribute(DecisionPrevalidationFilter.PREVALIDATED_REQUEST));
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), chain.getRequest().getInputStream().readAllBytes());
+    }
+
+    @Test
+    void givenUnsupportedJson_whenReadWithReadListener_thenBodyIsDelivered() throws Exception {
+        String body = "{\"personalCode\":\"38411266610\",\"loanAmount\":4000,\"loanPeriod\":12,\"note\":\"\\\"\"}";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream input = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+        input.setReadListener(new ReadListener() {
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (input.isReady() && !input.isFinished()) {
+                    int count = input.read(buffer);
+                    if (count > 0) {
+                        read.write(buffer, 0, count);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertTrue(allDataRead.get());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), read.toByteArray());
+    }
+
+    @Test
+    void givenBinaryRequest_whenFiltered_thenPassedOnUnchanged() throws Exception {
+        MockHttpServletRequest request = request("");
+        request.setContent(DecisionWireFormat.encodeRequest(new DecisionRequest("38411266610", 1L, 12)));
+        request.setContentType(DecisionWireFormat.MEDIA_TYPE_VALUE);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/loan/decision");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,52 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecisionWireFormatTest {
+
+    @Test
+    void testRequestRoundTrip() {
+        byte[] encoded = DecisionWireFormat.encodeRequest(new DecisionRequest("50307172740", 4000L, 24));
+        DecisionRequest decoded = DecisionWireFormat.decodeRequest(ByteBuffer.wrap(encoded));
+
+        assertEquals(25, encoded.length);
+        assertEquals("50307172740", decoded.getPersonalCode());
+        assertEquals(4000L, decoded.getLoanAmount());
+        assertEquals(24, decoded.getLoanPeriod());
+
+        assertNull(DecisionWireFormat.decodeRequest(
+                ByteBuffer.wrap(DecisionWireFormat.encodeRequest(new DecisionRequest("1234", null, 12))))
+                .getLoanAmount());
+    }
+
+    @Test
+    void testResponseRoundTrip() {
+        for (DecisionResponse response : new DecisionResponse[]{
+                new DecisionResponse(2400, 24, null, "2023-03-01"),
+                new DecisionResponse(null, null, "No valid loan found!", "2023-03-01"),
+                DecisionResponse.error("An unexpected error occurred")}) {
+            byte[] encoded = DecisionWireFormat.encodeResponse(response);
+            assertEquals(response, DecisionWireFormat.decodeResponse(ByteBuffer.wrap(encoded)));
+        }
+        assertEquals(20, DecisionWireFormat.encodeResponse(new DecisionResponse(2400, 24, null, "2023-03-01")).length);
+    }
+
+    @Test
+    void testMalformedMessagesAreRejected() {
+        byte[] request = DecisionWireFormat.encodeRequest(new DecisionRequest("50307172740", 4000L, 24));
+        assertThrows(IllegalArgumentException.class,
+                () -> DecisionWireFormat.decodeRequest(ByteBuffer.wrap(request, 0, request.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> DecisionWireFormat.decodeRequest(ByteBuffer.wrap(new byte[request.length + 1])));
+        assertThrows(IllegalArgumentException.class,
+                () -> DecisionWireFormat.decodeResponse(ByteBuffer.wrap(new byte[]{1, 0, 0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> DecisionWireFormat.encodeResponse(DecisionResponse.error("x".repeat(256))));
+    }
+}
@@ -0,0 +1,127 @@
+package ee.taltech.inbankbackend.endpoint;
+
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.OfferCurve;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class holds integration tests for the reactive variant of the decision endpoints.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+public class ReactiveDecisionEngineControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private DecisionEngine decisionEngine;
+
+    @Test
+    public void givenValidRequest_whenRequestDecision_thenReturnsExpectedResponse() {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(Decision.approved(1000, 12)));
+
+        webTestClient.post().uri("/loan/decision")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DecisionRequest("1234", 10L, 10))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DecisionResponse.class)
+                .isEqualTo(new DecisionResponse(1000, 12, null, null));
+    }
+
+    @Test
+    public void givenNoValidLoan_whenRequestDecision_thenReturnsNotFound() {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(Decision.rejected(DecisionStatus.NO_VALID_LOAN)));
+
+        webTestClient.post().uri("/loan/decision")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DecisionRequest("1234", 10L, 10))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(DecisionResponse.class)
+                .isEqualTo(DecisionResponse.error("No valid loan found!"));
+    }
+
+    @Test
+    public void givenFailedLookup_whenRequestDecision_thenReturnsInternalServerError() {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("registry unavailable")));
+
+        webTestClient.post().uri("/loan/decision")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DecisionRequest("1234", 10L, 10))
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody(DecisionResponse.class)
+                .isEqualTo(DecisionResponse.error("An unexpected error occurred"));
+    }
+
+    @Test
+    public void givenValidRequest_whenRequestOfferCurve_thenReturnsOfferCurve() {
+        when(decisionEngine.calculateOfferCurveAsync(anyString())).thenReturn(CompletableFuture.completedFuture(
+                OfferCurve.approved(58, new int[]{5800, 5900, 6000}, "2023-03-01")));
+
+        webTestClient.post().uri("/loan/offers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new OfferCurveRequest("50307172740"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(OfferCurveResponse.class)
+                .isEqualTo(new OfferCurveResponse(58, 60, List.of(5800, 5900, 6000), null, "2023-03-01"));
+    }
+
+    @Test
+    public void givenBatch_whenRequestDecisions_thenStreamsDecisionsInInputOrder() {
+        when(decisionEngine.calculateApprovedLoanAsync(anyString(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        Decision.approved(Math.toIntExact(invocation.<Long>getArgument(1)), invocation.getArgument(2))));
+        when(decisionEngine.calculateApprovedLoanAsync(eq("slow"), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> Decision.approved(5000, 48),
+                        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+
+        String body = """
+                {"personalCode":"slow","loanAmount":5000,"loanPeriod":48}
+                {"personalCode":"1234","loanAmount":2000,"loanPeriod":12}
+
+                not json
+                """;
+
+        List<BatchDecisionResponse> responses = webTestClient.post().uri("/loan/decisions")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BatchDecisionResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(List.of(
+                new BatchDecisionResponse(1, 5000, 48, null, null),
+                new BatchDecisionResponse(2, 2000, 12, null, null),
+                BatchDecisionResponse.error(4, "Malformed request!")), responses);
+    }
+}
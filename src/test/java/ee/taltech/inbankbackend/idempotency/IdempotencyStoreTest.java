@@ -0,0 +1,120 @@
+package ee.taltech.inbankbackend.idempotency;
+
+import ee.taltech.inbankbackend.service.Decision;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    private final Decision decision = Decision.approved(3600, 12);
+    private final AtomicInteger decisions = new AtomicInteger();
+
+    @Test
+    void testDuplicateWaitsForFirstDecision() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(10));
+        CompletableFuture<Decision> pending = new CompletableFuture<>();
+
+        CompletableFuture<Decision> first = store.execute("key", "38411266610", 4000L, 12, () -> decide(pending));
+        CompletableFuture<Decision> duplicate = store.execute("key", "38411266610", 4000L, 12, () -> decide(pending));
+        assertFalse(duplicate.isDone());
+        pending.complete(decision);
+
+        assertSame(decision, first.join());
+        assertSame(decision, duplicate.join());
+        assertEquals(1, decisions.get());
+        assertEquals(1, store.getFirstRequestCount());
+        assertEquals(1, store.getReplayCount());
+    }
+
+    @Test
+    void testCompletedDecisionIsReplayed() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(10));
+
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+        CompletableFuture<Decision> retry = store.execute("key", "38411266610", 4000L, 12,
+                () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertSame(decision, retry.join());
+        assertEquals(1, decisions.get());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsConflict() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(10));
+
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertNull(store.execute("key", "38411266610", 5000L, 12,
+                () -> decide(CompletableFuture.completedFuture(decision))));
+        assertEquals(1, decisions.get());
+        assertEquals(1, store.getConflictCount());
+    }
+
+    @Test
+    void testFailedDecisionIsNotStored() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(10));
+
+        CompletableFuture<Decision> failed = store.execute("key", "38411266610", 4000L, 12,
+                () -> decide(CompletableFuture.failedFuture(new IllegalStateException("registry unavailable"))));
+        assertThrows(CompletionException.class, failed::join);
+        CompletableFuture<Decision> retry = store.execute("key", "38411266610", 4000L, 12,
+                () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertSame(decision, retry.join());
+        assertEquals(2, decisions.get());
+    }
+
+    @Test
+    void testExpiredKeyIsDecidedAgainAndSwept() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(1, Duration.ofMillis(20));
+
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+        Thread.sleep(50);
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertEquals(2, decisions.get());
+        assertEquals(0, store.getReplayCount());
+        assertEquals(0, store.getEvictionCount());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testOldestKeyIsEvictedWhenFull() {
+        IdempotencyStore store = new IdempotencyStore(1, Duration.ofMinutes(10));
+
+        store.execute("first", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+        store.execute("second", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+        store.execute("first", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertEquals(3, decisions.get());
+        assertEquals(2, store.getEvictionCount());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testDisabledStoreAlwaysDecides() {
+        IdempotencyStore store = IdempotencyStore.disabled();
+
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+        store.execute("key", "38411266610", 4000L, 12, () -> decide(CompletableFuture.completedFuture(decision)));
+
+        assertEquals(2, decisions.get());
+        assertEquals(0, store.size());
+    }
+
+    private CompletableFuture<Decision> decide(CompletableFuture<Decision> result) {
+        decisions.incrementAndGet();
+        return result;
+    }
+}
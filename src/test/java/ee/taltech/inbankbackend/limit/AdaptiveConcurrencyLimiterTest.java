@@ -0,0 +1,83 @@
+package ee.taltech.inbankbackend.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now = System.nanoTime();
+
+    @Test
+    void testRejectsAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 2, 2, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(MILLISECOND, now);
+        assertTrue(limiter.tryAcquire());
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.getAdmittedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testLimitShrinksToMinimumWhileLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 2.0);
+        completeWindows(limiter, 10, MILLISECOND);
+        assertEquals(100, limiter.getLimit());
+
+        completeWindows(limiter, 3, 10 * MILLISECOND);
+        int limit = limiter.getLimit();
+        assertTrue(limit < 100, "limit " + limit);
+
+        completeWindows(limiter, 100, 10 * MILLISECOND);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitGrowsWhileUsedAndLatencyHolds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 2.0);
+        for (int i = 0; i < 60; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        completeWindows(limiter, 10, MILLISECOND);
+        int limit = limiter.getLimit();
+        assertTrue(limit > 100, "limit " + limit);
+
+        completeWindows(limiter, 100, MILLISECOND);
+        limit = limiter.getLimit();
+        assertTrue(limit >= 120 && limit < 125, "growth stops once less than half the limit is used, limit " + limit);
+    }
+
+    @Test
+    void testDisabledAdmitsEverything() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.disabled();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    /**
+     * Completes 20 requests of the given latency in each of the given number of consecutive windows.
+     */
+    private void completeWindows(AdaptiveConcurrencyLimiter limiter, int windows, long latency) {
+        for (int window = 0; window < windows; window++) {
+            now += WINDOW;
+            for (int i = 0; i < 20; i++) {
+                assertTrue(limiter.tryAcquire());
+                limiter.release(latency, now);
+            }
+        }
+    }
+}
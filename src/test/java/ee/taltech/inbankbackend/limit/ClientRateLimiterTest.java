@@ -0,0 +1,94 @@
+package ee.taltech.inbankbackend.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstIsAdmittedThenRateApplies() {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(10, 3, 100);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("partner", now));
+        }
+        long wait = rateLimiter.tryAcquire("partner", now);
+        assertEquals(SECOND / 10, wait);
+        assertEquals(0, rateLimiter.tryAcquire("partner", now + wait));
+        assertTrue(rateLimiter.tryAcquire("partner", now + wait) > 0);
+        assertEquals(2, rateLimiter.getRejectedCount());
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(1, 1, 100);
+        long now = System.nanoTime();
+
+        assertEquals(0, rateLimiter.tryAcquire("first", now));
+        assertTrue(rateLimiter.tryAcquire("first", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("second", now));
+        assertEquals(2, rateLimiter.getClientCount());
+    }
+
+    @Test
+    void testClientsBeyondMaximumShareOverflowBucketUntilIdleBucketsAreSwept() {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(1, 1, 1);
+        long now = System.nanoTime();
+
+        assertEquals(0, rateLimiter.tryAcquire("first", now));
+        assertEquals(0, rateLimiter.tryAcquire("second", now));
+        assertTrue(rateLimiter.tryAcquire("third", now) > 0);
+        assertEquals(1, rateLimiter.getClientCount());
+
+        long later = now + 2 * SECOND;
+        assertEquals(0, rateLimiter.tryAcquire("third", later));
+        assertTrue(rateLimiter.tryAcquire("third", later) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("fourth", later));
+        assertEquals(1, rateLimiter.getClientCount());
+    }
+
+    @Test
+    void testConcurrentRequestsNeverExceedBurst() throws InterruptedException {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(0.001, 1000, 100);
+        long now = System.nanoTime();
+        int[] admitted = new int[8];
+        Thread[] threads = new Thread[admitted.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (rateLimiter.tryAcquire("partner", now) == 0) {
+                        admitted[index]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        int total = 0;
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            total += admitted[t];
+        }
+
+        assertEquals(1000, total);
+        assertEquals(7000, rateLimiter.getRejectedCount());
+    }
+
+    @Test
+    void testDisabledAdmitsEverything() {
+        ClientRateLimiter rateLimiter = ClientRateLimiter.disabled();
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("partner", now));
+        }
+        assertEquals(0, rateLimiter.getClientCount());
+    }
+}
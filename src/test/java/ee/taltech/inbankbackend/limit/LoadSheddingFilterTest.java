@@ -0,0 +1,89 @@
+package ee.taltech.inbankbackend.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadSheddingFilterTest {
+
+    @Test
+    void givenClientOverRate_whenFiltered_thenRejectedBeforeBodyIsRead() throws Exception {
+        LoadSheddingFilter filter = new LoadSheddingFilter(new ClientRateLimiter(0.001, 1, 100),
+                AdaptiveConcurrencyLimiter.disabled());
+
+        assertEquals(HttpStatus.OK.value(), filter(filter, request("partner")).getStatus());
+
+        MockHttpServletRequest request = request("partner");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("1000", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"errorMessage\":\"Too many requests!\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+
+        assertEquals(HttpStatus.OK.value(), filter(filter, request("other-partner")).getStatus());
+    }
+
+    @Test
+    void givenNoClientHeader_whenFiltered_thenLimitedByRemoteAddress() throws Exception {
+        LoadSheddingFilter filter = new LoadSheddingFilter(new ClientRateLimiter(0.001, 1, 100),
+                AdaptiveConcurrencyLimiter.disabled());
+        MockHttpServletRequest first = request(null);
+        first.setRemoteAddr("10.0.0.1");
+        MockHttpServletRequest second = request(null);
+        second.setRemoteAddr("10.0.0.2");
+
+        assertEquals(HttpStatus.OK.value(), filter(filter, first).getStatus());
+        assertEquals(HttpStatus.OK.value(), filter(filter, second).getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), filter(filter, first).getStatus());
+    }
+
+    @Test
+    void givenConcurrencyLimitReached_whenFiltered_thenServiceUnavailable() throws Exception {
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0);
+        LoadSheddingFilter filter = new LoadSheddingFilter(ClientRateLimiter.disabled(), concurrencyLimiter);
+
+        assertTrue(concurrencyLimiter.tryAcquire());
+        MockHttpServletResponse response = filter(filter, request("partner"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertEquals("{\"errorMessage\":\"Service overloaded, try again later!\"}", response.getContentAsString());
+
+        concurrencyLimiter.release(0, System.nanoTime());
+        assertEquals(HttpStatus.OK.value(), filter(filter, request("partner")).getStatus());
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void testRetryAfterIsRoundedUpToSeconds() {
+        assertEquals(1, LoadSheddingFilter.retryAfterSeconds(1));
+        assertEquals(1, LoadSheddingFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, LoadSheddingFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/loan/decision");
+        if (client != null) {
+            request.addHeader(LoadSheddingFilter.CLIENT_HEADER, client);
+        }
+        request.setContent("{\"personalCode\":\"38411266610\",\"loanAmount\":4000,\"loanPeriod\":12}".getBytes());
+        return request;
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,116 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditPolicyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBundledPolicy() {
+        CreditPolicy policy = CreditPolicyReader.bundled();
+
+        assertEquals(2000, policy.getMinimumLoanAmount());
+        assertEquals(10000, policy.getMaximumLoanAmount());
+        assertEquals(12, policy.getMinimumLoanPeriod());
+        assertEquals(60, policy.getMaximumLoanPeriod());
+        assertEquals(0, policy.getCreditModifier(CreditSegment.DEBT));
+        assertEquals(100, policy.getCreditModifier(CreditSegment.SEGMENT_1));
+        assertEquals(300, policy.getCreditModifier(CreditSegment.SEGMENT_2));
+        assertEquals(1000, policy.getCreditModifier(CreditSegment.SEGMENT_3));
+    }
+
+    @Test
+    void testInvalidPoliciesAreRejected() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> read(policyJson("v1", 5000, 2000, 300)));
+        assertThrows(IllegalArgumentException.class, () -> read(policyJson(" ", 2000, 10000, 300)));
+        assertThrows(IllegalArgumentException.class, () -> read(policyJson("v1", 2000, 10000, -1)));
+        assertThrows(IOException.class, () -> read(policyJson("v1", 2000, 10000, 300).replace("loanPeriod", "term")));
+        assertThrows(IOException.class, () -> read("{\"version\":"));
+    }
+
+    @Test
+    void testPublishInvalidatesCache() {
+        DecisionCache decisionCache = new DecisionCache(100, Duration.ofMinutes(5));
+        CreditPolicyStore store = CreditPolicyStore.of(decisionCache, CreditPolicyReader.bundled());
+        PolicySnapshot before = store.current();
+
+        store.publish(CreditPolicyReader.bundled());
+
+        assertNotEquals(before.cacheGeneration(), store.current().cacheGeneration());
+        assertEquals(decisionCache.getGeneration(), store.current().cacheGeneration());
+    }
+
+    @Test
+    void testReloadKeepsCurrentPolicyWhenFileIsInvalid() throws IOException {
+        Path file = directory.resolve("credit-policy.json");
+        Files.writeString(file, policyJson("v1", 2000, 10000, 300));
+        CreditPolicyStore store = new CreditPolicyStore(DecisionCache.disabled(), file.toString(), false);
+        PolicySnapshot loaded = store.current();
+        assertEquals("v1", loaded.policy().getVersion());
+
+        Files.writeString(file, "{\"version\":\"v2\"");
+        assertFalse(store.reload());
+        assertSame(loaded, store.current());
+
+        Files.writeString(file, policyJson("v2", 2000, 10000, 500));
+        assertTrue(store.reload());
+        assertEquals("v2", store.current().policy().getVersion());
+        assertEquals(500, store.current().policy().getCreditModifier(CreditSegment.SEGMENT_2));
+    }
+
+    @Test
+    void testWatchedFileIsReloaded() throws Exception {
+        Path file = directory.resolve("credit-policy.json");
+        Files.writeString(file, policyJson("v1", 2000, 10000, 300));
+        CreditPolicyStore store = new CreditPolicyStore(DecisionCache.disabled(), file.toString(), true);
+        try {
+            Path staged = directory.resolve("credit-policy.json.tmp");
+            Files.writeString(staged, policyJson("v2", 2000, 10000, 500));
+            Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (!store.current().policy().getVersion().equals("v2") && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("v2", store.current().policy().getVersion());
+        } finally {
+            store.destroy();
+        }
+    }
+
+    private CreditPolicy read(String json) throws IOException {
+        Path file = directory.resolve("policy.json");
+        Files.writeString(file, json);
+        return CreditPolicyReader.read(file);
+    }
+
+    private static String policyJson(String version, int minimumLoanAmount, int maximumLoanAmount,
+                                     int segment2CreditModifier) {
+        return """
+                {
+                  "version": "%s",
+                  "loanAmount": {"minimum": %d, "maximum": %d},
+                  "loanPeriod": {"minimum": 12, "maximum": 60},
+                  "creditModifiers": {"SEGMENT_1": 100, "SEGMENT_2": %d, "SEGMENT_3": 1000}
+                }
+                """.formatted(version, minimumLoanAmount, maximumLoanAmount, segment2CreditModifier);
+    }
+}
@@ -0,0 +1,86 @@
+package ee.taltech.inbankbackend.policy;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import ee.taltech.inbankbackend.service.DecisionTable;
+import ee.taltech.inbankbackend.service.ProductCatalog;
+import ee.taltech.inbankbackend.service.ProductOffers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductRegistryTest {
+
+    private static final Map<String, CreditPolicy> PRODUCTS = CreditPolicyReader.bundledProducts();
+
+    @Test
+    void testCatalogListsConsumerLoanFirst() {
+        ProductRegistry registry = ProductRegistry.of(
+                CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()), PRODUCTS);
+
+        assertEquals(List.of(ProductRegistry.CONSUMER_LOAN, "car-leasing", "small-business-credit"),
+                registry.current().getProducts());
+        assertSame(registry.current(), registry.current());
+    }
+
+    @Test
+    void testOffersMatchDecisionTablesOfProducts() {
+        ProductCatalog catalog = ProductRegistry.of(
+                CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()), PRODUCTS).current();
+
+        for (CreditSegment segment : CreditSegment.values()) {
+            ProductOffers offers = catalog.offers(segment);
+            for (String product : catalog.getProducts()) {
+                assertSame(catalog.decisionTable(product).offerCurve(segment), offers.getOfferCurves().get(product));
+            }
+        }
+        assertEquals(DecisionStatus.NO_VALID_LOAN, catalog.offers(CreditSegment.DEBT).getStatus());
+        assertEquals(DecisionStatus.APPROVED, catalog.offers(CreditSegment.SEGMENT_1).getStatus());
+        assertEquals(DecisionStatus.NO_VALID_LOAN, catalog.offers(CreditSegment.SEGMENT_1).getOfferCurves()
+                .get("small-business-credit").getStatus());
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE,
+                catalog.rejected(DecisionStatus.INVALID_PERSONAL_CODE).getOfferCurves().get("car-leasing").getStatus());
+    }
+
+    @Test
+    void testPublishedPolicyReplacesConsumerLoan() {
+        CreditPolicyStore store = CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled());
+        ProductRegistry registry = ProductRegistry.of(store, PRODUCTS);
+        ProductCatalog before = registry.current();
+        DecisionTable carLeasing = before.decisionTable("car-leasing");
+
+        store.publish(new CreditPolicy("2023-04-01", 2000, 10000, 6, 60,
+                Map.of(CreditSegment.SEGMENT_1, 100, CreditSegment.SEGMENT_2, 500, CreditSegment.SEGMENT_3, 1000)));
+
+        ProductCatalog after = registry.current();
+        assertNotSame(before, after);
+        assertEquals("2023-04-01", after.decisionTable(ProductRegistry.CONSUMER_LOAN).getPolicy().getVersion());
+        assertSame(carLeasing, after.decisionTable("car-leasing"));
+    }
+
+    @Test
+    void testInvalidCatalogsAreRejected() {
+        CreditPolicyStore store = CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled());
+
+        assertThrows(IllegalArgumentException.class, () -> ProductRegistry.of(store,
+                Map.of(ProductRegistry.CONSUMER_LOAN, CreditPolicyReader.bundled())));
+        assertThrows(IllegalArgumentException.class, () -> readProducts("null"));
+        assertThrows(IllegalArgumentException.class, () -> readProducts("{\"car-leasing\": {\"version\": \"v1\"}}"));
+        assertThrows(IOException.class, () -> readProducts("{\"car-leasing\": {\"term\": 12}}"));
+        assertThrows(IOException.class, () -> readProducts("[]"));
+    }
+
+    private static Map<String, CreditPolicy> readProducts(String json) throws IOException {
+        return CreditPolicyReader.readProducts(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,76 @@
+package ee.taltech.inbankbackend.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionRequestScannerTest {
+
+    private final DecisionRequestScanner scanner = new DecisionRequestScanner();
+
+    @Test
+    void testJsonWithNumbers() {
+        assertTrue(scanJson("{\"personalCode\":\"50307172740\",\"loanAmount\":5000,\"loanPeriod\":24}"));
+        assertEquals("50307172740", scanner.getPersonalCode());
+        assertTrue(scanner.hasLoanAmount());
+        assertEquals(5000, scanner.getLoanAmount());
+        assertEquals(24, scanner.getLoanPeriod());
+    }
+
+    @Test
+    void testJsonWithQuotedNumbersAndUnknownFields() {
+        assertTrue(scanJson(" { \"loanPeriod\" : \"24\", \"channel\": \"web\", \"retry\": false,"
+                + " \"personalCode\": \"50307172740\", \"loanAmount\": \"5000\" }\r"));
+        assertEquals("50307172740", scanner.getPersonalCode());
+        assertEquals(5000, scanner.getLoanAmount());
+        assertEquals(24, scanner.getLoanPeriod());
+    }
+
+    @Test
+    void testJsonWithMissingAndNullFields() {
+        assertTrue(scanJson("{\"personalCode\":null,\"loanAmount\":null}"));
+        assertFalse(scanner.hasPersonalCode());
+        assertNull(scanner.getPersonalCode());
+        assertFalse(scanner.hasLoanAmount());
+        assertEquals(0, scanner.getLoanPeriod());
+    }
+
+    @Test
+    void testUnsupportedOrMalformedJson() {
+        assertFalse(scanJson("{\"personalCode\":\"50307172740\""));
+        assertFalse(scanJson("{\"loanAmount\":5000.5}"));
+        assertFalse(scanJson("{\"personalCode\":\"5030\\u0037172740\"}"));
+        assertFalse(scanJson("{\"nested\":{\"loanAmount\":5000}}"));
+        assertFalse(scanJson("{\"loanPeriod\":12} trailing"));
+        assertFalse(scanJson("{\"loanPeriod\":99999999999}"));
+        assertFalse(scanJson("[]"));
+    }
+
+    @Test
+    void testCsv() {
+        assertTrue(scanCsv(" 50307172740 , 5000 ,24\r"));
+        assertEquals("50307172740", scanner.getPersonalCode());
+        assertEquals(5000, scanner.getLoanAmount());
+        assertEquals(24, scanner.getLoanPeriod());
+
+        assertFalse(scanCsv("50307172740,5000"));
+        assertFalse(scanCsv("50307172740,5000,24,1"));
+        assertFalse(scanCsv("50307172740,five,24"));
+    }
+
+    private boolean scanJson(String json) {
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        return scanner.scanJson(buffer, 0, buffer.limit());
+    }
+
+    private boolean scanCsv(String csv) {
+        ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+        return scanner.scanCsv(buffer, 0, buffer.limit());
+    }
+}
@@ -0,0 +1,86 @@
+package ee.taltech.inbankbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DecisionCacheTest {
+
+    private final Decision decision = Decision.approved(3600, 12);
+
+    @Test
+    void testHitAndMissCounters() {
+        DecisionCache cache = new DecisionCache(100, Duration.ofMinutes(5));
+        long key = DecisionCache.key("38411266610", 12, 4000);
+
+        assertNull(cache.get(key));
+        cache.put(key, decision);
+        assertSame(decision, cache.get(key));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        DecisionCache cache = new DecisionCache(1, Duration.ofMinutes(5));
+        long first = DecisionCache.key("38411266610", 12, 4000);
+        long second = DecisionCache.key("38411266610", 24, 4000);
+
+        cache.put(first, decision);
+        cache.put(second, decision);
+
+        assertNull(cache.get(first));
+        assertSame(decision, cache.get(second));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testExpiredEntryIsNotReturned() throws InterruptedException {
+        DecisionCache cache = new DecisionCache(100, Duration.ofMillis(1));
+        long key = DecisionCache.key("38411266610", 12, 4000);
+
+        cache.put(key, decision);
+        Thread.sleep(5);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        DecisionCache cache = new DecisionCache(100, Duration.ofMinutes(5));
+        long key = DecisionCache.key("38411266610", 12, 4000);
+
+        cache.put(key, decision);
+        cache.invalidateAll();
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        DecisionCache cache = DecisionCache.disabled();
+        long key = DecisionCache.key("38411266610", 12, 4000);
+
+        cache.put(key, decision);
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testKeyEncoding() {
+        assertNotEquals(DecisionCache.key("38411266610", 12, 4000), DecisionCache.key("38411266610", 13, 4000));
+        assertNotEquals(DecisionCache.key("38411266610", 12, 4000), DecisionCache.key("38411266610", 12, 4001));
+        assertNotEquals(DecisionCache.key("38411266610", 12, 4000), DecisionCache.key("38411266611", 12, 4000));
+        assertNotEquals(DecisionCache.UNCACHEABLE, DecisionCache.key("69912319999", 127, (1 << 18) - 1));
+        assertEquals(DecisionCache.UNCACHEABLE, DecisionCache.key("38411266610", 128, 4000));
+        assertEquals(DecisionCache.UNCACHEABLE, DecisionCache.key("38411266610", 12, 1 << 18));
+    }
+}
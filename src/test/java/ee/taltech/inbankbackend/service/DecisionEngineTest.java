@@ -1,23 +1,39 @@
 package ee.taltech.inbankbackend.service;
 
-import ee.taltech.inbankbackend.config.DecisionEngineConstants;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanAmountException;
-import ee.taltech.inbankbackend.exceptions.InvalidLoanPeriodException;
-import ee.taltech.inbankbackend.exceptions.InvalidPersonalCodeException;
-import ee.taltech.inbankbackend.exceptions.NoValidLoanException;
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.policy.ProductRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 @ExtendWith(MockitoExtension.class)
 class DecisionEngineTest {
 
-    @InjectMocks
+    private static final CreditPolicy POLICY = CreditPolicyReader.bundled();
+
+    private CreditPolicyStore creditPolicyStore;
     private DecisionEngine decisionEngine;
 
     private String debtorPersonalCode;
@@ -27,6 +43,11 @@ class DecisionEngineTest {
 
     @BeforeEach
     void setUp() {
+        DecisionCache decisionCache = new DecisionCache(1000, Duration.ofMinutes(5));
+        creditPolicyStore = CreditPolicyStore.of(decisionCache, POLICY);
+        decisionEngine = new DecisionEngine(creditPolicyStore, decisionCache,
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(),
+                AuditLog.disabled());
         debtorPersonalCode = "37605030299";
         segment1PersonalCode = "50307172740";
         segment2PersonalCode = "38411266610";
@@ -35,29 +56,27 @@ class DecisionEngineTest {
 
     @Test
     void testDebtorPersonalCode() {
-        assertThrows(NoValidLoanException.class,
-                () -> decisionEngine.calculateApprovedLoan(debtorPersonalCode, 4000L, 12));
+        Decision decision = decisionEngine.calculateApprovedLoan(debtorPersonalCode, 4000L, 12);
+        assertEquals(DecisionStatus.NO_VALID_LOAN, decision.getStatus());
+        assertEquals("No valid loan found!", decision.getErrorMessage());
     }
 
     @Test
-    void testSegment1PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
+    void testSegment1PersonalCode() {
         Decision decision = decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, 12);
         assertEquals(2000, decision.getLoanAmount());
         assertEquals(20, decision.getLoanPeriod());
     }
 
     @Test
-    void testSegment2PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
+    void testSegment2PersonalCode() {
         Decision decision = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 12);
         assertEquals(3600, decision.getLoanAmount());
         assertEquals(12, decision.getLoanPeriod());
     }
 
     @Test
-    void testSegment3PersonalCode() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
+    void testSegment3PersonalCode() {
         Decision decision = decisionEngine.calculateApprovedLoan(segment3PersonalCode, 4000L, 12);
         assertEquals(10000, decision.getLoanAmount());
         assertEquals(12, decision.getLoanPeriod());
@@ -66,37 +85,53 @@ class DecisionEngineTest {
     @Test
     void testInvalidPersonalCode() {
         String invalidPersonalCode = "12345678901";
-        assertThrows(InvalidPersonalCodeException.class,
-                () -> decisionEngine.calculateApprovedLoan(invalidPersonalCode, 4000L, 12));
+        Decision decision = decisionEngine.calculateApprovedLoan(invalidPersonalCode, 4000L, 12);
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, decision.getStatus());
+        assertEquals("Invalid personal ID code!", decision.getErrorMessage());
     }
 
     @Test
     void testInvalidLoanAmount() {
-        Long tooLowLoanAmount = DecisionEngineConstants.MINIMUM_LOAN_AMOUNT - 1L;
-        Long tooHighLoanAmount = DecisionEngineConstants.MAXIMUM_LOAN_AMOUNT + 1L;
+        Long tooLowLoanAmount = POLICY.getMinimumLoanAmount() - 1L;
+        Long tooHighLoanAmount = POLICY.getMaximumLoanAmount() + 1L;
+
+        assertEquals(DecisionStatus.INVALID_LOAN_AMOUNT,
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooLowLoanAmount, 12).getStatus());
 
-        assertThrows(InvalidLoanAmountException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooLowLoanAmount, 12));
+        assertEquals(DecisionStatus.INVALID_LOAN_AMOUNT,
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooHighLoanAmount, 12).getStatus());
 
-        assertThrows(InvalidLoanAmountException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, tooHighLoanAmount, 12));
+        assertEquals(DecisionStatus.INVALID_LOAN_AMOUNT,
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, null, 12).getStatus());
     }
 
     @Test
     void testInvalidLoanPeriod() {
-        int tooShortLoanPeriod = DecisionEngineConstants.MINIMUM_LOAN_PERIOD - 1;
-        int tooLongLoanPeriod = DecisionEngineConstants.MAXIMUM_LOAN_PERIOD + 1;
+        int tooShortLoanPeriod = POLICY.getMinimumLoanPeriod() - 1;
+        int tooLongLoanPeriod = POLICY.getMaximumLoanPeriod() + 1;
 
-        assertThrows(InvalidLoanPeriodException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooShortLoanPeriod));
+        assertEquals(DecisionStatus.INVALID_LOAN_PERIOD,
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooShortLoanPeriod).getStatus());
 
-        assertThrows(InvalidLoanPeriodException.class,
-                () -> decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooLongLoanPeriod));
+        assertEquals(DecisionStatus.INVALID_LOAN_PERIOD,
+                decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, tooLongLoanPeriod).getStatus());
+    }
+
+    @Test
+    void testRejectInvalidInputs() {
+        assertNull(decisionEngine.rejectInvalidInputs(debtorPersonalCode, 4000L, 12));
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE,
+                decisionEngine.rejectInvalidInputs("12345678901", 4000L, 12).getStatus());
+        assertEquals(DecisionStatus.INVALID_LOAN_AMOUNT,
+                decisionEngine.rejectInvalidInputs(segment1PersonalCode, null, 12).getStatus());
+        assertEquals(DecisionStatus.INVALID_LOAN_PERIOD,
+                decisionEngine.rejectInvalidInputs(segment1PersonalCode, 4000L, 0).getStatus());
+        assertEquals(POLICY.getVersion(),
+                decisionEngine.rejectInvalidInputs(segment1PersonalCode, 4000L, 0).getPolicyVersion());
     }
 
     @Test
-    void testFindSuitableLoanPeriod() throws InvalidLoanPeriodException, NoValidLoanException,
-            InvalidPersonalCodeException, InvalidLoanAmountException {
+    void testFindSuitableLoanPeriod() {
         Decision decision = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 2000L, 12);
         assertEquals(3600, decision.getLoanAmount());
         assertEquals(12, decision.getLoanPeriod());
@@ -104,9 +139,152 @@ class DecisionEngineTest {
 
     @Test
     void testNoValidLoanFound() {
-        assertThrows(NoValidLoanException.class,
-                () -> decisionEngine.calculateApprovedLoan(debtorPersonalCode, 10000L, 60));
+        Decision decision = decisionEngine.calculateApprovedLoan(debtorPersonalCode, 10000L, 60);
+        assertEquals(DecisionStatus.NO_VALID_LOAN, decision.getStatus());
+        assertSame(decision, decisionEngine.calculateApprovedLoan(debtorPersonalCode, 2000L, 12));
     }
 
-}
+    @Test
+    void testDecisionsAreTaggedWithPolicyVersion() {
+        assertEquals(POLICY.getVersion(),
+                decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 12).getPolicyVersion());
+        assertEquals(POLICY.getVersion(),
+                decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 6).getPolicyVersion());
+    }
+
+    @Test
+    void testPublishedPolicyReplacesCachedDecisions() {
+        Decision before = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 12);
+        assertEquals(3600, before.getLoanAmount());
+
+        creditPolicyStore.publish(new CreditPolicy("2023-04-01", 1000, 20000, 6, 72,
+                Map.of(CreditSegment.SEGMENT_1, 100, CreditSegment.SEGMENT_2, 500, CreditSegment.SEGMENT_3, 1000)));
+
+        Decision after = decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 12);
+        assertEquals(6000, after.getLoanAmount());
+        assertEquals("2023-04-01", after.getPolicyVersion());
+        assertEquals(DecisionStatus.APPROVED,
+                decisionEngine.calculateApprovedLoan(segment2PersonalCode, 4000L, 6).getStatus());
+    }
+
+    @Test
+    void testOfferCurveMatchesDecisions() {
+        OfferCurve offerCurve = decisionEngine.calculateOfferCurve(segment1PersonalCode);
+        assertEquals(DecisionStatus.APPROVED, offerCurve.getStatus());
+        assertEquals(20, offerCurve.getMinimumLoanPeriod());
+        assertEquals(60, offerCurve.getMaximumLoanPeriod());
+        assertEquals(41, offerCurve.getLoanAmounts().size());
+        assertEquals(POLICY.getVersion(), offerCurve.getPolicyVersion());
+
+        for (int loanPeriod = offerCurve.getMinimumLoanPeriod(); loanPeriod <= offerCurve.getMaximumLoanPeriod();
+             loanPeriod++) {
+            Decision decision = decisionEngine.calculateApprovedLoan(segment1PersonalCode, 4000L, loanPeriod);
+            assertEquals(loanPeriod, decision.getLoanPeriod());
+            assertEquals(decision.getLoanAmount(),
+                    offerCurve.getLoanAmounts().get(loanPeriod - offerCurve.getMinimumLoanPeriod()));
+        }
+        assertEquals(List.of(10000), decisionEngine.calculateOfferCurve(segment3PersonalCode).getLoanAmounts()
+                .stream().distinct().toList());
+    }
+
+    @Test
+    void testOfferCurveRejections() {
+        OfferCurve debtor = decisionEngine.calculateOfferCurve(debtorPersonalCode);
+        assertEquals(DecisionStatus.NO_VALID_LOAN, debtor.getStatus());
+        assertEquals("No valid loan found!", debtor.getErrorMessage());
+        assertEquals(List.of(), debtor.getLoanAmounts());
+
+        OfferCurve invalid = decisionEngine.calculateOfferCurve("12345678901");
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, invalid.getStatus());
+        assertEquals(POLICY.getVersion(), invalid.getPolicyVersion());
+    }
+
+    @Test
+    void testProductOffersShareOneEvaluation() {
+        DecisionEngine productEngine = new DecisionEngine(creditPolicyStore, DecisionCache.disabled(),
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(),
+                AuditLog.disabled(), ProductRegistry.of(creditPolicyStore, CreditPolicyReader.bundledProducts()));
 
+        ProductOffers segment1 = productEngine.calculateProductOffers(segment1PersonalCode);
+        assertEquals(DecisionStatus.APPROVED, segment1.getStatus());
+        assertEquals(List.of(ProductRegistry.CONSUMER_LOAN, "car-leasing", "small-business-credit"),
+                List.copyOf(segment1.getOfferCurves().keySet()));
+        assertEquals(decisionEngine.calculateOfferCurve(segment1PersonalCode).getLoanAmounts(),
+                segment1.getOfferCurves().get(ProductRegistry.CONSUMER_LOAN).getLoanAmounts());
+        assertEquals(DecisionStatus.APPROVED, segment1.getOfferCurves().get("car-leasing").getStatus());
+        assertEquals(DecisionStatus.NO_VALID_LOAN, segment1.getOfferCurves().get("small-business-credit").getStatus());
+
+        ProductOffers debtor = productEngine.calculateProductOffers(debtorPersonalCode);
+        assertEquals(DecisionStatus.NO_VALID_LOAN, debtor.getStatus());
+        assertEquals("No valid loan found!", debtor.getErrorMessage());
+
+        ProductOffers invalid = productEngine.calculateProductOffers("12345678901");
+        assertEquals(DecisionStatus.INVALID_PERSONAL_CODE, invalid.getStatus());
+        assertEquals(3, invalid.getOfferCurves().size());
+    }
+
+    @Test
+    void testConcurrentDecisionsMatchSingleThreadedResults() throws Exception {
+        int threads = 16;
+        List<String> personalCodes = generatePersonalCodes(5000);
+        List<String> expected = new ArrayList<>(personalCodes.size());
+        for (int i = 0; i < personalCodes.size(); i++) {
+            expected.add(describeDecision(personalCodes.get(i), loanAmountFor(i), loanPeriodFor(i)));
+        }
+        assertFalse(expected.stream().anyMatch(result -> result.startsWith(DecisionStatus.INVALID_PERSONAL_CODE.name())),
+                "Generated personal codes must all be valid");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 5; round++) {
+                CountDownLatch startSignal = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>(personalCodes.size());
+                for (int i = 0; i < personalCodes.size(); i++) {
+                    final int index = i;
+                    Callable<String> task = () -> {
+                        startSignal.await();
+                        return describeDecision(personalCodes.get(index), loanAmountFor(index), loanPeriodFor(index));
+                    };
+                    results.add(executor.submit(task));
+                }
+                startSignal.countDown();
+
+                for (int i = 0; i < results.size(); i++) {
+                    assertEquals(expected.get(i), results.get(i).get(), "Mismatch for " + personalCodes.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String describeDecision(String personalCode, long loanAmount, int loanPeriod) {
+        Decision decision = decisionEngine.calculateApprovedLoan(personalCode, loanAmount, loanPeriod);
+        return decision.getStatus() + "/" + decision.getLoanAmount() + "/" + decision.getLoanPeriod();
+    }
+
+    private static long loanAmountFor(int index) {
+        return POLICY.getMinimumLoanAmount() + (index * 37L) % 8001;
+    }
+
+    private static int loanPeriodFor(int index) {
+        return POLICY.getMinimumLoanPeriod() + index % 49;
+    }
+
+    /**
+     * Generates valid Estonian personal codes whose last four digits are spread over all credit segments.
+     */
+    private static List<String> generatePersonalCodes(int count) {
+        List<String> personalCodes = new ArrayList<>(count);
+        LocalDate firstBirthDate = LocalDate.of(1950, 1, 1);
+        for (int i = 0; i < count; i++) {
+            LocalDate birthDate = firstBirthDate.plusDays(i * 3L);
+            int centuryAndGender = (birthDate.getYear() < 2000 ? 3 : 5) + i % 2;
+            String digits = String.format("%d%02d%02d%02d%03d", centuryAndGender, birthDate.getYear() % 100,
+                    birthDate.getMonthValue(), birthDate.getDayOfMonth(), (i * 7919) % 1000);
+            personalCodes.add(digits + PersonalCodeParser.checkDigit(digits));
+        }
+        return personalCodes;
+    }
+
+}
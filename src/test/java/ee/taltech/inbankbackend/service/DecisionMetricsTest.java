@@ -0,0 +1,83 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecisionMetricsTest {
+
+    private MeterRegistry registry;
+    private DecisionEngine decisionEngine;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        DecisionCache decisionCache = new DecisionCache(1000, Duration.ofMinutes(5));
+        decisionEngine = new DecisionEngine(CreditPolicyStore.of(decisionCache, CreditPolicyReader.bundled()),
+                decisionCache, new LocalCreditModifierProvider(Map.of(), Duration.ZERO), new DecisionMetrics(registry),
+                AuditLog.disabled());
+    }
+
+    @Test
+    void testOutcomesAreCountedByType() {
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("50307172740", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("37605030299", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("12345678901", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("38411266610", 1000L, 12);
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 6);
+
+        assertEquals(2, outcomeCount("approved"));
+        assertEquals(1, outcomeCount("adjusted_period"));
+        assertEquals(1, outcomeCount("no_valid_loan"));
+        assertEquals(1, outcomeCount("invalid_personal_code"));
+        assertEquals(1, outcomeCount("invalid_loan_amount"));
+        assertEquals(1, outcomeCount("invalid_loan_period"));
+        assertEquals(0, outcomeCount("error"));
+    }
+
+    @Test
+    void testStagesAreTimedSeparately() {
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("38411266610", 4000L, 12);
+        decisionEngine.calculateApprovedLoan("12345678901", 4000L, 12);
+
+        assertEquals(3, stageCount("validation"));
+        assertEquals(1, stageCount("lookup"));
+        assertEquals(1, stageCount("solve"));
+        assertEquals(1, registry.get(DecisionMetrics.SEGMENTS).tag("segment", "segment_2").counter().count());
+    }
+
+    @Test
+    void testFailedLookupIsCountedAsError() {
+        DecisionEngine failingEngine = new DecisionEngine(
+                CreditPolicyStore.of(DecisionCache.disabled(), CreditPolicyReader.bundled()), DecisionCache.disabled(),
+                personalCode -> CompletableFuture.failedFuture(new IllegalStateException("registry unavailable")),
+                new DecisionMetrics(registry), AuditLog.disabled());
+
+        assertThrows(CompletionException.class, () -> failingEngine.calculateApprovedLoan("38411266610", 4000L, 12));
+        assertEquals(1, outcomeCount("error"));
+    }
+
+    private double outcomeCount(String outcome) {
+        return registry.get(DecisionMetrics.OUTCOMES).tag("outcome", outcome).counter().count();
+    }
+
+    private long stageCount(String stage) {
+        return registry.get(DecisionMetrics.STAGES).tag("stage", stage).timer().count();
+    }
+}
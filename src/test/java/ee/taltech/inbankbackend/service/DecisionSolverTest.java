@@ -0,0 +1,61 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecisionSolverTest {
+
+    private static final CreditPolicy POLICY = CreditPolicyReader.bundled();
+
+    @Test
+    void testAgreesWithPeriodSearchForAllModifiersAndPeriods() {
+        int maximumModifier = POLICY.getMaximumLoanAmount() * 2;
+        for (int creditModifier = 0; creditModifier <= maximumModifier; creditModifier++) {
+            for (int loanPeriod = POLICY.getMinimumLoanPeriod(); loanPeriod <= POLICY.getMaximumLoanPeriod();
+                 loanPeriod++) {
+                int expectedPeriod = searchApprovedLoanPeriod(creditModifier, loanPeriod);
+                int actualPeriod = DecisionSolver.approvedLoanPeriod(POLICY, creditModifier, loanPeriod);
+                assertEquals(expectedPeriod, actualPeriod,
+                        "Period mismatch for modifier " + creditModifier + " and period " + loanPeriod);
+
+                if (expectedPeriod != DecisionSolver.NO_VALID_LOAN) {
+                    int expectedAmount = Math.min(POLICY.getMaximumLoanAmount(), creditModifier * expectedPeriod);
+                    assertEquals(expectedAmount,
+                            DecisionSolver.approvedLoanAmount(POLICY, creditModifier, actualPeriod),
+                            "Amount mismatch for modifier " + creditModifier + " and period " + loanPeriod);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSegmentModifiers() {
+        int segment1 = POLICY.getCreditModifier(CreditSegment.SEGMENT_1);
+        int segment2 = POLICY.getCreditModifier(CreditSegment.SEGMENT_2);
+        int segment3 = POLICY.getCreditModifier(CreditSegment.SEGMENT_3);
+
+        assertEquals(DecisionSolver.NO_VALID_LOAN, DecisionSolver.approvedLoanPeriod(POLICY, 0, 12));
+        assertEquals(20, DecisionSolver.approvedLoanPeriod(POLICY, segment1, 12));
+        assertEquals(2000, DecisionSolver.approvedLoanAmount(POLICY, segment1, 20));
+        assertEquals(12, DecisionSolver.approvedLoanPeriod(POLICY, segment2, 12));
+        assertEquals(3600, DecisionSolver.approvedLoanAmount(POLICY, segment2, 12));
+        assertEquals(10000, DecisionSolver.approvedLoanAmount(POLICY, segment3, 12));
+    }
+
+    /**
+     * The period-increment search that the engine used before the closed-form solver.
+     */
+    private static int searchApprovedLoanPeriod(int creditModifier, int loanPeriod) {
+        if (creditModifier == 0) {
+            return DecisionSolver.NO_VALID_LOAN;
+        }
+        while (creditModifier * loanPeriod < POLICY.getMinimumLoanAmount()) {
+            loanPeriod++;
+        }
+        return loanPeriod <= POLICY.getMaximumLoanPeriod() ? loanPeriod : DecisionSolver.NO_VALID_LOAN;
+    }
+}
@@ -0,0 +1,75 @@
+package ee.taltech.inbankbackend.service;
+
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DecisionTableTest {
+
+    private static final CreditPolicy POLICY = CreditPolicyReader.bundled();
+
+    private final DecisionTable decisionTable = DecisionTable.fromPolicy(POLICY);
+
+    @Test
+    void testTableMatchesSolver() {
+        for (CreditSegment segment : CreditSegment.values()) {
+            int creditModifier = POLICY.getCreditModifier(segment);
+            for (int loanPeriod = POLICY.getMinimumLoanPeriod(); loanPeriod <= POLICY.getMaximumLoanPeriod();
+                 loanPeriod++) {
+                int approvedLoanPeriod = DecisionSolver.approvedLoanPeriod(POLICY, creditModifier, loanPeriod);
+                Decision decision = decisionTable.lookup(segment, loanPeriod);
+
+                if (approvedLoanPeriod == DecisionSolver.NO_VALID_LOAN) {
+                    assertSame(decisionTable.rejected(DecisionStatus.NO_VALID_LOAN), decision);
+                } else {
+                    assertEquals(DecisionStatus.APPROVED, decision.getStatus());
+                    assertEquals(approvedLoanPeriod, decision.getLoanPeriod());
+                    assertEquals(DecisionSolver.approvedLoanAmount(POLICY, creditModifier, approvedLoanPeriod),
+                            decision.getLoanAmount());
+                    assertNull(decision.getErrorMessage());
+                }
+                assertEquals(POLICY.getVersion(), decision.getPolicyVersion());
+            }
+        }
+    }
+
+    @Test
+    void testOfferCurvesMatchLookup() {
+        for (CreditSegment segment : CreditSegment.values()) {
+            OfferCurve offerCurve = decisionTable.offerCurve(segment);
+            for (int loanPeriod = POLICY.getMinimumLoanPeriod(); loanPeriod <= POLICY.getMaximumLoanPeriod();
+                 loanPeriod++) {
+                Decision decision = decisionTable.lookup(segment, loanPeriod);
+                if (offerCurve.getStatus() != DecisionStatus.APPROVED) {
+                    assertSame(decisionTable.rejected(DecisionStatus.NO_VALID_LOAN), decision);
+                } else if (loanPeriod < offerCurve.getMinimumLoanPeriod()) {
+                    assertEquals(offerCurve.getMinimumLoanPeriod(), decision.getLoanPeriod());
+                } else {
+                    assertEquals(loanPeriod, decision.getLoanPeriod());
+                    assertEquals(decision.getLoanAmount(),
+                            offerCurve.getLoanAmounts().get(loanPeriod - offerCurve.getMinimumLoanPeriod()));
+                }
+            }
+        }
+        assertSame(decisionTable.rejectedOfferCurve(DecisionStatus.NO_VALID_LOAN),
+                decisionTable.offerCurve(CreditSegment.DEBT));
+    }
+
+    @Test
+    void testLookupReturnsSharedInstance() {
+        assertSame(decisionTable.lookup(CreditSegment.SEGMENT_2, 24), decisionTable.lookup(CreditSegment.SEGMENT_2, 24));
+    }
+
+    @Test
+    void testSegmentBoundaries() {
+        assertEquals(CreditSegment.DEBT, CreditSegment.fromLastFourDigits(2499));
+        assertEquals(CreditSegment.SEGMENT_1, CreditSegment.fromLastFourDigits(2500));
+        assertEquals(CreditSegment.SEGMENT_2, CreditSegment.fromLastFourDigits(7499));
+        assertEquals(CreditSegment.SEGMENT_3, CreditSegment.fromLastFourDigits(9999));
+    }
+}
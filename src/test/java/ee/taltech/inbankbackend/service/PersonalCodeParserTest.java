@@ -0,0 +1,97 @@
+package ee.taltech.inbankbackend.service;
+
+import com.github.vladislavgoltjajev.personalcode.locale.estonia.EstonianPersonalCodeValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Differential tests that compare PersonalCodeParser with the java-personal-code library.
+ */
+class PersonalCodeParserTest {
+
+    private final EstonianPersonalCodeValidator validator = new EstonianPersonalCodeValidator();
+
+    @Test
+    void testKnownCodes() {
+        assertEquals(299, PersonalCodeParser.parseLastFourDigits("37605030299"));
+        assertEquals(2740, PersonalCodeParser.parseLastFourDigits("50307172740"));
+        assertEquals(6610, PersonalCodeParser.parseLastFourDigits("38411266610"));
+        assertEquals(9515, PersonalCodeParser.parseLastFourDigits("35006069515"));
+        assertEquals(PersonalCodeParser.INVALID, PersonalCodeParser.parseLastFourDigits("12345678901"));
+    }
+
+    @Test
+    void testCheckDigitOfKnownCodes() {
+        assertEquals(9, PersonalCodeParser.checkDigit("3760503029"));
+        assertEquals(0, PersonalCodeParser.checkDigit("50307172740"));
+        assertEquals(5, PersonalCodeParser.checkDigit("3500606951"));
+    }
+
+    /**
+     * Covers every century digit and every YYMMDD combination, including impossible months and days,
+     * each with the correct and with a wrong checksum.
+     */
+    @Test
+    void testAgreesWithLibraryForAllDates() {
+        char[] code = new char[11];
+        for (int centuryDigit = 0; centuryDigit <= 9; centuryDigit++) {
+            for (int year = 0; year <= 99; year++) {
+                for (int month = 0; month <= 13; month++) {
+                    for (int day = 0; day <= 32; day++) {
+                        int serialNumber = (year * 31 + month * 7 + day) % 1000;
+                        fill(code, centuryDigit, year, month, day, serialNumber);
+
+                        int checkDigit = PersonalCodeParser.checkDigit(CharBuffer.wrap(code));
+                        code[10] = (char) ('0' + checkDigit);
+                        assertAgreesWithLibrary(new String(code));
+                        code[10] = (char) ('0' + (checkDigit + 1 + day % 9) % 10);
+                        assertAgreesWithLibrary(new String(code));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAgreesWithLibraryForAllSerialNumbersAndCheckDigits() {
+        char[] code = new char[11];
+        for (int serialNumber = 0; serialNumber <= 999; serialNumber++) {
+            for (int checkDigit = 0; checkDigit <= 9; checkDigit++) {
+                fill(code, 4, 88, 2, 29, serialNumber);
+                code[10] = (char) ('0' + checkDigit);
+                assertAgreesWithLibrary(new String(code));
+            }
+        }
+    }
+
+    @Test
+    void testAgreesWithLibraryForMalformedCodes() {
+        String[] malformedCodes = {"", "5030717274", "503071727400", "5030717274a", " 50307172740", "50307172740 ",
+                "5030717-740", "５0307172740", "-0307172740", "abcdefghijk"};
+        for (String malformedCode : malformedCodes) {
+            assertAgreesWithLibrary(malformedCode);
+        }
+        assertEquals(PersonalCodeParser.INVALID, PersonalCodeParser.parseLastFourDigits(null));
+    }
+
+    private void assertAgreesWithLibrary(String personalCode) {
+        assertEquals(validator.isValid(personalCode), PersonalCodeParser.isValid(personalCode),
+                "Disagreement for " + personalCode);
+    }
+
+    private static void fill(char[] code, int centuryDigit, int year, int month, int day, int serialNumber) {
+        code[0] = (char) ('0' + centuryDigit);
+        code[1] = (char) ('0' + year / 10);
+        code[2] = (char) ('0' + year % 10);
+        code[3] = (char) ('0' + month / 10);
+        code[4] = (char) ('0' + month % 10);
+        code[5] = (char) ('0' + day / 10);
+        code[6] = (char) ('0' + day % 10);
+        code[7] = (char) ('0' + serialNumber / 100);
+        code[8] = (char) ('0' + serialNumber / 10 % 10);
+        code[9] = (char) ('0' + serialNumber % 10);
+    }
+}
@@ -0,0 +1,143 @@
+package ee.taltech.inbankbackend.simulation;
+
+import ee.taltech.inbankbackend.audit.AuditLog;
+import ee.taltech.inbankbackend.credit.CreditSegment;
+import ee.taltech.inbankbackend.credit.LocalCreditModifierProvider;
+import ee.taltech.inbankbackend.policy.CreditPolicy;
+import ee.taltech.inbankbackend.policy.CreditPolicyReader;
+import ee.taltech.inbankbackend.policy.CreditPolicyStore;
+import ee.taltech.inbankbackend.service.Decision;
+import ee.taltech.inbankbackend.service.DecisionCache;
+import ee.taltech.inbankbackend.service.DecisionEngine;
+import ee.taltech.inbankbackend.service.DecisionMetrics;
+import ee.taltech.inbankbackend.service.DecisionStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PolicySimulatorTest {
+
+    private static final String[] PERSONAL_CODES = {"50307172740", "38411266610", "35006069515", "37605030299",
+            "12345678901", null};
+
+    private final PolicySimulator simulator = new PolicySimulator(ForkJoinPool.commonPool());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSimulationMatchesDecisionEngine() {
+        CreditPolicy bundled = CreditPolicyReader.bundled();
+        CreditPolicy candidate = new CreditPolicy("candidate", 1000, 12000, 6, 48, Map.of(
+                CreditSegment.SEGMENT_1, 50, CreditSegment.SEGMENT_2, 300, CreditSegment.SEGMENT_3, 2000));
+        DecisionEngine bundledEngine = engine(bundled);
+        DecisionEngine candidateEngine = engine(candidate);
+
+        // More requests than fit in one chunk, so that the results of several chunks are merged
+        RequestPopulation.Builder builder = RequestPopulation.builder();
+        long[] expectedCounts = new long[DecisionStatus.values().length];
+        long expectedAmountSum = 0;
+        long expectedPeriodSum = 0;
+        long expectedGained = 0;
+        long expectedLost = 0;
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            String personalCode = PERSONAL_CODES[random.nextInt(PERSONAL_CODES.length)];
+            Long loanAmount = random.nextInt(20) == 0 ? null : (long) random.nextInt(14_000);
+            int loanPeriod = random.nextInt(70);
+            builder.add(personalCode, loanAmount, loanPeriod);
+
+            boolean approvedByBaseline = bundledEngine.calculateApprovedLoan(personalCode, loanAmount, loanPeriod)
+                    .getStatus() == DecisionStatus.APPROVED;
+            Decision decision = candidateEngine.calculateApprovedLoan(personalCode, loanAmount, loanPeriod);
+            expectedCounts[decision.getStatus().ordinal()]++;
+            boolean approved = decision.getStatus() == DecisionStatus.APPROVED;
+            if (approved) {
+                expectedAmountSum += decision.getLoanAmount();
+                expectedPeriodSum += decision.getLoanPeriod();
+            }
+            if (approved && !approvedByBaseline) {
+                expectedGained++;
+            } else if (!approved && approvedByBaseline) {
+                expectedLost++;
+            }
+        }
+
+        List<PolicyOutcome> outcomes = simulator.simulate(builder.build(), List.of(bundled, candidate));
+
+        assertEquals(0, outcomes.get(0).gainedApprovals());
+        assertEquals(0, outcomes.get(0).lostApprovals());
+        PolicyOutcome outcome = outcomes.get(1);
+        assertEquals("candidate", outcome.policyVersion());
+        assertEquals(100_000, outcome.requests());
+        assertArrayEquals(expectedCounts, outcome.statusCounts());
+        assertEquals(expectedAmountSum, outcome.approvedLoanAmountSum());
+        assertEquals(expectedPeriodSum, outcome.approvedLoanPeriodSum());
+        assertEquals(expectedGained, outcome.gainedApprovals());
+        assertEquals(expectedLost, outcome.lostApprovals());
+        assertEquals(outcome.approvals(), Arrays.stream(outcome.approvedLoanAmounts()).sum());
+        assertEquals(outcome.approvals(), Arrays.stream(outcome.approvedLoanPeriods()).sum());
+    }
+
+    @Test
+    void testDistributions() {
+        RequestPopulation population = RequestPopulation.builder()
+                .add("50307172740", 4000L, 12)
+                .add("50307172740", 4000L, 30)
+                .add("38411266610", 4000L, 12)
+                .build();
+
+        PolicyOutcome outcome = simulator.simulate(population, List.of(CreditPolicyReader.bundled())).get(0);
+
+        assertEquals(3, outcome.approvals());
+        assertEquals(1, outcome.adjustedPeriods());
+        long[] expectedAmounts = new long[11];
+        expectedAmounts[2] = 1;
+        expectedAmounts[3] = 2;
+        assertArrayEquals(expectedAmounts, outcome.approvedLoanAmounts());
+        assertEquals(1, outcome.approvedLoanPeriods()[12]);
+        assertEquals(1, outcome.approvedLoanPeriods()[20]);
+        assertEquals(1, outcome.approvedLoanPeriods()[30]);
+        assertEquals((2000 + 3000 + 3600) / 3.0, outcome.averageApprovedLoanAmount(), 1e-9);
+    }
+
+    @Test
+    void testReadRequestFile() throws IOException {
+        Path file = directory.resolve("requests.csv");
+        Files.writeString(file, """
+                personalCode,loanAmount,loanPeriod
+                50307172740,4000,12
+
+                38411266610,4000,12""");
+
+        RequestPopulation population = RequestPopulation.read(file);
+
+        assertEquals(2, population.size());
+        assertEquals(2, population.getSkippedCount());
+    }
+
+    @Test
+    void testNoPolicies() {
+        assertThrows(IllegalArgumentException.class,
+                () -> simulator.simulate(RequestPopulation.builder().build(), List.of()));
+    }
+
+    private static DecisionEngine engine(CreditPolicy policy) {
+        return new DecisionEngine(CreditPolicyStore.of(DecisionCache.disabled(), policy), DecisionCache.disabled(),
+                new LocalCreditModifierProvider(Map.of(), Duration.ZERO), DecisionMetrics.disabled(),
+                AuditLog.disabled());
+    }
+}